@@ -0,0 +1,59 @@
+package com.example.smartirrigationsystem.controller;
+
+import com.example.smartirrigationsystem.dto.CacheStatisticsDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Second-level cache hit/miss counters (hibernate.generate_statistics must be on). ADMIN only.
+ */
+@RestController
+@RequestMapping("/api/cache-statistics")
+public class CacheStatisticsController {
+
+    private final Statistics statistics;
+
+    public CacheStatisticsController(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @GetMapping
+    public CacheStatisticsDto get() {
+        String[] names = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(names);
+        List<CacheStatisticsDto.Region> regions = new ArrayList<>(names.length);
+        for (String name : names) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            regions.add(new CacheStatisticsDto.Region(name, region.getHitCount(), region.getMissCount(),
+                    region.getPutCount()));
+        }
+        return new CacheStatisticsDto(
+                statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount(),
+                statistics.getNaturalIdCacheHitCount(),
+                statistics.getNaturalIdCacheMissCount(),
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                statistics.getPrepareStatementCount(),
+                regions);
+    }
+
+    // starts a new measurement window; the cached data itself is kept
+    @DeleteMapping
+    public ResponseEntity<Void> reset() {
+        statistics.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.smartirrigationsystem.controller;
+
+import com.example.smartirrigationsystem.dto.IngestStatisticsDto;
+import com.example.smartirrigationsystem.service.SensorIngestQueue;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Sensor ingest queue counters of this instance, dropped readings included. ADMIN only.
+ */
+@RestController
+@RequestMapping("/api/ingest-statistics")
+public class IngestStatisticsController {
+
+    private final SensorIngestQueue ingestQueue;
+
+    public IngestStatisticsController(SensorIngestQueue ingestQueue) {
+        this.ingestQueue = ingestQueue;
+    }
+
+    @GetMapping
+    public IngestStatisticsDto get() {
+        return new IngestStatisticsDto(ingestQueue.size(), ingestQueue.pendingRetry(), ingestQueue.droppedReadings());
+    }
+}
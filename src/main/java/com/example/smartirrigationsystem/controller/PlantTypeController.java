@@ -3,22 +3,26 @@ package com.example.smartirrigationsystem.controller;
 
 import com.example.smartirrigationsystem.entity.PlantType;
 import com.example.smartirrigationsystem.repository.PlantTypeRepository;
+import com.example.smartirrigationsystem.service.CatalogCache;
+import com.example.smartirrigationsystem.service.CatalogSnapshot;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
 import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/plant-types")
 public class PlantTypeController {
 
     private final PlantTypeRepository plantTypeRepo;
+    private final CatalogCache catalogCache;
 
-    public PlantTypeController(PlantTypeRepository plantTypeRepo) {
+    public PlantTypeController(PlantTypeRepository plantTypeRepo, CatalogCache catalogCache) {
         this.plantTypeRepo = plantTypeRepo;
+        this.catalogCache = catalogCache;
     }
 
     /**
@@ -27,8 +31,13 @@ public class PlantTypeController {
      */
     @GetMapping
     @PreAuthorize("hasAnyRole('VIEWER','MAINTAINER','ADMIN')")
-    public List<PlantType> listAll() {
-        return plantTypeRepo.findAll();
+    public ResponseEntity<List<PlantType>> listAll() {
+        // з кешу довідника; при незмінному ETag (If-None-Match) Spring відповідає 304 без тіла
+        CatalogSnapshot catalog = catalogCache.current();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(catalog.getPlantTypesETag())
+                .body(catalog.getPlantTypes());
     }
 
     /**
@@ -40,6 +49,7 @@ public class PlantTypeController {
     public ResponseEntity<PlantType> create(@RequestBody PlantType dto) {
         // Проста перевірка: унікальність по назві?
         PlantType saved = plantTypeRepo.save(dto);
+        catalogCache.reload();
         return ResponseEntity.created(URI.create("/api/plant-types/" + saved.getId())).body(saved);
     }
 
@@ -50,8 +60,8 @@ public class PlantTypeController {
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('VIEWER','MAINTAINER','ADMIN')")
     public ResponseEntity<PlantType> getOne(@PathVariable Integer id) {
-        Optional<PlantType> pt = plantTypeRepo.findById(id);
-        return pt.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        PlantType plantType = catalogCache.current().plantType(id);
+        return plantType != null ? ResponseEntity.ok(plantType) : ResponseEntity.notFound().build();
     }
 
     /**
@@ -70,6 +80,8 @@ public class PlantTypeController {
             existing.setOptimalMoistureMin(dto.getOptimalMoistureMin());
             existing.setOptimalMoistureMax(dto.getOptimalMoistureMax());
             PlantType saved = plantTypeRepo.save(existing);
+            // пороги вологості змінилися для всіх підзон з цим типом рослин
+            catalogCache.reload();
             return ResponseEntity.ok(saved);
         }).orElseGet(() -> ResponseEntity.notFound().build());
     }
@@ -85,6 +97,7 @@ public class PlantTypeController {
             return ResponseEntity.notFound().build();
         }
         plantTypeRepo.deleteById(id);
+        catalogCache.reload();
         return ResponseEntity.noContent().build();
     }
 }
@@ -0,0 +1,126 @@
+package com.example.smartirrigationsystem.controller;
+
+import com.example.smartirrigationsystem.dto.PlannedIrrigationResponse;
+import com.example.smartirrigationsystem.dto.SensorDataRequest;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-layout binary frames for controllers on metered links, as an alternative to JSON
+ * for POST /api/zones/readings. All numbers are big-endian and unsigned.
+ * <pre>
+ * request:  version(1)=1  flags(1)  uidLength(1)  uid(uidLength, ASCII)
+ *           [sequenceNumber(8) if flags bit 0]  count(2)
+ *           count x { subzoneIndex(2)  moistureAndRain(1): bits 0-6 moisture %, bit 7 rain }
+ * response: version(1)=1  count(2)
+ *           count x { subzoneIndex(2)  durationSeconds(2)  startOffsetSeconds(4) }
+ * </pre>
+ * A post with 8 subzones is 32 bytes plus the UID. Decoding reads the buffer in place and
+ * allocates only the objects the service consumes.
+ */
+public final class SensorFrameCodec {
+
+    public static final String MEDIA_TYPE = "application/x-irrigation-frame";
+
+    static final byte VERSION = 1;
+    static final int FLAG_SEQUENCE_NUMBER = 1;
+    private static final int RESPONSE_HEADER = 3;
+    private static final int RESPONSE_ENTRY = 8;
+
+    private SensorFrameCodec() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the frame is malformed or truncated
+     */
+    public static SensorDataRequest decode(ByteBuffer frame) {
+        try {
+            if (frame.get() != VERSION) {
+                throw new IllegalArgumentException("Unsupported frame version");
+            }
+            int flags = frame.get() & 0xFF;
+            int uidLength = frame.get() & 0xFF;
+            if (uidLength == 0 || uidLength > frame.remaining()) {
+                throw new IllegalArgumentException("Invalid controller UID length " + uidLength);
+            }
+            String controllerUid;
+            if (frame.hasArray()) {
+                controllerUid = new String(frame.array(), frame.arrayOffset() + frame.position(), uidLength,
+                        StandardCharsets.US_ASCII);
+                frame.position(frame.position() + uidLength);
+            } else {
+                byte[] uid = new byte[uidLength];
+                frame.get(uid);
+                controllerUid = new String(uid, StandardCharsets.US_ASCII);
+            }
+
+            SensorDataRequest req = new SensorDataRequest();
+            req.setControllerUid(controllerUid);
+            if ((flags & FLAG_SEQUENCE_NUMBER) != 0) {
+                req.setSequenceNumber(frame.getLong());
+            }
+            int count = frame.getShort() & 0xFFFF;
+            if (frame.remaining() != count * 3) {
+                throw new IllegalArgumentException("Frame announces " + count + " subzones but has "
+                        + frame.remaining() + " bytes left");
+            }
+            List<SensorDataRequest.SubzoneData> subZones = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                SensorDataRequest.SubzoneData data = new SensorDataRequest.SubzoneData();
+                data.setSubzoneIndex(frame.getShort() & 0xFFFF);
+                int moistureAndRain = frame.get() & 0xFF;
+                data.setSoilMoisturePercent(moistureAndRain & 0x7F);
+                data.setRainDetected((moistureAndRain & 0x80) != 0);
+                subZones.add(data);
+            }
+            req.setSubZones(subZones);
+            return req;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated frame", e);
+        }
+    }
+
+    public static int encodedSize(PlannedIrrigationResponse response) {
+        return RESPONSE_HEADER + RESPONSE_ENTRY * response.getSubZones().size();
+    }
+
+    public static void encode(PlannedIrrigationResponse response, ByteBuffer out) {
+        List<PlannedIrrigationResponse.SubZonePlan> plans = response.getSubZones();
+        out.put(VERSION);
+        out.putShort((short) plans.size());
+        for (PlannedIrrigationResponse.SubZonePlan plan : plans) {
+            out.putShort((short) plan.getSubzoneIndex());
+            // durations above ~18 hours don't occur; clamp rather than wrap
+            out.putShort((short) Math.min(plan.getPlannedIrrigationDurationInSeconds(), 0xFFFF));
+            out.putInt(plan.getStartOffsetInSeconds());
+        }
+    }
+
+    /**
+     * Request encoding, for controller firmware tests and the benchmark.
+     */
+    public static ByteBuffer encode(SensorDataRequest req) {
+        byte[] uid = req.getControllerUid().getBytes(StandardCharsets.US_ASCII);
+        boolean hasSequenceNumber = req.getSequenceNumber() != null;
+        ByteBuffer out = ByteBuffer.allocate(3 + uid.length + (hasSequenceNumber ? 8 : 0) + 2
+                + 3 * req.getSubZones().size());
+        out.put(VERSION);
+        out.put((byte) (hasSequenceNumber ? FLAG_SEQUENCE_NUMBER : 0));
+        out.put((byte) uid.length);
+        out.put(uid);
+        if (hasSequenceNumber) {
+            out.putLong(req.getSequenceNumber());
+        }
+        out.putShort((short) req.getSubZones().size());
+        for (SensorDataRequest.SubzoneData data : req.getSubZones()) {
+            out.putShort((short) data.getSubzoneIndex());
+            int moisture = Math.max(0, Math.min(100, data.getSoilMoisturePercent()));
+            out.put((byte) (moisture | (data.isRainDetected() ? 0x80 : 0)));
+        }
+        return out.flip();
+    }
+}
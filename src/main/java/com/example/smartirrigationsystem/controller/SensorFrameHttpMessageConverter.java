@@ -0,0 +1,74 @@
+package com.example.smartirrigationsystem.controller;
+
+import com.example.smartirrigationsystem.dto.PlannedIrrigationResponse;
+import com.example.smartirrigationsystem.dto.SensorDataRequest;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads {@link SensorDataRequest} and writes {@link PlannedIrrigationResponse} as
+ * {@link SensorFrameCodec} frames. Registered after the JSON converter (see
+ * {@link SensorFrameWebConfig}), so clients that accept anything still get JSON and a
+ * controller opts in with {@code Content-Type} / {@code Accept: application/x-irrigation-frame}.
+ */
+public class SensorFrameHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    // a frame can't be larger than the maximum UID and subzone count allow
+    private static final int MAX_FRAME_SIZE = 3 + 255 + 8 + 2 + 3 * 0xFFFF;
+
+    public SensorFrameHttpMessageConverter() {
+        super(MediaType.parseMediaType(SensorFrameCodec.MEDIA_TYPE));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == SensorDataRequest.class || clazz == PlannedIrrigationResponse.class;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return mediaType != null && super.canRead(mediaType);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return clazz == SensorDataRequest.class && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return clazz == PlannedIrrigationResponse.class && canWrite(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        byte[] body = inputMessage.getBody().readNBytes(MAX_FRAME_SIZE + 1);
+        if (body.length > MAX_FRAME_SIZE) {
+            throw new HttpMessageNotReadableException("Frame too large", inputMessage);
+        }
+        try {
+            return SensorFrameCodec.decode(ByteBuffer.wrap(body));
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException(e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected Long getContentLength(Object response, MediaType contentType) {
+        return (long) SensorFrameCodec.encodedSize((PlannedIrrigationResponse) response);
+    }
+
+    @Override
+    protected void writeInternal(Object response, HttpOutputMessage outputMessage) throws IOException {
+        PlannedIrrigationResponse plan = (PlannedIrrigationResponse) response;
+        ByteBuffer out = ByteBuffer.allocate(SensorFrameCodec.encodedSize(plan));
+        SensorFrameCodec.encode(plan, out);
+        outputMessage.getBody().write(out.array());
+    }
+}
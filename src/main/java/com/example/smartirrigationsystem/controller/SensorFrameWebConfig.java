@@ -0,0 +1,17 @@
+package com.example.smartirrigationsystem.controller;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class SensorFrameWebConfig implements WebMvcConfigurer {
+
+    // appended, not prepended: with "Accept: */*" the first capable converter (JSON) must win
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new SensorFrameHttpMessageConverter());
+    }
+}
@@ -3,22 +3,26 @@ package com.example.smartirrigationsystem.controller;
 
 import com.example.smartirrigationsystem.entity.SoilType;
 import com.example.smartirrigationsystem.repository.SoilTypeRepository;
+import com.example.smartirrigationsystem.service.CatalogCache;
+import com.example.smartirrigationsystem.service.CatalogSnapshot;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
 import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/soil-types")
 public class SoilTypeController {
 
     private final SoilTypeRepository soilTypeRepo;
+    private final CatalogCache catalogCache;
 
-    public SoilTypeController(SoilTypeRepository soilTypeRepo) {
+    public SoilTypeController(SoilTypeRepository soilTypeRepo, CatalogCache catalogCache) {
         this.soilTypeRepo = soilTypeRepo;
+        this.catalogCache = catalogCache;
     }
 
     /**
@@ -27,8 +31,13 @@ public class SoilTypeController {
      */
     @GetMapping
     @PreAuthorize("hasAnyRole('VIEWER','MAINTAINER','ADMIN')")
-    public List<SoilType> listAll() {
-        return soilTypeRepo.findAll();
+    public ResponseEntity<List<SoilType>> listAll() {
+        // з кешу довідника; при незмінному ETag (If-None-Match) Spring відповідає 304 без тіла
+        CatalogSnapshot catalog = catalogCache.current();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(catalog.getSoilTypesETag())
+                .body(catalog.getSoilTypes());
     }
 
     /**
@@ -39,6 +48,7 @@ public class SoilTypeController {
     @PreAuthorize("hasAnyRole('MAINTAINER','ADMIN')")
     public ResponseEntity<SoilType> create(@RequestBody SoilType dto) {
         SoilType saved = soilTypeRepo.save(dto);
+        catalogCache.reload();
         return ResponseEntity.created(URI.create("/api/soil-types/" + saved.getId())).body(saved);
     }
 
@@ -49,8 +59,8 @@ public class SoilTypeController {
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('VIEWER','MAINTAINER','ADMIN')")
     public ResponseEntity<SoilType> getOne(@PathVariable Integer id) {
-        Optional<SoilType> st = soilTypeRepo.findById(id);
-        return st.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        SoilType soilType = catalogCache.current().soilType(id);
+        return soilType != null ? ResponseEntity.ok(soilType) : ResponseEntity.notFound().build();
     }
 
     /**
@@ -66,7 +76,10 @@ public class SoilTypeController {
         return soilTypeRepo.findById(id).map(existing -> {
             existing.setName(dto.getName());
             existing.setDescription(dto.getDescription());
+            existing.setWaitingTimeBeforeMoistureCheckInMinutes(dto.getWaitingTimeBeforeMoistureCheckInMinutes());
             SoilType saved = soilTypeRepo.save(existing);
+            // час вбирання змінився для всіх підзон з цим типом ґрунту
+            catalogCache.reload();
             return ResponseEntity.ok(saved);
         }).orElseGet(() -> ResponseEntity.notFound().build());
     }
@@ -82,6 +95,7 @@ public class SoilTypeController {
             return ResponseEntity.notFound().build();
         }
         soilTypeRepo.deleteById(id);
+        catalogCache.reload();
         return ResponseEntity.noContent().build();
     }
 }
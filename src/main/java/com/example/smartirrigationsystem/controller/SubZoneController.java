@@ -1,26 +1,38 @@
 package com.example.smartirrigationsystem.controller;
 
+import com.example.smartirrigationsystem.dto.NextMoistureCheckDto;
 import com.example.smartirrigationsystem.dto.SoilMoistureReadingDto;
 import com.example.smartirrigationsystem.entity.PlantType;
+import com.example.smartirrigationsystem.entity.ReadingResolution;
 import com.example.smartirrigationsystem.entity.SoilType;
 import com.example.smartirrigationsystem.entity.SubZone;
-import com.example.smartirrigationsystem.repository.PlantTypeRepository;
-import com.example.smartirrigationsystem.repository.SoilTypeRepository;
+import com.example.smartirrigationsystem.service.CatalogCache;
+import com.example.smartirrigationsystem.service.CatalogSnapshot;
 import com.example.smartirrigationsystem.service.SubZoneService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/zones/{zoneId}/subzones")
 @RequiredArgsConstructor
 public class SubZoneController {
+    private static final String NDJSON = "application/x-ndjson";
+
     private final SubZoneService subZoneService;
-    private final PlantTypeRepository plantTypeRepo;
-    private final SoilTypeRepository soilTypeRepo;
+    private final CatalogCache catalogCache;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/{id}")
     public SubZone get(@PathVariable Integer id) {
@@ -32,7 +44,7 @@ public class SubZoneController {
     public ResponseEntity<?> updateSubZone(
             @PathVariable Integer zoneId,
             @PathVariable Integer id,
-            @RequestBody SubZone incoming  // we expect JSON with fields: name, plantType.id, soilType.id, extraInfo, defaultIrrigationDurationInSeconds
+            @RequestBody SubZone incoming  // we expect JSON with fields: name, plantType.id, soilType.id, extraInfo, defaultIrrigationDurationInSeconds, valveFlowLitersPerMinute
     ) {
         // 1) load existing SubZone
         SubZone existing = subZoneService.findById(id);
@@ -44,12 +56,14 @@ public class SubZoneController {
         existing.setName(incoming.getName());
         existing.setExtraInfo(incoming.getExtraInfo());
         existing.setDefaultIrrigationDurationInSeconds(incoming.getDefaultIrrigationDurationInSeconds());
+        existing.setValveFlowLitersPerMinute(incoming.getValveFlowLitersPerMinute());
 
-        // 3) Update plantType if provided
+        // 3) Update plantType if provided (resolved from the catalog cache, no query)
+        CatalogSnapshot catalog = catalogCache.current();
         if (incoming.getPlantType() != null && incoming.getPlantType().getId() != null) {
-            Optional<PlantType> ptOpt = plantTypeRepo.findById(incoming.getPlantType().getId());
-            if (ptOpt.isPresent()) {
-                existing.setPlantType(ptOpt.get());
+            PlantType plantType = catalog.plantType(incoming.getPlantType().getId());
+            if (plantType != null) {
+                existing.setPlantType(plantType);
             } else {
                 return ResponseEntity.badRequest()
                         .body("Invalid plantType ID: " + incoming.getPlantType().getId());
@@ -60,9 +74,9 @@ public class SubZoneController {
 
         // 4) Update soilType if provided
         if (incoming.getSoilType() != null && incoming.getSoilType().getId() != null) {
-            Optional<SoilType> stOpt = soilTypeRepo.findById(incoming.getSoilType().getId());
-            if (stOpt.isPresent()) {
-                existing.setSoilType(stOpt.get());
+            SoilType soilType = catalog.soilType(incoming.getSoilType().getId());
+            if (soilType != null) {
+                existing.setSoilType(soilType);
             } else {
                 return ResponseEntity.badRequest()
                         .body("Invalid soilType ID: " + incoming.getSoilType().getId());
@@ -77,9 +91,61 @@ public class SubZoneController {
     }
 
     // existing endpoint(s):
+    // resolution: raw (default), 5m, 1h or 1d; from/to are ISO date-times, `to` exclusive.
+    // after/limit switch to keyset pages of raw readings: pass the last recordedAt as the next `after`.
     @GetMapping("/{id}/soil-readings")
-    public List<SoilMoistureReadingDto> getSoilMoistureReadings(@PathVariable Integer id) {
-        return subZoneService.getSoilReadingsForSubzone(id);
+    public List<SoilMoistureReadingDto> getSoilMoistureReadings(
+            @PathVariable Integer id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "raw") String resolution,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
+            @RequestParam(required = false) Integer limit
+    ) {
+        ReadingResolution parsed;
+        try {
+            parsed = ReadingResolution.fromParam(resolution);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (after != null || limit != null) {
+            if (parsed != ReadingResolution.RAW || from != null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "'after'/'limit' page raw readings and can't be combined with 'from' or 'resolution'");
+            }
+            return subZoneService.getSoilReadingsPage(id, after, to,
+                    limit != null ? limit : SubZoneService.DEFAULT_PAGE_SIZE);
+        }
+        return subZoneService.getSoilReadingsForSubzone(id, from, to, parsed);
+    }
+
+    // full raw history export as NDJSON (one reading per line), written page by page
+    @GetMapping(value = "/{id}/soil-readings/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamSoilMoistureReadings(
+            @PathVariable Integer id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        // 404 while we can still set the status
+        subZoneService.findById(id);
+        StreamingResponseBody body = out -> subZoneService.forEachSoilReadingPage(id, after, to, page -> {
+            try {
+                for (SoilMoistureReadingDto reading : page) {
+                    out.write(objectMapper.writeValueAsBytes(reading));
+                    out.write('\n');
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    // when the soil-specific soak window after the last irrigation ends
+    @GetMapping("/{id}/next-check")
+    public NextMoistureCheckDto getNextMoistureCheck(@PathVariable Integer id) {
+        return subZoneService.getNextMoistureCheck(id);
     }
 
     @PutMapping("/{id}/fix-issue")
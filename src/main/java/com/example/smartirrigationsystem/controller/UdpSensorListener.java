@@ -0,0 +1,253 @@
+package com.example.smartirrigationsystem.controller;
+
+import com.example.smartirrigationsystem.dto.PlannedIrrigationResponse;
+import com.example.smartirrigationsystem.dto.SensorDataRequest;
+import com.example.smartirrigationsystem.security.DeviceKeyRegistry;
+import com.example.smartirrigationsystem.service.IngestAdmission;
+import com.example.smartirrigationsystem.service.SensorPostDeduplicator;
+import com.example.smartirrigationsystem.service.ZoneService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Second ingest front end for controllers: one UDP datagram per post, carrying a
+ * {@link SensorFrameCodec} request frame followed by a 16-byte HMAC-SHA256 (truncated) over
+ * the frame, keyed with HMAC-SHA256(device key, "udp-frame") of the sending controller (see
+ * {@link DeviceKeyRegistry#macKey}). The plan goes back to the sender in the same way.
+ * Every frame must carry a sequence number above the last one accepted from its controller;
+ * a repeat of the last one only gets its stored plan back, so a captured datagram can't be
+ * replayed into the ingest. The last number is stored on the zone after each ingested post and
+ * read back on the first frame of a controller (or of a new key), so a restart doesn't reopen
+ * the replay window. Posts go through the same dedupe window, admission limit and ingest
+ * service as POST /api/zones/readings; datagrams with a bad MAC, frame or sequence number,
+ * and posts the service rejects (busy, retry in progress), get no answer and the controller
+ * retries.
+ * Off unless {@code irrigation.udp.enabled=true}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "irrigation.udp.enabled", havingValue = "true")
+public class UdpSensorListener {
+
+    static final int MAC_LENGTH = 16;
+    // largest UDP payload over IPv4
+    private static final int MAX_DATAGRAM = 65_507;
+    private static final int QUEUE_CAPACITY = 1_000;
+
+    private final ZoneService zoneService;
+    private final SensorPostDeduplicator deduplicator;
+    private final IngestAdmission admission;
+    private final DeviceKeyRegistry deviceKeys;
+    private final InetSocketAddress bindAddress;
+    private final int workers;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(UdpSensorListener::newMac);
+    // highest sequence number ingested per controllerUid, under the MAC key it was accepted with
+    private final Map<String, SequenceMark> lastSequenceNumbers = new ConcurrentHashMap<>();
+
+    private static final class SequenceMark {
+        final byte[] macKey;
+        final long sequenceNumber;
+
+        SequenceMark(byte[] macKey, long sequenceNumber) {
+            this.macKey = macKey;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        static SequenceMark later(SequenceMark a, SequenceMark b) {
+            if (!Arrays.equals(a.macKey, b.macKey)) {
+                return b;
+            }
+            return a.sequenceNumber >= b.sequenceNumber ? a : b;
+        }
+    }
+
+    private DatagramChannel channel;
+    private ExecutorService pool;
+    private Thread receiver;
+
+    public UdpSensorListener(ZoneService zoneService,
+                             SensorPostDeduplicator deduplicator,
+                             IngestAdmission admission,
+                             DeviceKeyRegistry deviceKeys,
+                             @Value("${irrigation.udp.host:0.0.0.0}") String host,
+                             @Value("${irrigation.udp.port:9876}") int port,
+                             @Value("${irrigation.udp.workers:4}") int workers) {
+        this.zoneService = zoneService;
+        this.deduplicator = deduplicator;
+        this.admission = admission;
+        this.deviceKeys = deviceKeys;
+        this.bindAddress = new InetSocketAddress(host, port);
+        this.workers = workers;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() throws IOException {
+        if (channel != null) {
+            return;
+        }
+        channel = DatagramChannel.open().bind(bindAddress);
+        // bounded: when ingest can't keep up, datagrams are dropped instead of queueing without limit
+        pool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+            Thread thread = new Thread(r, "udp-ingest");
+            thread.setDaemon(true);
+            return thread;
+        });
+        receiver = new Thread(this::receiveLoop, "udp-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+        log.info("UDP sensor listener on {}", channel.getLocalAddress());
+    }
+
+    public synchronized int getLocalPort() throws IOException {
+        return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        channel.close();
+        pool.shutdown();
+        channel = null;
+    }
+
+    private void receiveLoop() {
+        DatagramChannel channel = this.channel;
+        ExecutorService pool = this.pool;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_DATAGRAM);
+        while (channel.isOpen()) {
+            SocketAddress sender;
+            try {
+                buffer.clear();
+                sender = channel.receive(buffer);
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                log.warn("UDP receive failed", e);
+                continue;
+            }
+            buffer.flip();
+            byte[] datagram = new byte[buffer.remaining()];
+            buffer.get(datagram);
+            try {
+                pool.execute(() -> handle(channel, datagram, sender));
+            } catch (RejectedExecutionException e) {
+                log.debug("UDP ingest overloaded, dropping datagram from {}", sender);
+            }
+        }
+    }
+
+    void handle(DatagramChannel channel, byte[] datagram, SocketAddress sender) {
+        int frameLength = datagram.length - MAC_LENGTH;
+        try {
+            if (frameLength <= 0) {
+                throw new IllegalArgumentException("datagram too short");
+            }
+            // the uid picks the key, so the frame is parsed before it is authenticated
+            SensorDataRequest req = SensorFrameCodec.decode(ByteBuffer.wrap(datagram, 0, frameLength));
+            byte[] key = deviceKeys.macKey(req.getControllerUid());
+            if (key == null || !MessageDigest.isEqual(mac(key, datagram, frameLength),
+                    Arrays.copyOfRange(datagram, frameLength, datagram.length))) {
+                log.debug("Dropping unauthenticated datagram from {}", sender);
+                return;
+            }
+            PlannedIrrigationResponse response = plan(req, key);
+            if (response == null) {
+                log.debug("Dropping replayed or unnumbered frame from {}", sender);
+                return;
+            }
+
+            int size = SensorFrameCodec.encodedSize(response);
+            ByteBuffer out = ByteBuffer.allocate(size + MAC_LENGTH);
+            SensorFrameCodec.encode(response, out);
+            out.put(mac(key, out.array(), size));
+            channel.send(out.flip(), sender);
+        } catch (IllegalArgumentException e) {
+            log.debug("Dropping malformed frame from {}: {}", sender, e.getMessage());
+        } catch (ResponseStatusException e) {
+            log.debug("Post from {} not ingested: {}", sender, e.getReason());
+        } catch (IOException | RuntimeException e) {
+            log.warn("UDP post from {} failed", sender, e);
+        }
+    }
+
+    // null = not answered: no sequence number, one below the last accepted, or a repeat no longer stored
+    private PlannedIrrigationResponse plan(SensorDataRequest req, byte[] key) {
+        Long sequenceNumber = req.getSequenceNumber();
+        if (sequenceNumber == null) {
+            return null;
+        }
+        String controllerUid = req.getControllerUid();
+        Long last = lastSequenceNumber(controllerUid, key);
+        if (last != null && sequenceNumber <= last) {
+            return sequenceNumber.equals(last) ? deduplicator.stored(controllerUid, sequenceNumber) : null;
+        }
+        // the dedupe window keeps concurrent copies of the same post from being ingested twice
+        PlannedIrrigationResponse response = deduplicator.handle(req,
+                () -> admission.admit(() -> zoneService.ingestAndPlan(req)));
+        // only an ingested post moves the mark, so a rejected one (busy) can be retried with its number
+        lastSequenceNumbers.merge(controllerUid, new SequenceMark(key, sequenceNumber), SequenceMark::later);
+        zoneService.saveUdpSequenceNumber(controllerUid, sequenceNumber);
+        return response;
+    }
+
+    // the stored number is read once per controller and key, a new key starts from the zone row again
+    private Long lastSequenceNumber(String controllerUid, byte[] key) {
+        SequenceMark mark = lastSequenceNumbers.get(controllerUid);
+        if (mark != null && Arrays.equals(mark.macKey, key)) {
+            return mark.sequenceNumber;
+        }
+        Long stored = zoneService.findLastUdpSequenceNumber(controllerUid);
+        if (stored == null) {
+            return null;
+        }
+        return lastSequenceNumbers.merge(controllerUid, new SequenceMark(key, stored), SequenceMark::later).sequenceNumber;
+    }
+
+    private byte[] mac(byte[] key, byte[] data, int length) {
+        Mac mac = macs.get();
+        try {
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+        } catch (InvalidKeyException e) {
+            throw new IllegalStateException(e);
+        }
+        mac.update(data, 0, length);
+        return Arrays.copyOf(mac.doFinal(), MAC_LENGTH);
+    }
+
+    private static Mac newMac() {
+        try {
+            return Mac.getInstance("HmacSHA256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.example.smartirrigationsystem.entity.Role;
 import com.example.smartirrigationsystem.entity.User;
 import com.example.smartirrigationsystem.repository.RoleRepository;
 import com.example.smartirrigationsystem.repository.UserRepository;
+import com.example.smartirrigationsystem.security.CachingAuthenticationProvider;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -21,13 +22,16 @@ public class UserManagementController {
     private final UserRepository userRepo;
     private final RoleRepository roleRepo;
     private final PasswordEncoder passwordEncoder;
+    private final CachingAuthenticationProvider authenticationProvider;
 
     public UserManagementController(UserRepository userRepo,
                                     RoleRepository roleRepo,
-                                    PasswordEncoder passwordEncoder) {
+                                    PasswordEncoder passwordEncoder,
+                                    CachingAuthenticationProvider authenticationProvider) {
         this.userRepo = userRepo;
         this.roleRepo = roleRepo;
         this.passwordEncoder = passwordEncoder;
+        this.authenticationProvider = authenticationProvider;
     }
 
     /**
@@ -63,6 +67,7 @@ public class UserManagementController {
         dto.setRole(r.get());
 
         User saved = userRepo.save(dto);
+        authenticationProvider.invalidate(saved.getUsername());
         return ResponseEntity.created(URI.create("/api/users/" + saved.getId())).body(saved);
     }
 
@@ -88,6 +93,7 @@ public class UserManagementController {
             @RequestBody User dto
     ) {
         return userRepo.findById(id).map(existing -> {
+            String previousUsername = existing.getUsername();
             existing.setUsername(dto.getUsername());
             // оновити роль
             Optional<Role> r = roleRepo.findById(dto.getRole().getId());
@@ -100,6 +106,9 @@ public class UserManagementController {
                 existing.setPasswordHash(passwordEncoder.encode(dto.getPasswordHash()));
             }
             User saved = userRepo.save(existing);
+            // cached logins of the old name/password/role must not outlive the change
+            authenticationProvider.invalidate(previousUsername);
+            authenticationProvider.invalidate(saved.getUsername());
             return ResponseEntity.ok(saved);
         }).orElseGet(() -> ResponseEntity.notFound().build());
     }
@@ -111,10 +120,12 @@ public class UserManagementController {
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> delete(@PathVariable Integer id) {
-        if (!userRepo.existsById(id)) {
+        Optional<User> u = userRepo.findById(id);
+        if (u.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
         userRepo.deleteById(id);
+        authenticationProvider.invalidate(u.get().getUsername());
         return ResponseEntity.noContent().build();
     }
 }
@@ -1,16 +1,26 @@
 package com.example.smartirrigationsystem.controller;
 
+import com.example.smartirrigationsystem.dto.DeviceKeyDto;
+import com.example.smartirrigationsystem.dto.IrrigationStatsDto;
 import com.example.smartirrigationsystem.dto.PlannedIrrigationResponse;
 import com.example.smartirrigationsystem.dto.SensorDataRequest;
+import com.example.smartirrigationsystem.dto.ZoneSummaryDto;
 import com.example.smartirrigationsystem.entity.Zone;
 import com.example.smartirrigationsystem.repository.ZoneRepository;
+import com.example.smartirrigationsystem.security.DeviceAuthentication;
+import com.example.smartirrigationsystem.service.IngestAdmission;
+import com.example.smartirrigationsystem.service.IrrigationStatsService;
+import com.example.smartirrigationsystem.service.SensorPostDeduplicator;
 import com.example.smartirrigationsystem.service.ZoneService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -19,8 +29,11 @@ import java.util.List;
 public class ZoneController {
     private final ZoneService zoneService;
     private final ZoneRepository zoneRepo;
+    private final SensorPostDeduplicator deduplicator;
+    private final IngestAdmission admission;
+    private final IrrigationStatsService statsService;
     @GetMapping
-    public List<Zone> list() { return zoneService.findAll(); }
+    public List<ZoneSummaryDto> list() { return zoneService.findAllSummaries(); }
 
     @PutMapping("/{id}")
     public ResponseEntity<Zone> updateZone(
@@ -32,13 +45,19 @@ public class ZoneController {
     }
 
     @PostMapping("/readings")
-    public ResponseEntity<PlannedIrrigationResponse> receiveSensorData(@RequestBody SensorDataRequest request) {
+    public ResponseEntity<PlannedIrrigationResponse> receiveSensorData(@RequestBody SensorDataRequest request,
+                                                                       Authentication authentication) {
         if (request.getControllerUid() == null || request.getSubZones() == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sensor data request");
         }
-        zoneService.ingestSensorData(request);
-        List<PlannedIrrigationResponse.SubZonePlan> subZonePlans = zoneService.calculatePlannedIrrigation(request.getControllerUid());
-        PlannedIrrigationResponse response = new PlannedIrrigationResponse(subZonePlans);
+        // a device key only speaks for its own controller
+        if (authentication instanceof DeviceAuthentication
+                && !authentication.getName().equals(request.getControllerUid())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Device key doesn't belong to this controller");
+        }
+        // retries are answered with the plan of the first attempt, which has committed by then
+        PlannedIrrigationResponse response = deduplicator.handle(request,
+                () -> admission.admit(() -> zoneService.ingestAndPlan(request)));
         return ResponseEntity.ok(response);
     }
 
@@ -48,10 +67,36 @@ public class ZoneController {
         return ResponseEntity.ok(zone);
     }
 
+    // from/to are ISO date-times, `to` exclusive; by default the last 30 days. bucket: day or week
+    @GetMapping("/{id}/irrigation-stats")
+    public IrrigationStatsDto getIrrigationStats(
+            @PathVariable Integer id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "day") String bucket
+    ) {
+        return statsService.getZoneStats(id, from, to, bucket);
+    }
+
+    // totals of every zone and subzone, e.g. a monthly report
+    @GetMapping("/irrigation-stats")
+    public List<IrrigationStatsDto> getIrrigationStatsOfAllZones(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        return statsService.getAllZoneStats(from, to);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteZone(@PathVariable Integer id) {
         zoneService.deleteZone(id);
         return ResponseEntity.noContent().build();
     }
 
+    // new key for the zone's controller; the previous one stops working
+    @PostMapping("/{id}/device-key")
+    public ResponseEntity<DeviceKeyDto> issueDeviceKey(@PathVariable Integer id) {
+        return ResponseEntity.ok(zoneService.issueDeviceKey(id));
+    }
+
 }
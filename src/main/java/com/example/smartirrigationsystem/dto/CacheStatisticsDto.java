@@ -0,0 +1,36 @@
+package com.example.smartirrigationsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Hibernate second-level cache counters since start-up (or the last reset).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatisticsDto {
+    private long secondLevelHits;
+    private long secondLevelMisses;
+    private long secondLevelPuts;
+    private long naturalIdHits;
+    private long naturalIdMisses;
+    private long queryCacheHits;
+    private long queryCacheMisses;
+    // statements prepared in total, to relate the hits to the SQL actually sent
+    private long prepareStatements;
+    private List<Region> regions;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Region {
+        private String name;
+        private long hits;
+        private long misses;
+        private long puts;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.smartirrigationsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A freshly issued controller key. Only its hash is stored, so this is the one chance to
+ * copy it into the controller's configuration.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeviceKeyDto {
+    private String controllerUid;
+    // sent as "Authorization: Device <controllerUid>:<deviceKey>"
+    private String deviceKey;
+}
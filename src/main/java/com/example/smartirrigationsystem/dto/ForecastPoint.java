@@ -0,0 +1,20 @@
+package com.example.smartirrigationsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One hourly forecast value: the weather expected during the hour starting at forecastTime.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForecastPoint {
+    private LocalDateTime forecastTime;
+    private Double temperature;
+    private Integer humidity;
+    private Double precipitationMm;
+}
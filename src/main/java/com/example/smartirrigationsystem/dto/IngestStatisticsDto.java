@@ -0,0 +1,19 @@
+package com.example.smartirrigationsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * State of the sensor ingest queue of this instance.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestStatisticsDto {
+    private int queuedReadings;
+    // readings of a failed batch waiting for their next write attempt
+    private int pendingRetryReadings;
+    // readings given up on since start-up
+    private long droppedReadings;
+}
@@ -0,0 +1,45 @@
+package com.example.smartirrigationsystem.dto;
+
+import com.example.smartirrigationsystem.entity.TriggeredBy;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One GROUP BY row of irrigation history: the runs of a subzone with one trigger, on one day or
+ * over the whole range (day is null then). Input of IrrigationStatsService, not sent to clients.
+ */
+@Getter
+public class IrrigationRunTotals {
+    private final Integer zoneId;
+    private final Integer subZoneId;
+    private final Integer subzoneIndex;
+    private final LocalDate day;
+    private final TriggeredBy triggeredBy;
+    private final long runs;
+    private final long waterSeconds;
+    // first and last start, for the average interval between runs
+    private final LocalDateTime firstStart;
+    private final LocalDateTime lastStart;
+
+    // used by the JPQL constructor expressions in IrrigationHistoryRepository
+    public IrrigationRunTotals(Integer zoneId, Integer subZoneId, Integer subzoneIndex, LocalDate day,
+                               TriggeredBy triggeredBy, Long runs, Long waterSeconds,
+                               LocalDateTime firstStart, LocalDateTime lastStart) {
+        this.zoneId = zoneId;
+        this.subZoneId = subZoneId;
+        this.subzoneIndex = subzoneIndex;
+        this.day = day;
+        this.triggeredBy = triggeredBy;
+        this.runs = runs;
+        this.waterSeconds = waterSeconds != null ? waterSeconds : 0;
+        this.firstStart = firstStart;
+        this.lastStart = lastStart;
+    }
+
+    public IrrigationRunTotals(Integer zoneId, Integer subZoneId, Integer subzoneIndex, TriggeredBy triggeredBy,
+                               Long runs, Long waterSeconds, LocalDateTime firstStart, LocalDateTime lastStart) {
+        this(zoneId, subZoneId, subzoneIndex, null, triggeredBy, runs, waterSeconds, firstStart, lastStart);
+    }
+}
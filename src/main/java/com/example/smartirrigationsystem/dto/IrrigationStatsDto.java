@@ -0,0 +1,63 @@
+package com.example.smartirrigationsystem.dto;
+
+import com.example.smartirrigationsystem.entity.TriggeredBy;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Irrigation history of a zone in [from, to): totals, optionally per day or week, and the same
+ * per subzone. Subzones without a run in the range are left out.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IrrigationStatsDto {
+    private Integer zoneId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Totals totals;
+    // null in the all-zones report
+    private List<Bucket> buckets;
+    private List<SubZoneStats> subZones;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Totals {
+        private long runs;
+        // sum of the planned durations
+        private long waterSeconds;
+        private Map<TriggeredBy, Long> runsByTrigger = new EnumMap<>(TriggeredBy.class);
+        // mean gap between consecutive runs of the same subzone; null below two runs
+        private Long averageIntervalSeconds;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        // first day of the day or ISO week (Monday)
+        private LocalDate start;
+        private Totals totals;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class SubZoneStats {
+        private Integer subZoneId;
+        private Integer subzoneIndex;
+        private Totals totals;
+        private List<Bucket> buckets;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.smartirrigationsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * When a moisture reading of a subzone may trigger an automatic irrigation again.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NextMoistureCheckDto {
+    private Integer subZoneId;
+    private LocalDateTime lastIrrigationStart;
+    // soak time of the subzone's soil type, or the default
+    private long soakMinutes;
+    // end of the soak window after the last irrigation, null if it was never irrigated
+    private LocalDateTime soakUntil;
+    // now, or soakUntil while the soil is still soaking
+    private LocalDateTime nextCheckAt;
+}
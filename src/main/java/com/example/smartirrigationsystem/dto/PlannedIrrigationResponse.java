@@ -22,6 +22,8 @@ public class PlannedIrrigationResponse {
     public static class SubZonePlan {
         private int subzoneIndex;
         private int plannedIrrigationDurationInSeconds;
+        // seconds after the response to open the valve, so the zone's flow capacity isn't exceeded
+        private int startOffsetInSeconds;
 
         public SubZonePlan() {}
 
@@ -45,5 +47,13 @@ public class PlannedIrrigationResponse {
         public void setPlannedIrrigationDurationInSeconds(int plannedIrrigationDurationInSeconds) {
             this.plannedIrrigationDurationInSeconds = plannedIrrigationDurationInSeconds;
         }
+
+        public int getStartOffsetInSeconds() {
+            return startOffsetInSeconds;
+        }
+
+        public void setStartOffsetInSeconds(int startOffsetInSeconds) {
+            this.startOffsetInSeconds = startOffsetInSeconds;
+        }
     }
 }
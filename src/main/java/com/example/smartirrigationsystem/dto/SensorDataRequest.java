@@ -7,6 +7,8 @@ import java.util.List;
 @Data
 public class SensorDataRequest {
     private String controllerUid;
+    // optional, increases with every new post (a timestamp works too); retries repeat it
+    private Long sequenceNumber;
     private List<SubzoneData> subZones;
 
     @Data
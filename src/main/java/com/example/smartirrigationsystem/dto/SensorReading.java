@@ -0,0 +1,19 @@
+package com.example.smartirrigationsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One subzone sample (soil moisture + rain flag) waiting in the ingest queue
+ * to be written by the background batch writer.
+ */
+@Data
+@AllArgsConstructor
+public class SensorReading {
+    private Integer subZoneId;
+    private int moisturePercent;
+    private boolean raining;
+    private LocalDateTime recordedAt;
+}
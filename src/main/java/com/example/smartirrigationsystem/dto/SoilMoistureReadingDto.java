@@ -1,13 +1,23 @@
 // src/main/java/com/example/smartirrigationsystem/dto/SoilMoistureReadingDto.java
 package com.example.smartirrigationsystem.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import java.time.LocalDateTime;
 
 @Data
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class SoilMoistureReadingDto {
     private LocalDateTime recordedAt;
+    // raw reading, or the bucket average for rolled-up resolutions
     private int soilMoisturePercent;
+    // only set for rolled-up resolutions
+    private Integer minMoisturePercent;
+    private Integer maxMoisturePercent;
+
+    public SoilMoistureReadingDto(LocalDateTime recordedAt, int soilMoisturePercent) {
+        this(recordedAt, soilMoisturePercent, null, null);
+    }
 }
@@ -0,0 +1,33 @@
+package com.example.smartirrigationsystem.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class SubZoneSummaryDto {
+    @JsonIgnore
+    private Integer zoneId;
+    private Integer id;
+    private String name;
+    private Integer subzoneIndex;
+    private boolean hasIrrigationIssue;
+    private LocalDateTime lastReadingAt;
+    private Integer lastMoisturePercent;
+    private LocalDateTime lastIrrigationStart;
+
+    // used by the JPQL constructor expression in SubZoneRepository
+    public SubZoneSummaryDto(Integer zoneId, Integer id, String name, Integer subzoneIndex, Boolean hasIrrigationIssue,
+                             LocalDateTime lastReadingAt, Integer lastMoisturePercent,
+                             LocalDateTime lastIrrigationStart) {
+        this.zoneId = zoneId;
+        this.id = id;
+        this.name = name;
+        this.subzoneIndex = subzoneIndex;
+        this.hasIrrigationIssue = Boolean.TRUE.equals(hasIrrigationIssue);
+        this.lastReadingAt = lastReadingAt;
+        this.lastMoisturePercent = lastMoisturePercent;
+        this.lastIrrigationStart = lastIrrigationStart;
+    }
+}
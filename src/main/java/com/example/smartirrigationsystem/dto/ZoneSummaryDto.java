@@ -0,0 +1,44 @@
+package com.example.smartirrigationsystem.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One row of GET /api/zones: the zone's own fields plus a compact per-subzone summary,
+ * instead of the full entity graph with all readings and history.
+ */
+@Data
+public class ZoneSummaryDto {
+    private Integer id;
+    private String name;
+    private Double latitude;
+    private Double longitude;
+    private String extraInfo;
+    private String controllerUid;
+    private boolean hasIssues;
+    private int subZoneCount;
+    private int subZonesWithIssues;
+    private List<SubZoneSummaryDto> subZones = new ArrayList<>();
+
+    // used by the JPQL constructor expression in ZoneRepository
+    public ZoneSummaryDto(Integer id, String name, Double latitude, Double longitude, String extraInfo,
+                          String controllerUid, Boolean hasIssues) {
+        this.id = id;
+        this.name = name;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.extraInfo = extraInfo;
+        this.controllerUid = controllerUid;
+        this.hasIssues = Boolean.TRUE.equals(hasIssues);
+    }
+
+    public void addSubZone(SubZoneSummaryDto subZone) {
+        subZones.add(subZone);
+        subZoneCount++;
+        if (subZone.isHasIrrigationIssue()) {
+            subZonesWithIssues++;
+        }
+    }
+}
@@ -14,7 +14,13 @@ import java.util.Objects;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "IrrigationHistory")
+@Table(name = "IrrigationHistory",
+        indexes = {
+                @Index(name = "idx_irrigation_history_subzone_start", columnList = "subzone_id, start_time"),
+                // all-zone totals filter on start_time only; covers them without reading the rows
+                @Index(name = "idx_irrigation_history_start_totals",
+                        columnList = "start_time, subzone_id, triggered_by, duration_seconds")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
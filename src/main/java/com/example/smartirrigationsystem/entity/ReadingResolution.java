@@ -0,0 +1,51 @@
+package com.example.smartirrigationsystem.entity;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Granularity of the soil-readings chart. Everything but {@link #RAW} is served from
+ * {@link SoilMoistureRollup} rows.
+ */
+public enum ReadingResolution {
+    RAW("raw"),
+    FIVE_MINUTES("5m"),
+    HOURLY("1h"),
+    DAILY("1d");
+
+    private final String param;
+
+    ReadingResolution(String param) {
+        this.param = param;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public static ReadingResolution fromParam(String param) {
+        for (ReadingResolution r : values()) {
+            if (r.param.equalsIgnoreCase(param)) {
+                return r;
+            }
+        }
+        throw new IllegalArgumentException("Unknown resolution: " + param);
+    }
+
+    /**
+     * Start of the bucket the given time falls into.
+     */
+    public LocalDateTime bucketStart(LocalDateTime time) {
+        switch (this) {
+            case FIVE_MINUTES:
+                LocalDateTime minute = time.truncatedTo(ChronoUnit.MINUTES);
+                return minute.minusMinutes(minute.getMinute() % 5);
+            case HOURLY:
+                return time.truncatedTo(ChronoUnit.HOURS);
+            case DAILY:
+                return time.truncatedTo(ChronoUnit.DAYS);
+            default:
+                return time;
+        }
+    }
+}
@@ -7,9 +7,15 @@ import lombok.Setter;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 import java.util.Objects;
 
 @Entity
+// created once by DataInitializer, never updated
+@Immutable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
 @Table(name = "Roles")
 @Getter
 @Setter
@@ -14,7 +14,8 @@ import java.util.Objects;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "SoilMoistureReadings")
+@Table(name = "SoilMoistureReadings",
+        indexes = @Index(name = "idx_soil_moisture_subzone_recorded", columnList = "subzone_id, recorded_at"))
 @Getter
 @Setter
 @NoArgsConstructor
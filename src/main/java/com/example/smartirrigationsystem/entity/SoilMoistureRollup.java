@@ -0,0 +1,54 @@
+package com.example.smartirrigationsystem.entity;
+
+import com.fasterxml.jackson.annotation.JsonBackReference;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Min/max/sum of the soil-moisture readings of one subzone within one time bucket.
+ * Rows are upserted by the ingest writer (see SoilMoistureRollupRepository), so the
+ * entity only defines the table.
+ */
+@Entity
+@Table(name = "SoilMoistureRollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_soil_rollup_bucket",
+                columnNames = {"subzone_id", "resolution", "bucket_start"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class SoilMoistureRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "subzone_id", nullable = false)
+    @JsonBackReference
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private SubZone subZone;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "resolution", nullable = false, length = 16)
+    private ReadingResolution resolution;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "min_percent", nullable = false)
+    private Integer minPercent;
+
+    @Column(name = "max_percent", nullable = false)
+    private Integer maxPercent;
+
+    @Column(name = "sum_percent", nullable = false)
+    private Long sumPercent;
+
+    @Column(name = "reading_count", nullable = false)
+    private Integer readingCount;
+}
@@ -1,6 +1,7 @@
 package com.example.smartirrigationsystem.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -67,8 +68,30 @@ public class SubZone {
     private LocalDateTime lastIrrigationIssue;
     private Boolean hasIrrigationIssue;
 
+    // Denormalized max(IrrigationHistory.startTime), so ingest doesn't have to scan the history list
+    private LocalDateTime lastIrrigationStart;
+    // null on rows that predate lastIrrigationStart until they have been backfilled from the history
+    @JsonIgnore
+    private Boolean lastIrrigationStartBackfilled = true;
+
+    // Newest soil reading, kept up to date by the ingest writer for the zone summary
+    private LocalDateTime lastReadingAt;
+    private Integer lastMoisturePercent;
+
     private int defaultIrrigationDurationInSeconds = 30;
 
+    // Flow of the open valve in litres per minute; null = irrigation.schedule.default-valve-flow-lpm
+    private Double valveFlowLitersPerMinute;
+
+    // Running least-squares sums of the learned moisture response (see ResponseCurve);
+    // written only by the planner's UPDATE, never by saving an edited subzone
+    @Column(updatable = false)
+    private Integer responseSamples;
+    @Column(updatable = false)
+    private Double responseSumDurationSq;
+    @Column(updatable = false)
+    private Double responseSumDurationDelta;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
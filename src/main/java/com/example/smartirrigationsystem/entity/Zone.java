@@ -1,5 +1,6 @@
 package com.example.smartirrigationsystem.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -7,6 +8,10 @@ import lombok.Setter;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -14,6 +19,12 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
+// lastSeenAt and the health flags are written over JDBC (ZoneLastSeenRepository, ZoneHealthRepository),
+// which evict only the zones they touched on this instance; the region's short expiry in
+// hibernate-jcache.conf bounds how long another instance's writes stay invisible
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "zone")
+// explicit region: the default "Zone##NaturalId" is not a valid Caffeine config path
+@NaturalIdCache(region = "zone-controller-uid")
 @Table(name = "Zones")
 @Getter
 @Setter
@@ -33,15 +44,42 @@ public class Zone {
     @Column(columnDefinition = "TEXT")
     private String extraInfo;
 
+    // Litres per minute the water source can deliver to all open valves together; null = unlimited
+    private Double flowCapacityLitersPerMinute;
+
+    // looked up by ZoneRepository.findByControllerUid through the natural-id cache
+    @NaturalId
     @Column(name = "controller_uid", nullable = false, unique = true, length = 100)
     private String controllerUid;
 
+    // verifier (hex) of the controller's device key; written only by ZoneRepository.updateDeviceKey
+    @JsonIgnore
+    @Column(length = 64, updatable = false)
+    private String deviceKeyHash;
+
+    // key (hex) of the controller's UDP frame MACs, see DeviceKeyRegistry; written with the verifier
+    @JsonIgnore
+    @Column(length = 64, updatable = false)
+    private String udpMacKey;
+
+    // highest sequence number accepted over UDP, the replay guard of UdpSensorListener; written only
+    // by ZoneRepository.advanceUdpSequenceNumber and cleared with each new device key
+    @JsonIgnore
+    @Column(updatable = false)
+    private Long lastUdpSequenceNumber;
+
     @OneToMany(mappedBy = "zone", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
     private List<SubZone> subZones = new ArrayList<>();
 
+    // Materialized by ZoneHealthService: any subzone with an irrigation issue, or controller offline
     private Boolean hasIssues = false;
 
+    private Boolean controllerOffline = false;
+
+    // Last controller post, persisted in batches by ControllerLivenessTracker (may lag by one interval)
+    private LocalDateTime lastSeenAt;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,33 @@
+package com.example.smartirrigationsystem.repository;
+
+import com.example.smartirrigationsystem.entity.IrrigationHistory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * JDBC batch insert for IrrigationHistory rows written by the controller poll.
+ * Like the readings, the entity uses an IDENTITY key, so Hibernate would insert
+ * the rows one by one. Joins the caller's transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IrrigationHistoryBatchRepository {
+
+    private static final String INSERT_HISTORY =
+            "INSERT INTO irrigation_history (subzone_id, start_time, triggered_by, duration_seconds) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<IrrigationHistory> history) {
+        jdbcTemplate.batchUpdate(INSERT_HISTORY, history, history.size(), (ps, h) -> {
+            ps.setInt(1, h.getSubZone().getId());
+            ps.setTimestamp(2, Timestamp.valueOf(h.getStartTime()));
+            ps.setString(3, h.getTriggeredBy().name());
+            ps.setInt(4, h.getDurationSeconds());
+        });
+    }
+}
@@ -1,11 +1,54 @@
 package com.example.smartirrigationsystem.repository;
 
+import com.example.smartirrigationsystem.dto.IrrigationRunTotals;
 import com.example.smartirrigationsystem.entity.IrrigationHistory;
-import com.example.smartirrigationsystem.entity.PlantType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface IrrigationHistoryRepository extends JpaRepository<IrrigationHistory, Integer> {
-    // додаткові методи, якщо необхідно
+    // Index-only lookup on (subzone_id, start_time); used to backfill SubZone.lastIrrigationStart
+    @Query("select max(h.startTime) from IrrigationHistory h where h.subZone.id = :subZoneId")
+    LocalDateTime findLastStartTime(@Param("subZoneId") Integer subZoneId);
+
+    interface RunView {
+        Integer getSubzoneIndex();
+        LocalDateTime getStartTime();
+        Integer getDurationSeconds();
+    }
+
+    // Irrigations of a zone started (or scheduled to start) since the given time; the scheduler
+    // seeds a freshly loaded controller with the valves that are still open
+    @Query("select s.subzoneIndex as subzoneIndex, h.startTime as startTime, h.durationSeconds as durationSeconds "
+            + "from IrrigationHistory h join h.subZone s "
+            + "where s.zone.id = :zoneId and h.startTime >= :since and h.durationSeconds is not null")
+    List<RunView> findRunsByZoneId(@Param("zoneId") Integer zoneId, @Param("since") LocalDateTime since);
+
+    // The analytics queries below return a row per group, never the history rows themselves.
+
+    // one (subzone_id, start_time) index range per subzone of the zone
+
+    @Query("select new com.example.smartirrigationsystem.dto.IrrigationRunTotals("
+            + "s.zone.id, s.id, s.subzoneIndex, cast(h.startTime as LocalDate), h.triggeredBy, count(h), "
+            + "sum(h.durationSeconds), min(h.startTime), max(h.startTime)) "
+            + "from IrrigationHistory h join h.subZone s "
+            + "where s.zone.id = :zoneId and h.startTime >= :from and h.startTime < :to "
+            + "group by s.zone.id, s.id, s.subzoneIndex, cast(h.startTime as LocalDate), h.triggeredBy")
+    List<IrrigationRunTotals> findDailyTotalsByZone(@Param("zoneId") Integer zoneId,
+                                                    @Param("from") LocalDateTime from,
+                                                    @Param("to") LocalDateTime to);
+
+    // one range of the (start_time, subzone_id, triggered_by, duration_seconds) index, which covers the query
+    @Query("select new com.example.smartirrigationsystem.dto.IrrigationRunTotals("
+            + "s.zone.id, s.id, s.subzoneIndex, h.triggeredBy, count(h), "
+            + "sum(h.durationSeconds), min(h.startTime), max(h.startTime)) "
+            + "from IrrigationHistory h join h.subZone s "
+            + "where h.startTime >= :from and h.startTime < :to and s.zone is not null "
+            + "group by s.zone.id, s.id, s.subzoneIndex, h.triggeredBy")
+    List<IrrigationRunTotals> findTotals(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,85 @@
+package com.example.smartirrigationsystem.repository;
+
+import com.example.smartirrigationsystem.dto.SensorReading;
+import com.example.smartirrigationsystem.dto.SoilMoistureReadingDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reading store backed by the SoilMoistureReadings / RainSensorReadings tables.
+ * Both entities use IDENTITY keys, which turns off Hibernate insert batching,
+ * so readings are written with plain JDBC batches instead of through JPA.
+ * Table names follow Spring's default physical naming (camelCase -> snake_case).
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "irrigation.readings.storage", havingValue = "jpa", matchIfMissing = true)
+public class JdbcSensorReadingStore implements SensorReadingStore {
+
+    private static final String INSERT_MOISTURE =
+            "INSERT INTO soil_moisture_readings (subzone_id, moisture_percent, recorded_at) VALUES (?, ?, ?)";
+    private static final String INSERT_RAIN =
+            "INSERT INTO rain_sensor_readings (subzone_id, is_raining, recorded_at) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // joins the ingest writer's transaction, so readings and rollups commit (or fail) together
+    @Override
+    @Transactional
+    public void appendAll(List<SensorReading> readings) {
+        jdbcTemplate.batchUpdate(INSERT_MOISTURE, readings, readings.size(), (ps, r) -> {
+            ps.setInt(1, r.getSubZoneId());
+            ps.setInt(2, r.getMoisturePercent());
+            ps.setTimestamp(3, Timestamp.valueOf(r.getRecordedAt()));
+        });
+        jdbcTemplate.batchUpdate(INSERT_RAIN, readings, readings.size(), (ps, r) -> {
+            ps.setInt(1, r.getSubZoneId());
+            ps.setBoolean(2, r.isRaining());
+            ps.setTimestamp(3, Timestamp.valueOf(r.getRecordedAt()));
+        });
+    }
+
+    @Override
+    public List<SoilMoistureReadingDto> findSoilReadings(Integer subZoneId, LocalDateTime from, LocalDateTime to) {
+        return query(subZoneId, from, ">=", to, null);
+    }
+
+    @Override
+    public List<SoilMoistureReadingDto> findSoilReadingsAfter(Integer subZoneId, LocalDateTime after, LocalDateTime to,
+                                                              int limit) {
+        return query(subZoneId, after, ">", to, limit);
+    }
+
+    // served by idx_soil_moisture_subzone_recorded, including the ORDER BY + LIMIT of keyset pages
+    private List<SoilMoistureReadingDto> query(Integer subZoneId, LocalDateTime lower, String lowerOp,
+                                               LocalDateTime to, Integer limit) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT recorded_at, moisture_percent FROM soil_moisture_readings WHERE subzone_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(subZoneId);
+        if (lower != null) {
+            sql.append(" AND recorded_at ").append(lowerOp).append(" ?");
+            args.add(Timestamp.valueOf(lower));
+        }
+        if (to != null) {
+            sql.append(" AND recorded_at < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        sql.append(" ORDER BY recorded_at");
+        if (limit != null) {
+            sql.append(" LIMIT ?");
+            args.add(limit);
+        }
+        return jdbcTemplate.query(sql.toString(),
+                (rs, i) -> new SoilMoistureReadingDto(rs.getTimestamp(1).toLocalDateTime(), rs.getInt(2)),
+                args.toArray());
+    }
+}
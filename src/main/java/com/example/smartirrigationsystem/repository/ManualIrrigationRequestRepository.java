@@ -2,12 +2,27 @@ package com.example.smartirrigationsystem.repository;
 
 import com.example.smartirrigationsystem.entity.ManualIrrigationRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ManualIrrigationRequestRepository extends JpaRepository<ManualIrrigationRequest, Integer> {
     // findBySubZoneIdAndExecutedFalseAndRequestedAtAfter
     List<ManualIrrigationRequest> findBySubZoneIdAndExecutedFalseAndRequestedAtAfter(
             Integer subZoneId, LocalDateTime requestedAt);
+
+    // same, for all subzones of a zone in one query
+    @Query("select r from ManualIrrigationRequest r " +
+            "where r.subZone.zone.id = :zoneId and r.executed = false and r.requestedAt > :requestedAt")
+    List<ManualIrrigationRequest> findPendingByZoneId(@Param("zoneId") Integer zoneId,
+                                                      @Param("requestedAt") LocalDateTime requestedAt);
+
+    // one UPDATE instead of dirty-checking every executed request
+    @Modifying
+    @Query("update ManualIrrigationRequest r set r.executed = true where r.id in :ids")
+    int markExecuted(@Param("ids") Collection<Integer> ids);
 }
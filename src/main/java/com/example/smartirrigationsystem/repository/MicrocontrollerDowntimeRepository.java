@@ -0,0 +1,17 @@
+package com.example.smartirrigationsystem.repository;
+
+import com.example.smartirrigationsystem.entity.MicrocontrollerDowntime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface MicrocontrollerDowntimeRepository extends JpaRepository<MicrocontrollerDowntime, Integer> {
+
+    @Modifying
+    @Query("update MicrocontrollerDowntime d set d.resolvedAt = :resolvedAt "
+            + "where d.zone.id = :zoneId and d.resolvedAt is null")
+    int resolveOpen(@Param("zoneId") Integer zoneId, @Param("resolvedAt") LocalDateTime resolvedAt);
+}
@@ -0,0 +1,37 @@
+package com.example.smartirrigationsystem.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gives the second-level cache of each application context its own CacheManager. The JCache
+ * provider hands out one manager per URI and class loader, so every context in a JVM (tests,
+ * benchmarks) would otherwise share the same regions, serve each other's entities and close
+ * them under each other. A fragment makes the URI unique per context; Caffeine still reads the
+ * configuration from the resource in front of it. The manager is closed with its context.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    private static final AtomicInteger CONTEXTS = new AtomicInteger();
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${spring.jpa.properties.hibernate.javax.cache.provider}") String provider,
+            @Value("${spring.jpa.properties.hibernate.javax.cache.uri}") String uri) {
+        return Caching.getCachingProvider(provider).getCacheManager(
+                URI.create(uri + "#context-" + CONTEXTS.incrementAndGet()), getClass().getClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.smartirrigationsystem.repository;
+
+import com.example.smartirrigationsystem.dto.SensorReading;
+import com.example.smartirrigationsystem.dto.SoilMoistureReadingDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Storage for soil-moisture / rain readings. The implementation is picked with
+ * {@code irrigation.readings.storage}: {@code jpa} (default, the SoilMoistureReadings and
+ * RainSensorReadings tables) or {@code timeseries} (append-only local files).
+ */
+public interface SensorReadingStore {
+
+    /**
+     * Appends a batch of readings; called by the ingest writer.
+     */
+    void appendAll(List<SensorReading> readings);
+
+    /**
+     * Soil-moisture readings of a subzone in {@code [from, to)}, oldest first.
+     * A null bound means unbounded on that side.
+     */
+    List<SoilMoistureReadingDto> findSoilReadings(Integer subZoneId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Keyset page: at most {@code limit} soil-moisture readings of a subzone with
+     * {@code after < recordedAt < to}, oldest first. Null bounds are open.
+     */
+    List<SoilMoistureReadingDto> findSoilReadingsAfter(Integer subZoneId, LocalDateTime after, LocalDateTime to, int limit);
+}
@@ -0,0 +1,129 @@
+package com.example.smartirrigationsystem.repository;
+
+import com.example.smartirrigationsystem.dto.SensorReading;
+import com.example.smartirrigationsystem.dto.SoilMoistureReadingDto;
+import com.example.smartirrigationsystem.entity.ReadingResolution;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains and reads the soil_moisture_rollups table (5 min, hourly and daily buckets).
+ * A batch of readings is first folded into buckets in memory, so one writer flush costs
+ * roughly three upserts per subzone, whatever the flush size.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SoilMoistureRollupRepository {
+
+    static final ReadingResolution[] ROLLED_UP = {
+            ReadingResolution.FIVE_MINUTES, ReadingResolution.HOURLY, ReadingResolution.DAILY};
+
+    private static final String INSERT_ROLLUP =
+            "INSERT INTO soil_moisture_rollups "
+                    + "(subzone_id, resolution, bucket_start, min_percent, max_percent, sum_percent, reading_count) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?) ";
+
+    // the VALUES() form: deprecated since MySQL 8.0.20 but still accepted, and the only one
+    // H2's MySQL mode (tests and benchmarks) parses, so both run the same statement
+    private static final String UPSERT_ROLLUP = INSERT_ROLLUP
+            + "ON DUPLICATE KEY UPDATE "
+            + "min_percent = LEAST(min_percent, VALUES(min_percent)), "
+            + "max_percent = GREATEST(max_percent, VALUES(max_percent)), "
+            + "sum_percent = sum_percent + VALUES(sum_percent), "
+            + "reading_count = reading_count + VALUES(reading_count)";
+
+    private static final String SELECT_ROLLUPS =
+            "SELECT bucket_start, min_percent, max_percent, sum_percent, reading_count "
+                    + "FROM soil_moisture_rollups WHERE subzone_id = ? AND resolution = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    static final class Bucket {
+        final Integer subZoneId;
+        final ReadingResolution resolution;
+        final LocalDateTime start;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        long sum;
+        int count;
+
+        Bucket(Integer subZoneId, ReadingResolution resolution, LocalDateTime start) {
+            this.subZoneId = subZoneId;
+            this.resolution = resolution;
+            this.start = start;
+        }
+
+        void add(int moisturePercent) {
+            min = Math.min(min, moisturePercent);
+            max = Math.max(max, moisturePercent);
+            sum += moisturePercent;
+            count++;
+        }
+    }
+
+    // joins the ingest writer's transaction, so readings and rollups commit (or fail) together
+    @Transactional
+    public void addAll(List<SensorReading> readings) {
+        List<Bucket> rows = fold(readings);
+        jdbcTemplate.batchUpdate(UPSERT_ROLLUP, rows, rows.size(), (ps, b) -> {
+            ps.setInt(1, b.subZoneId);
+            ps.setString(2, b.resolution.name());
+            ps.setTimestamp(3, Timestamp.valueOf(b.start));
+            ps.setInt(4, b.min);
+            ps.setInt(5, b.max);
+            ps.setLong(6, b.sum);
+            ps.setInt(7, b.count);
+        });
+    }
+
+    // one bucket per subzone, resolution and bucket start, in first-seen order
+    static List<Bucket> fold(List<SensorReading> readings) {
+        Map<String, Bucket> buckets = new LinkedHashMap<>();
+        for (SensorReading r : readings) {
+            for (ReadingResolution resolution : ROLLED_UP) {
+                LocalDateTime start = resolution.bucketStart(r.getRecordedAt());
+                buckets.computeIfAbsent(r.getSubZoneId() + "|" + resolution + "|" + start,
+                                k -> new Bucket(r.getSubZoneId(), resolution, start))
+                        .add(r.getMoisturePercent());
+            }
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    /**
+     * Buckets of one resolution overlapping [from, to), oldest first; null bounds are open.
+     * Each point carries the bucket start, the rounded average and the min/max.
+     */
+    public List<SoilMoistureReadingDto> findRange(Integer subZoneId, ReadingResolution resolution,
+                                                  LocalDateTime from, LocalDateTime to) {
+        StringBuilder sql = new StringBuilder(SELECT_ROLLUPS);
+        List<Object> args = new ArrayList<>();
+        args.add(subZoneId);
+        args.add(resolution.name());
+        if (from != null) {
+            // include the bucket `from` falls into
+            sql.append(" AND bucket_start >= ?");
+            args.add(Timestamp.valueOf(resolution.bucketStart(from)));
+        }
+        if (to != null) {
+            sql.append(" AND bucket_start < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        sql.append(" ORDER BY bucket_start");
+        return jdbcTemplate.query(sql.toString(), (rs, i) -> new SoilMoistureReadingDto(
+                        rs.getTimestamp(1).toLocalDateTime(),
+                        (int) Math.round((double) rs.getLong(4) / rs.getInt(5)),
+                        rs.getInt(2),
+                        rs.getInt(3)),
+                args.toArray());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.smartirrigationsystem.repository;
+
+import com.example.smartirrigationsystem.dto.SensorReading;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps SubZone.lastReadingAt / lastMoisturePercent current: one batched UPDATE
+ * per writer flush, with one row per subzone that reported in the batch.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SubZoneLastReadingRepository {
+
+    // the guard keeps a late (older) batch from overwriting a newer reading
+    private static final String UPDATE_LAST_READING =
+            "UPDATE sub_zones SET last_reading_at = ?, last_moisture_percent = ? "
+                    + "WHERE id = ? AND (last_reading_at IS NULL OR last_reading_at <= ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // joins the ingest writer's transaction
+    @Transactional
+    public void updateAll(List<SensorReading> readings) {
+        Map<Integer, SensorReading> newest = new LinkedHashMap<>();
+        for (SensorReading r : readings) {
+            newest.merge(r.getSubZoneId(), r,
+                    (a, b) -> b.getRecordedAt().isBefore(a.getRecordedAt()) ? a : b);
+        }
+        List<SensorReading> rows = new ArrayList<>(newest.values());
+        jdbcTemplate.batchUpdate(UPDATE_LAST_READING, rows, rows.size(), (ps, r) -> {
+            Timestamp at = Timestamp.valueOf(r.getRecordedAt());
+            ps.setTimestamp(1, at);
+            ps.setInt(2, r.getMoisturePercent());
+            ps.setInt(3, r.getSubZoneId());
+            ps.setTimestamp(4, at);
+        });
+    }
+}
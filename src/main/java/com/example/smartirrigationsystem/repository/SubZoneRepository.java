@@ -1,6 +1,49 @@
 package com.example.smartirrigationsystem.repository;
 
+import com.example.smartirrigationsystem.dto.SubZoneSummaryDto;
 import com.example.smartirrigationsystem.entity.SubZone;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface SubZoneRepository extends JpaRepository<SubZone, Integer> {}
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface SubZoneRepository extends JpaRepository<SubZone, Integer> {
+
+    // one UPDATE for all subzones irrigated in a controller poll
+    @Modifying
+    @Query("update SubZone s set s.lastIrrigationStart = :start where s.id in :ids")
+    void updateLastIrrigationStart(@Param("ids") Collection<Integer> ids, @Param("start") LocalDateTime start);
+
+    // one-time backfill of rows written before lastIrrigationStart existed; marks them done even without history
+    @Modifying
+    @Query("update SubZone s set s.lastIrrigationStart = :start, s.lastIrrigationStartBackfilled = true "
+            + "where s.id = :id")
+    void backfillLastIrrigationStart(@Param("id") Integer id, @Param("start") LocalDateTime start);
+
+    // reads only SubZones columns (denormalized last reading / irrigation), never the history tables
+    @Query("select new com.example.smartirrigationsystem.dto.SubZoneSummaryDto("
+            + "s.zone.id, s.id, s.name, s.subzoneIndex, s.hasIrrigationIssue, "
+            + "s.lastReadingAt, s.lastMoisturePercent, s.lastIrrigationStart) "
+            + "from SubZone s where s.zone is not null order by s.subzoneIndex")
+    List<SubZoneSummaryDto> findSummaries();
+
+    // sets the flag only if it isn't set yet, so callers know whether the zone needs a refresh
+    @Modifying
+    @Query("update SubZone s set s.hasIrrigationIssue = true, s.lastIrrigationIssue = :at "
+            + "where s.id = :id and (s.hasIrrigationIssue is null or s.hasIrrigationIssue = false)")
+    int markIrrigationIssue(@Param("id") Integer id, @Param("at") LocalDateTime at);
+
+    @Modifying
+    @Query("update SubZone s set s.responseSamples = :samples, s.responseSumDurationSq = :sumDurationSq, "
+            + "s.responseSumDurationDelta = :sumDurationDelta where s.id = :id")
+    void updateResponseCurve(@Param("id") Integer id, @Param("samples") int samples,
+                             @Param("sumDurationSq") double sumDurationSq,
+                             @Param("sumDurationDelta") double sumDurationDelta);
+
+    @Query("select count(s) from SubZone s where s.zone.id = :zoneId and s.hasIrrigationIssue = true")
+    long countIrrigationIssues(@Param("zoneId") Integer zoneId);
+}
@@ -0,0 +1,451 @@
+package com.example.smartirrigationsystem.repository;
+
+import com.example.smartirrigationsystem.dto.SensorReading;
+import com.example.smartirrigationsystem.dto.SoilMoistureReadingDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Append-only, file-backed reading store ({@code irrigation.readings.storage=timeseries}).
+ *
+ * <p>Readings are partitioned by subzone and day: {@code <dir>/<subZoneId>/<yyyyMMdd>.tsb}.
+ * Each subzone has one open head per day, persisted row by row in a {@code .head} file
+ * (zig-zag varint time delta + one byte holding moisture in 7 bits and the rain flag in
+ * the 8th). Once a head holds {@value #BLOCK_SIZE} readings, or the day changes (for any
+ * subzone), it is sealed into a columnar block appended to the {@code .tsb} file:
+ * <pre>
+ * magic | count | bodyLength | baseSecond (8 bytes) | spanSeconds
+ * (count-1) time deltas | count moisture bytes | ceil(count/8) rain bit bytes
+ * </pre>
+ * Time is kept with one-second resolution, as the local date-time the reading was recorded at.
+ */
+@Repository
+@ConditionalOnProperty(name = "irrigation.readings.storage", havingValue = "timeseries")
+public class TimeSeriesSensorReadingStore implements SensorReadingStore {
+
+    static final int BLOCK_SIZE = 256;
+    private static final byte BLOCK_MAGIC = (byte) 0xB1;
+    private static final String BLOCK_SUFFIX = ".tsb";
+    private static final String HEAD_SUFFIX = ".head";
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final Path root;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // the open head of every subzone that received readings today (see latestDay)
+    private final Map<Integer, Head> heads = new HashMap<>();
+    // day of the newest reading so far; when it moves on, heads of earlier days are sealed and dropped
+    private LocalDate latestDay;
+
+    public TimeSeriesSensorReadingStore(@Value("${irrigation.readings.timeseries.dir:data/readings}") String dir) {
+        this.root = Paths.get(dir);
+    }
+
+    @Override
+    public void appendAll(List<SensorReading> readings) {
+        List<SensorReading> sorted = new ArrayList<>(readings);
+        sorted.sort(Comparator.comparing(SensorReading::getRecordedAt));
+        lock.writeLock().lock();
+        try {
+            List<Head> touched = new ArrayList<>();
+            for (SensorReading r : sorted) {
+                long second = r.getRecordedAt().toEpochSecond(ZoneOffset.UTC);
+                byte packed = pack(r.getMoisturePercent(), r.isRaining());
+                LocalDate day = r.getRecordedAt().toLocalDate();
+                Head head = heads.get(r.getSubZoneId());
+                if (head != null && day.isBefore(head.day)) {
+                    // late reading for an already closed day: store it as its own small block
+                    appendBlock(blockFile(r.getSubZoneId(), day), new long[]{second}, new byte[]{packed}, 1);
+                    continue;
+                }
+                if (head == null || !day.equals(head.day)) {
+                    if (head != null) {
+                        flushHead(head);
+                        seal(head);
+                    }
+                    head = openHead(r.getSubZoneId(), day);
+                    heads.put(r.getSubZoneId(), head);
+                }
+                if (head.pendingFrom == head.count) {
+                    touched.add(head);
+                }
+                head.add(second, packed);
+            }
+            for (Head head : touched) {
+                flushHead(head);
+                if (head.count >= BLOCK_SIZE) {
+                    seal(head);
+                }
+            }
+            if (!sorted.isEmpty()) {
+                LocalDate newestDay = sorted.get(sorted.size() - 1).getRecordedAt().toLocalDate();
+                if (latestDay == null || newestDay.isAfter(latestDay)) {
+                    latestDay = newestDay;
+                    sealPastDays();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<SoilMoistureReadingDto> findSoilReadings(Integer subZoneId, LocalDateTime from, LocalDateTime to) {
+        long fromSecond = from != null ? from.toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE;
+        return scan(subZoneId, fromSecond, to, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<SoilMoistureReadingDto> findSoilReadingsAfter(Integer subZoneId, LocalDateTime after, LocalDateTime to,
+                                                              int limit) {
+        // stored times are whole seconds, so "> after" is ">= the next second"
+        long fromSecond = after != null ? after.toEpochSecond(ZoneOffset.UTC) + 1 : Long.MIN_VALUE;
+        return scan(subZoneId, fromSecond, to, limit);
+    }
+
+    // reads day by day, oldest first, and stops at the first day that fills the limit
+    private List<SoilMoistureReadingDto> scan(Integer subZoneId, long fromSecond, LocalDateTime to, int limit) {
+        long toSecond = to != null ? to.toEpochSecond(ZoneOffset.UTC) : Long.MAX_VALUE;
+        LocalDate fromDay = fromSecond != Long.MIN_VALUE
+                ? LocalDateTime.ofEpochSecond(fromSecond, 0, ZoneOffset.UTC).toLocalDate() : LocalDate.MIN;
+        LocalDate toDay = to != null ? to.toLocalDate() : LocalDate.MAX;
+        List<long[]> rows = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (List<Path> dayFiles : listDays(subZoneId, fromDay, toDay).values()) {
+                int dayStart = rows.size();
+                for (Path file : dayFiles) {
+                    ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+                    if (file.getFileName().toString().endsWith(BLOCK_SUFFIX)) {
+                        readBlocks(buf, fromSecond, toSecond, rows);
+                    } else {
+                        readHead(buf, fromSecond, toSecond, rows);
+                    }
+                }
+                // a day's blocks are not globally ordered (late readings), so sort per day
+                rows.subList(dayStart, rows.size()).sort(Comparator.comparingLong(row -> row[0]));
+                if (rows.size() >= limit) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+        int size = Math.min(limit, rows.size());
+        List<SoilMoistureReadingDto> result = new ArrayList<>(size);
+        for (long[] row : rows.subList(0, size)) {
+            result.add(new SoilMoistureReadingDto(LocalDateTime.ofEpochSecond(row[0], 0, ZoneOffset.UTC), (int) row[1]));
+        }
+        return result;
+    }
+
+    // .tsb and .head files of a subzone within [fromDay, toDay], grouped by day in date order
+    private TreeMap<LocalDate, List<Path>> listDays(Integer subZoneId, LocalDate fromDay, LocalDate toDay)
+            throws IOException {
+        TreeMap<LocalDate, List<Path>> days = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root.resolve(String.valueOf(subZoneId)))) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(BLOCK_SUFFIX) && !name.endsWith(HEAD_SUFFIX)) {
+                    continue;
+                }
+                LocalDate day = LocalDate.parse(name.substring(0, name.indexOf('.')), DAY);
+                if (!day.isBefore(fromDay) && !day.isAfter(toDay)) {
+                    days.computeIfAbsent(day, d -> new ArrayList<>()).add(file);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // no readings for this subzone yet
+        }
+        return days;
+    }
+
+    // --- heads -------------------------------------------------------------------
+
+    private static final class Head {
+        final Integer subZoneId;
+        final LocalDate day;
+        long[] seconds = new long[BLOCK_SIZE];
+        byte[] packed = new byte[BLOCK_SIZE];
+        int count;
+        // readings [pendingFrom, count) are not in the .head file yet
+        int pendingFrom;
+
+        Head(Integer subZoneId, LocalDate day) {
+            this.subZoneId = subZoneId;
+            this.day = day;
+        }
+
+        void add(long second, byte value) {
+            if (count == seconds.length) {
+                seconds = Arrays.copyOf(seconds, count * 2);
+                packed = Arrays.copyOf(packed, count * 2);
+            }
+            seconds[count] = second;
+            packed[count] = value;
+            count++;
+        }
+    }
+
+    // subzones that stopped posting would otherwise keep yesterday's head open (and in memory) forever
+    private void sealPastDays() throws IOException {
+        Iterator<Head> it = heads.values().iterator();
+        while (it.hasNext()) {
+            Head head = it.next();
+            if (head.day.isBefore(latestDay)) {
+                seal(head);
+                it.remove();
+            }
+        }
+    }
+
+    // recovers the head left by a previous run, unless it was already sealed before a crash
+    private Head openHead(Integer subZoneId, LocalDate day) throws IOException {
+        Head head = new Head(subZoneId, day);
+        Path headFile = headFile(subZoneId, day);
+        if (!Files.exists(headFile)) {
+            return head;
+        }
+        List<long[]> rows = new ArrayList<>();
+        readHead(ByteBuffer.wrap(Files.readAllBytes(headFile)), Long.MIN_VALUE, Long.MAX_VALUE, rows);
+        if (!rows.isEmpty() && lastBlockMatches(blockFile(subZoneId, day), rows)) {
+            Files.delete(headFile);
+            return head;
+        }
+        for (long[] row : rows) {
+            head.add(row[0], (byte) row[2]);
+        }
+        head.pendingFrom = head.count;
+        return head;
+    }
+
+    private void flushHead(Head head) throws IOException {
+        if (head.pendingFrom == head.count) {
+            return;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(8 + (head.count - head.pendingFrom) * 11);
+        long previous;
+        if (head.pendingFrom == 0) {
+            buf.putLong(head.seconds[0]);
+            previous = head.seconds[0];
+        } else {
+            previous = head.seconds[head.pendingFrom - 1];
+        }
+        for (int i = head.pendingFrom; i < head.count; i++) {
+            putVarLong(buf, zigZag(head.seconds[i] - previous));
+            buf.put(head.packed[i]);
+            previous = head.seconds[i];
+        }
+        Path headFile = headFile(head.subZoneId, head.day);
+        Files.createDirectories(headFile.getParent());
+        Files.write(headFile, Arrays.copyOf(buf.array(), buf.position()),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        head.pendingFrom = head.count;
+    }
+
+    private void seal(Head head) throws IOException {
+        if (head.count > 0) {
+            appendBlock(blockFile(head.subZoneId, head.day), head.seconds, head.packed, head.count);
+        }
+        Files.deleteIfExists(headFile(head.subZoneId, head.day));
+        head.count = 0;
+        head.pendingFrom = 0;
+    }
+
+    private static void readHead(ByteBuffer buf, long fromSecond, long toSecond, List<long[]> out) {
+        if (buf.remaining() < 8) {
+            return;
+        }
+        long second = buf.getLong();
+        while (buf.hasRemaining()) {
+            second += unZigZag(getVarLong(buf));
+            if (!buf.hasRemaining()) {
+                // torn write at the tail
+                return;
+            }
+            byte value = buf.get();
+            if (second >= fromSecond && second < toSecond) {
+                out.add(row(second, value));
+            }
+        }
+    }
+
+    // --- sealed columnar blocks --------------------------------------------------
+
+    private static void appendBlock(Path file, long[] seconds, byte[] packed, int count) throws IOException {
+        // sort by time; the packed byte rides along in the low 8 bits of the key
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = (seconds[i] << 8) | (packed[i] & 0xFF);
+        }
+        Arrays.sort(keys);
+        ByteBuffer body = ByteBuffer.allocate(count * 10 + count + (count + 7) / 8);
+        long base = keys[0] >> 8;
+        long previous = base;
+        for (int i = 1; i < count; i++) {
+            long s = keys[i] >> 8;
+            putVarLong(body, zigZag(s - previous));
+            previous = s;
+        }
+        byte[] rainBits = new byte[(count + 7) / 8];
+        for (int i = 0; i < count; i++) {
+            byte value = (byte) keys[i];
+            body.put((byte) (value & 0x7F));
+            if (value < 0) {
+                rainBits[i >>> 3] |= (byte) (1 << (i & 7));
+            }
+        }
+        body.put(rainBits);
+
+        ByteBuffer block = ByteBuffer.allocate(1 + 5 + 5 + 8 + 10 + body.position());
+        block.put(BLOCK_MAGIC);
+        putVarLong(block, count);
+        putVarLong(block, body.position());
+        block.putLong(base);
+        putVarLong(block, previous - base);
+        block.put(body.array(), 0, body.position());
+
+        Files.createDirectories(file.getParent());
+        Files.write(file, Arrays.copyOf(block.array(), block.position()),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static void readBlocks(ByteBuffer buf, long fromSecond, long toSecond, List<long[]> out) {
+        while (buf.remaining() > 0) {
+            if (buf.get() != BLOCK_MAGIC) {
+                return;
+            }
+            int count = (int) getVarLong(buf);
+            int bodyLength = (int) getVarLong(buf);
+            long base = buf.getLong();
+            long span = getVarLong(buf);
+            if (buf.remaining() < bodyLength) {
+                // torn write at the tail
+                return;
+            }
+            int bodyStart = buf.position();
+            if (base + span < fromSecond || base >= toSecond) {
+                buf.position(bodyStart + bodyLength);
+                continue;
+            }
+            long[] seconds = new long[count];
+            seconds[0] = base;
+            for (int i = 1; i < count; i++) {
+                seconds[i] = seconds[i - 1] + unZigZag(getVarLong(buf));
+            }
+            int moistureStart = buf.position();
+            int rainStart = moistureStart + count;
+            for (int i = 0; i < count; i++) {
+                if (seconds[i] >= fromSecond && seconds[i] < toSecond) {
+                    boolean raining = (buf.get(rainStart + (i >>> 3)) & (1 << (i & 7))) != 0;
+                    out.add(row(seconds[i], pack(buf.get(moistureStart + i), raining)));
+                }
+            }
+            buf.position(bodyStart + bodyLength);
+        }
+    }
+
+    // a block is sorted, so its base is the head's earliest reading and base + span its latest,
+    // whatever order the readings arrived in
+    private static boolean lastBlockMatches(Path file, List<long[]> headRows) throws IOException {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long[] row : headRows) {
+            min = Math.min(min, row[0]);
+            max = Math.max(max, row[0]);
+        }
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+        long lastBase = Long.MIN_VALUE;
+        long lastSpan = -1;
+        int lastCount = -1;
+        while (buf.remaining() > 0 && buf.get() == BLOCK_MAGIC) {
+            lastCount = (int) getVarLong(buf);
+            int bodyLength = (int) getVarLong(buf);
+            lastBase = buf.getLong();
+            lastSpan = getVarLong(buf);
+            buf.position(Math.min(buf.limit(), buf.position() + bodyLength));
+        }
+        return lastCount == headRows.size() && lastBase == min && lastBase + lastSpan == max;
+    }
+
+    // --- encoding helpers --------------------------------------------------------
+
+    private Path blockFile(Integer subZoneId, LocalDate day) {
+        return root.resolve(String.valueOf(subZoneId)).resolve(DAY.format(day) + BLOCK_SUFFIX);
+    }
+
+    private Path headFile(Integer subZoneId, LocalDate day) {
+        return root.resolve(String.valueOf(subZoneId)).resolve(DAY.format(day) + HEAD_SUFFIX);
+    }
+
+    private static byte pack(int moisturePercent, boolean raining) {
+        int moisture = Math.max(0, Math.min(127, moisturePercent));
+        return (byte) (moisture | (raining ? 0x80 : 0));
+    }
+
+    // {epochSecond, moisturePercent, packed byte}
+    private static long[] row(long second, byte packed) {
+        return new long[]{second, packed & 0x7F, packed};
+    }
+
+    private static long zigZag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unZigZag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void putVarLong(ByteBuffer buf, long v) {
+        while ((v & ~0x7FL) != 0) {
+            buf.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buf.put((byte) v);
+    }
+
+    private static long getVarLong(ByteBuffer buf) {
+        long result = 0;
+        int shift = 0;
+        while (buf.hasRemaining()) {
+            byte b = buf.get();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+            shift += 7;
+        }
+        return result;
+    }
+}
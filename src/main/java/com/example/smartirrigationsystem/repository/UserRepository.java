@@ -2,8 +2,21 @@ package com.example.smartirrigationsystem.repository;
 
 import com.example.smartirrigationsystem.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
+    interface CredentialView {
+        String getPasswordHash();
+        String getRoleName();
+    }
+
     Optional<User> findByUsername(String username);
+
+    // what an authentication depends on, by the unique username index; checked on every credential cache hit
+    @Query("select u.passwordHash as passwordHash, r.name as roleName from User u left join u.role r "
+            + "where u.username = :username")
+    Optional<CredentialView> findCredentials(@Param("username") String username);
 }
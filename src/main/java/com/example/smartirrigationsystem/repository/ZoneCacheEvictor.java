@@ -0,0 +1,47 @@
+package com.example.smartirrigationsystem.repository;
+
+import com.example.smartirrigationsystem.entity.Zone;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Drops zones from the second-level cache after they were updated over JDBC, which Hibernate
+ * doesn't see. Inside a transaction the eviction is repeated after completion, so a concurrent
+ * reader can't put the old row back for good. An HQL bulk update would instead clear the whole
+ * region, natural ids included.
+ */
+@Component
+@RequiredArgsConstructor
+public class ZoneCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void evict(Integer zoneId) {
+        evict(List.of(zoneId));
+    }
+
+    public void evict(Collection<Integer> updatedZoneIds) {
+        List<Integer> zoneIds = List.copyOf(updatedZoneIds);
+        evictNow(zoneIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(zoneIds);
+                }
+            });
+        }
+    }
+
+    private void evictNow(Collection<Integer> zoneIds) {
+        for (Integer zoneId : zoneIds) {
+            entityManagerFactory.getCache().evict(Zone.class, zoneId);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.smartirrigationsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Writes of the materialized Zone.hasIssues / controllerOffline flags. Plain JDBC, so a
+ * change evicts only the zone it touched from the second-level cache, and an unchanged flag
+ * neither writes nor evicts. Joins the caller's transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ZoneHealthRepository {
+
+    private static final String ZONE_HAS_ISSUES =
+            "CASE WHEN ? OR controller_offline = TRUE THEN TRUE ELSE FALSE END";
+
+    // hasIssues = any subzone issue OR controller offline; the controller part is read from the row
+    private static final String UPDATE_HAS_ISSUES =
+            "UPDATE zones SET has_issues = " + ZONE_HAS_ISSUES
+                    + " WHERE id = ? AND (has_issues IS NULL OR has_issues <> " + ZONE_HAS_ISSUES + ")";
+
+    private static final String UPDATE_HEALTH =
+            "UPDATE zones SET controller_offline = ?, has_issues = ? WHERE id = ? AND ("
+                    + "controller_offline IS NULL OR controller_offline <> ? OR has_issues IS NULL OR has_issues <> ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ZoneCacheEvictor cacheEvictor;
+
+    public void updateHasIssues(Integer id, boolean subZoneIssues) {
+        if (jdbcTemplate.update(UPDATE_HAS_ISSUES, subZoneIssues, id, subZoneIssues) > 0) {
+            cacheEvictor.evict(id);
+        }
+    }
+
+    public void updateHealth(Integer id, boolean offline, boolean hasIssues) {
+        if (jdbcTemplate.update(UPDATE_HEALTH, offline, hasIssues, id, offline, hasIssues) > 0) {
+            cacheEvictor.evict(id);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.smartirrigationsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batched write of Zone.lastSeenAt, flushed periodically by the liveness tracker
+ * instead of once per controller post. The UPDATE bypasses Hibernate, so the touched zones are
+ * evicted from the second-level cache afterwards. Each instance writes the times it has seen, so
+ * the UPDATE only ever moves last_seen_at forward.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ZoneLastSeenRepository {
+
+    private static final String UPDATE_LAST_SEEN = "UPDATE zones SET last_seen_at = ? "
+            + "WHERE id = ? AND (last_seen_at IS NULL OR last_seen_at < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ZoneCacheEvictor cacheEvictor;
+
+    public void updateAll(Map<Integer, LocalDateTime> lastSeenByZoneId) {
+        List<Map.Entry<Integer, LocalDateTime>> rows = new ArrayList<>(lastSeenByZoneId.entrySet());
+        jdbcTemplate.batchUpdate(UPDATE_LAST_SEEN, rows, rows.size(), (ps, e) -> {
+            ps.setTimestamp(1, Timestamp.valueOf(e.getValue()));
+            ps.setInt(2, e.getKey());
+            ps.setTimestamp(3, Timestamp.valueOf(e.getValue()));
+        });
+        cacheEvictor.evict(lastSeenByZoneId.keySet());
+    }
+}
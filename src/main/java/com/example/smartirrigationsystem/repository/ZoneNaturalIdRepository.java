@@ -0,0 +1,11 @@
+package com.example.smartirrigationsystem.repository;
+
+import com.example.smartirrigationsystem.entity.Zone;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface ZoneNaturalIdRepository {
+
+    // null if no zone has this controller yet
+    @Transactional(readOnly = true)
+    Zone findByControllerUid(String controllerUid);
+}
@@ -0,0 +1,23 @@
+package com.example.smartirrigationsystem.repository;
+
+import com.example.smartirrigationsystem.entity.Zone;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+/**
+ * Resolves a controllerUid through Hibernate's natural-id API instead of a derived query, so a
+ * warm lookup is answered from the second-level cache (uid -> id, then id -> Zone) without SQL.
+ */
+public class ZoneNaturalIdRepositoryImpl implements ZoneNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Zone findByControllerUid(String controllerUid) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Zone.class)
+                .load(controllerUid);
+    }
+}
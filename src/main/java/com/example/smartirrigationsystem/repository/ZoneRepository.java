@@ -1,9 +1,68 @@
 package com.example.smartirrigationsystem.repository;
 
+import com.example.smartirrigationsystem.dto.ZoneSummaryDto;
 import com.example.smartirrigationsystem.entity.Zone;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ZoneRepository extends JpaRepository<Zone, Integer> {
-    Zone findByControllerUid(String controllerUid);
-}
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ZoneRepository extends JpaRepository<Zone, Integer>, ZoneNaturalIdRepository {
+
+    interface LivenessView {
+        Integer getId();
+        String getControllerUid();
+        LocalDateTime getLastSeenAt();
+        Boolean getControllerOffline();
+    }
+
+    interface DeviceKeyView {
+        String getControllerUid();
+        String getDeviceKeyHash();
+        String getUdpMacKey();
+    }
+
+    @Query("select new com.example.smartirrigationsystem.dto.ZoneSummaryDto("
+            + "z.id, z.name, z.latitude, z.longitude, z.extraInfo, z.controllerUid, z.hasIssues) "
+            + "from Zone z order by z.id")
+    List<ZoneSummaryDto> findSummaries();
+
+    // start-up seed of the liveness tracker; zones that never reported are left out
+    @Query("select z.id as id, z.controllerUid as controllerUid, z.lastSeenAt as lastSeenAt, "
+            + "z.controllerOffline as controllerOffline from Zone z where z.lastSeenAt is not null")
+    List<LivenessView> findLiveness();
 
+    // liveness sweep: another instance may have seen the controller more recently
+    @Query("select z.lastSeenAt from Zone z where z.id = :id")
+    LocalDateTime findLastSeenAt(@Param("id") Integer id);
+
+    @Modifying
+    // a new key starts a new sequence, frames MACed with the old one are rejected anyway
+    @Query("update Zone z set z.deviceKeyHash = :hash, z.udpMacKey = :macKey, z.lastUdpSequenceNumber = null "
+            + "where z.id = :id")
+    void updateDeviceKey(@Param("id") Integer id, @Param("hash") String hash, @Param("macKey") String macKey);
+
+    // start-up seed of the device key registry
+    @Query("select z.controllerUid as controllerUid, z.deviceKeyHash as deviceKeyHash, z.udpMacKey as udpMacKey "
+            + "from Zone z where z.deviceKeyHash is not null")
+    List<DeviceKeyView> findDeviceKeys();
+
+    // device key registry refresh: one lookup on the unique controller_uid index; null = no zone
+    @Query("select z.controllerUid as controllerUid, z.deviceKeyHash as deviceKeyHash, z.udpMacKey as udpMacKey "
+            + "from Zone z where z.controllerUid = :controllerUid")
+    DeviceKeyView findDeviceKey(@Param("controllerUid") String controllerUid);
+
+    // replay guard of the UDP listener; null = no zone or no frame accepted since the key was issued
+    @Query("select z.lastUdpSequenceNumber from Zone z where z.controllerUid = :controllerUid")
+    Long findLastUdpSequenceNumber(@Param("controllerUid") String controllerUid);
+
+    // only moves forward, so concurrent frames (or instances) can't lower it
+    @Modifying
+    @Query("update Zone z set z.lastUdpSequenceNumber = :sequenceNumber where z.controllerUid = :controllerUid "
+            + "and (z.lastUdpSequenceNumber is null or z.lastUdpSequenceNumber < :sequenceNumber)")
+    int advanceUdpSequenceNumber(@Param("controllerUid") String controllerUid,
+                                 @Param("sequenceNumber") long sequenceNumber);
+}
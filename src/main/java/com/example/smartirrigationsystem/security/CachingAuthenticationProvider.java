@@ -0,0 +1,132 @@
+package com.example.smartirrigationsystem.security;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Remembers username/password pairs the delegate (BCrypt + user query) has accepted, so
+ * repeat HTTP Basic requests of dashboard users skip the BCrypt check for {@code ttlSeconds}.
+ * Only an HMAC of the password, keyed per process, is kept; a different password misses and
+ * goes to the delegate. Every hit first compares the user's credential version (password hash
+ * and role, one indexed lookup) with the one the entry was stored under, so a change made on
+ * another instance or in the database is never served from the cache. {@link #invalidate}
+ * drops this instance's entry right away.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private static final class Entry {
+        final byte[] secretMac;
+        final String credentialVersion;
+        final Object principal;
+        final Collection<? extends GrantedAuthority> authorities;
+        final long expiresAtNanos;
+
+        Entry(byte[] secretMac, String credentialVersion, Authentication authenticated, long expiresAtNanos) {
+            this.secretMac = secretMac;
+            this.credentialVersion = credentialVersion;
+            this.principal = authenticated.getPrincipal();
+            this.authorities = authenticated.getAuthorities();
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private final AuthenticationProvider delegate;
+    // username -> current credential version, null if there is no such user
+    private final Function<String, String> credentialVersions;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final SecretKeySpec macKey;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // bumped by invalidate, so a check that started before a password change isn't cached after it
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, Function<String, String> credentialVersions,
+                                         long ttlSeconds, int maxEntries) {
+        this.delegate = delegate;
+        this.credentialVersions = credentialVersions;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxEntries = maxEntries;
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.macKey = new SecretKeySpec(key, "HmacSHA256");
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (ttlNanos <= 0 || username == null || !(credentials instanceof String)) {
+            return delegate.authenticate(authentication);
+        }
+        byte[] secretMac = mac((String) credentials);
+        long now = System.nanoTime();
+
+        Entry entry = entries.get(username);
+        // read before the delegate: a change racing with the check makes the stored version stale, never the reverse
+        String version = credentialVersions.apply(username);
+        if (entry != null && entry.expiresAtNanos - now > 0 && MessageDigest.isEqual(entry.secretMac, secretMac)) {
+            if (version != null && version.equals(entry.credentialVersion)) {
+                UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken.authenticated(
+                        entry.principal, null, entry.authorities);
+                result.setDetails(authentication.getDetails());
+                return result;
+            }
+            entries.remove(username, entry);
+        }
+
+        long generation = invalidations.get();
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated() && version != null && invalidations.get() == generation) {
+            if (entries.size() >= maxEntries) {
+                entries.values().removeIf(e -> e.expiresAtNanos - now <= 0);
+            }
+            // still full of live entries: serve this user uncached rather than grow
+            if (entries.size() < maxEntries || entries.containsKey(username)) {
+                Entry added = new Entry(secretMac, version, result, now + ttlNanos);
+                entries.put(username, added);
+                if (invalidations.get() != generation) {
+                    entries.remove(username, added);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+    public void invalidate(String username) {
+        if (username != null) {
+            invalidations.incrementAndGet();
+            entries.remove(username);
+        }
+    }
+
+    private byte[] mac(String secret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(macKey);
+            return mac.doFinal(secret.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
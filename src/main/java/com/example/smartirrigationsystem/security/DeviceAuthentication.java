@@ -0,0 +1,30 @@
+package com.example.smartirrigationsystem.security;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * A controller authenticated by its device key; the principal is its controllerUid.
+ */
+public class DeviceAuthentication extends AbstractAuthenticationToken {
+
+    private final String controllerUid;
+
+    public DeviceAuthentication(String controllerUid) {
+        super(List.of(new SimpleGrantedAuthority("ROLE_ESP_NODE")));
+        this.controllerUid = controllerUid;
+        setAuthenticated(true);
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return controllerUid;
+    }
+}
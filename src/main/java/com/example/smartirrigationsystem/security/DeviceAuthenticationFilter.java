@@ -0,0 +1,49 @@
+package com.example.smartirrigationsystem.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates {@code Authorization: Device <controllerUid>:<key>} against the
+ * {@link DeviceKeyRegistry}. Nothing is stored in a session; a wrong or unknown key gets 401
+ * right here. Not a bean, so it only runs inside the device filter chain of {@link SecurityConfig}.
+ */
+public class DeviceAuthenticationFilter extends OncePerRequestFilter {
+
+    static final String SCHEME = "Device ";
+
+    private final DeviceKeyRegistry registry;
+
+    public DeviceAuthenticationFilter(DeviceKeyRegistry registry) {
+        this.registry = registry;
+    }
+
+    static boolean hasDeviceCredentials(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        return header != null && header.startsWith(SCHEME);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        int colon = header.lastIndexOf(':');
+        if (colon <= SCHEME.length()
+                || !registry.verify(header.substring(SCHEME.length(), colon), header.substring(colon + 1))) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new DeviceAuthentication(header.substring(SCHEME.length(), colon)));
+        SecurityContextHolder.setContext(context);
+        chain.doFilter(request, response);
+    }
+}
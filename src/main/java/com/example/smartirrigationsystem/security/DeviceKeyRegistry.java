@@ -0,0 +1,157 @@
+package com.example.smartirrigationsystem.security;
+
+import com.example.smartirrigationsystem.repository.ZoneRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Table of controller API keys per controllerUid, seeded from the zone rows at start-up. Two
+ * values are derived from each key: a verifier, SHA-256("auth" + key), stored in
+ * Zone.deviceKeyHash and checked against the key of HTTP posts, and a MAC key,
+ * HMAC-SHA256(key, "udp-frame"), stored in Zone.udpMacKey and keying the UDP frames. Neither
+ * can be computed from the other, so the verifier column alone doesn't let anyone sign frames.
+ * Keys are 256 random bits, so a plain hash is enough and a check costs one SHA-256 instead of
+ * a BCrypt round and a user query. Zones whose key was issued before the split only have a
+ * plain SHA-256(key) verifier and no MAC key: they keep working over HTTP and need a new key
+ * for UDP. Every entry, including "no key", is trusted for
+ * {@code irrigation.device-keys.cache-ttl-seconds} and then read again from the zone row with
+ * one query on the unique controller_uid index, so keys issued or revoked on another instance
+ * take effect here within the ttl, and wrong keys can't turn every request into a query.
+ */
+@Slf4j
+@Component
+public class DeviceKeyRegistry {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final byte[] VERIFIER_PREFIX = "auth".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] UDP_MAC_LABEL = "udp-frame".getBytes(StandardCharsets.UTF_8);
+
+    private static final class Entry {
+        // null = the controller has no key (or no zone)
+        final byte[] verifier;
+        // null = no key, or one issued before the UDP MAC key was derived separately
+        final byte[] macKey;
+        final long loadedAtNanos;
+
+        Entry(String verifierHex, String macKeyHex, long loadedAtNanos) {
+            this.verifier = verifierHex != null ? HexFormat.of().parseHex(verifierHex) : null;
+            this.macKey = verifierHex != null && macKeyHex != null ? HexFormat.of().parseHex(macKeyHex) : null;
+            this.loadedAtNanos = loadedAtNanos;
+        }
+    }
+
+    private final ZoneRepository zoneRepo;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public DeviceKeyRegistry(ZoneRepository zoneRepo,
+                             @Value("${irrigation.device-keys.cache-ttl-seconds:30}") long ttlSeconds) {
+        this.zoneRepo = zoneRepo;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long now = System.nanoTime();
+        for (ZoneRepository.DeviceKeyView key : zoneRepo.findDeviceKeys()) {
+            entries.put(key.getControllerUid(), new Entry(key.getDeviceKeyHash(), key.getUdpMacKey(), now));
+        }
+        log.info("Loaded {} device keys", entries.size());
+    }
+
+    public boolean verify(String controllerUid, String key) {
+        Entry entry = entry(controllerUid);
+        if (entry.verifier == null) {
+            return false;
+        }
+        byte[] actual = entry.macKey != null ? digest(key, VERIFIER_PREFIX) : digest(key, null);
+        return MessageDigest.isEqual(entry.verifier, actual);
+    }
+
+    /**
+     * The key of the controller's UDP frame MACs, or null if it has none. The controller derives
+     * the same bytes from its device key.
+     */
+    public byte[] macKey(String controllerUid) {
+        return entry(controllerUid).macKey;
+    }
+
+    private Entry entry(String controllerUid) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(controllerUid);
+        if (entry == null || now - entry.loadedAtNanos >= ttlNanos) {
+            ZoneRepository.DeviceKeyView key = zoneRepo.findDeviceKey(controllerUid);
+            entry = key != null
+                    ? new Entry(key.getDeviceKeyHash(), key.getUdpMacKey(), now)
+                    : new Entry(null, null, now);
+            entries.put(controllerUid, entry);
+        }
+        return entry;
+    }
+
+    public void register(String controllerUid, String verifier, String macKey) {
+        entries.put(controllerUid, new Entry(verifier, macKey, System.nanoTime()));
+    }
+
+    public void revoke(String controllerUid) {
+        entries.put(controllerUid, new Entry(null, null, System.nanoTime()));
+    }
+
+    // drops expired entries, so uids that were tried once don't stay in memory
+    @Scheduled(fixedDelayString = "${irrigation.device-keys.cache-ttl-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public void evictExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> now - entry.loadedAtNanos >= ttlNanos);
+    }
+
+    public static String newKey() {
+        byte[] key = new byte[32];
+        RANDOM.nextBytes(key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key);
+    }
+
+    // what Zone.deviceKeyHash stores
+    public static String verifier(String key) {
+        return HexFormat.of().formatHex(digest(key, VERIFIER_PREFIX));
+    }
+
+    // what Zone.udpMacKey stores
+    public static String udpMacKey(String key) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(UDP_MAC_LABEL));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] digest(String key, byte[] prefix) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (prefix != null) {
+                digest.update(prefix);
+            }
+            return digest.digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -43,4 +43,14 @@ public class JpaUserDetailsService implements UserDetailsService {
                 .disabled(false)
                 .build();
     }
+
+    /**
+     * Changes whenever the user's password or role does, on any instance or directly in the
+     * database; null once the user is gone.
+     */
+    public String credentialVersion(String username) {
+        return userRepository.findCredentials(username)
+                .map(c -> c.getPasswordHash() + "|" + c.getRoleName())
+                .orElse(null);
+    }
 }
@@ -2,8 +2,10 @@ package com.example.smartirrigationsystem.security;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -18,7 +20,10 @@ import org.springframework.security.crypto.bcrypt.*;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.*;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.security.web.authentication.logout.LogoutSuccessHandler;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.web.cors.*;
 
@@ -36,22 +41,45 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
-    // 2) DaoAuthenticationProvider, inject JpaUserDetailsService directly
+    // 2) DaoAuthenticationProvider, inject JpaUserDetailsService directly;
+    //    verified credentials are cached so repeat Basic requests skip BCrypt (a hit still checks the
+    //    user's password hash and role with one indexed lookup)
     @Bean
-    public DaoAuthenticationProvider authenticationProvider(
+    public CachingAuthenticationProvider authenticationProvider(
             JpaUserDetailsService jpaUserDetailsService,
-            PasswordEncoder passwordEncoder
+            PasswordEncoder passwordEncoder,
+            @Value("${irrigation.auth.cache-ttl-seconds:300}") long cacheTtlSeconds,
+            @Value("${irrigation.auth.cache-max-entries:10000}") int cacheMaxEntries
     ) {
         DaoAuthenticationProvider auth = new DaoAuthenticationProvider();
         auth.setUserDetailsService(jpaUserDetailsService);
         auth.setPasswordEncoder(passwordEncoder);
-        return auth;
+        return new CachingAuthenticationProvider(auth, jpaUserDetailsService::credentialVersion,
+                cacheTtlSeconds, cacheMaxEntries);
+    }
+
+    // 3a) Controller posts with a device key: stateless, one SHA-256 instead of BCrypt + user query.
+    //     Posts with HTTP Basic don't match and go through the main chain below as before.
+    @Bean
+    @Order(1)
+    public SecurityFilterChain deviceFilterChain(HttpSecurity http, DeviceKeyRegistry deviceKeys) throws Exception {
+        http
+                .securityMatcher(new AndRequestMatcher(
+                        PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.POST, "/api/zones/readings"),
+                        DeviceAuthenticationFilter::hasDeviceCredentials))
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .requestCache(cache -> cache.disable())
+                .anonymous(anonymous -> anonymous.disable())
+                .addFilterBefore(new DeviceAuthenticationFilter(deviceKeys), AuthorizationFilter.class)
+                .authorizeHttpRequests(authz -> authz.anyRequest().hasRole("ESP_NODE"));
+        return http.build();
     }
 
     // 3) Main HTTP security configuration
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http,
-                                           DaoAuthenticationProvider authProvider) throws Exception {
+                                           CachingAuthenticationProvider authProvider) throws Exception {
         http
                 // Enable CORS so React (localhost:3000) can call us
                 .cors().and()
@@ -112,6 +140,8 @@ public class SecurityConfig {
 
                         // ADMIN only: /api/users/**
                         .requestMatchers("/api/users/**").hasRole("ADMIN")
+                        .requestMatchers("/api/cache-statistics").hasRole("ADMIN")
+                        .requestMatchers("/api/ingest-statistics").hasRole("ADMIN")
                         .requestMatchers("/", "/index.html", "/static/**", "/favicon.ico", "/manifest.json", "/logo192.png", "/logo512.png").permitAll()
                         .requestMatchers("/login", "/logout").permitAll()
 
@@ -119,6 +149,9 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/zones/**")
                         .hasAnyRole("VIEWER","MAINTAINER","ADMIN", "ESP_NODE")
 
+                        // device keys are issued by admins only (ESP_NODE may POST elsewhere under /api/zones)
+                        .requestMatchers(HttpMethod.POST, "/api/zones/*/device-key").hasRole("ADMIN")
+
                         // MAINTAINER+ (POST/PUT/DELETE) on /api/zones/**
                         .requestMatchers(HttpMethod.POST)
                         .hasAnyRole("MAINTAINER","ADMIN", "ESP_NODE")
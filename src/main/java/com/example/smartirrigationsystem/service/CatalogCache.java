@@ -0,0 +1,77 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.repository.PlantTypeRepository;
+import com.example.smartirrigationsystem.repository.SoilTypeRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process copy of the plant and soil type catalogs, which change a few times a year.
+ * Readers take {@link #current()} without SQL or locking; the plant and soil type
+ * controllers call {@link #reload()} after every change, which reads both tables once,
+ * swaps in a new {@link CatalogSnapshot} and recompiles the {@link IrrigationRules}.
+ * Edits made on another instance or directly in the database are picked up by
+ * {@link #refresh()} every {@code irrigation.catalog.refresh-seconds}: it reads the tables
+ * and swaps only if the content ETags changed.
+ */
+@Component
+public class CatalogCache {
+
+    private final PlantTypeRepository plantTypeRepo;
+    private final SoilTypeRepository soilTypeRepo;
+    private final IrrigationRuleEngine ruleEngine;
+    // j.u.c lock: a virtual thread waiting for a reload's SQL unmounts instead of pinning its carrier
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    private volatile CatalogSnapshot snapshot = new CatalogSnapshot(0, Collections.emptyList(), Collections.emptyList());
+
+    public CatalogCache(PlantTypeRepository plantTypeRepo,
+                        SoilTypeRepository soilTypeRepo,
+                        IrrigationRuleEngine ruleEngine) {
+        this.plantTypeRepo = plantTypeRepo;
+        this.soilTypeRepo = soilTypeRepo;
+        this.ruleEngine = ruleEngine;
+    }
+
+    public CatalogSnapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * Serialized so that of two concurrent reloads the one that read the tables last is
+     * the one that stays, for both the snapshot and the rules.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        reload(true);
+    }
+
+    @Scheduled(initialDelayString = "${irrigation.catalog.refresh-seconds:60}",
+            fixedDelayString = "${irrigation.catalog.refresh-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void refresh() {
+        reload(false);
+    }
+
+    private void reload(boolean always) {
+        reloadLock.lock();
+        try {
+            CatalogSnapshot current = snapshot;
+            CatalogSnapshot next = new CatalogSnapshot(current.getVersion() + 1,
+                    plantTypeRepo.findAll(), soilTypeRepo.findAll());
+            if (!always && next.getPlantTypesETag().equals(current.getPlantTypesETag())
+                    && next.getSoilTypesETag().equals(current.getSoilTypesETag())) {
+                return;
+            }
+            ruleEngine.rebuild(next.getPlantTypes(), next.getSoilTypes());
+            snapshot = next;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+}
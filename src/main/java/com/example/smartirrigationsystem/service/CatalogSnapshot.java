@@ -0,0 +1,96 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.entity.PlantType;
+import com.example.smartirrigationsystem.entity.SoilType;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One immutable version of the plant and soil type catalogs. The entities are detached
+ * copies shared by all readers and must not be modified. ETags are derived from the
+ * content, so they stay the same across restarts and instances while the catalog doesn't change.
+ */
+public final class CatalogSnapshot {
+
+    private final long version;
+    private final List<PlantType> plantTypes;
+    private final List<SoilType> soilTypes;
+    private final Map<Integer, PlantType> plantTypesById = new HashMap<>();
+    private final Map<Integer, SoilType> soilTypesById = new HashMap<>();
+    private final String plantTypesETag;
+    private final String soilTypesETag;
+
+    CatalogSnapshot(long version, List<PlantType> plantTypes, List<SoilType> soilTypes) {
+        this.version = version;
+        this.plantTypes = Collections.unmodifiableList(plantTypes);
+        this.soilTypes = Collections.unmodifiableList(soilTypes);
+        StringBuilder plantContent = new StringBuilder();
+        for (PlantType plant : plantTypes) {
+            plantTypesById.put(plant.getId(), plant);
+            append(plantContent, plant.getId(), plant.getName(), plant.getDescription(),
+                    plant.getOptimalMoistureMin(), plant.getOptimalMoistureMax());
+        }
+        StringBuilder soilContent = new StringBuilder();
+        for (SoilType soil : soilTypes) {
+            soilTypesById.put(soil.getId(), soil);
+            append(soilContent, soil.getId(), soil.getName(), soil.getDescription(),
+                    soil.getWaitingTimeBeforeMoistureCheckInMinutes());
+        }
+        this.plantTypesETag = hash(plantContent);
+        this.soilTypesETag = hash(soilContent);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<PlantType> getPlantTypes() {
+        return plantTypes;
+    }
+
+    public List<SoilType> getSoilTypes() {
+        return soilTypes;
+    }
+
+    // null if there is no such type
+    public PlantType plantType(Integer id) {
+        return plantTypesById.get(id);
+    }
+
+    public SoilType soilType(Integer id) {
+        return soilTypesById.get(id);
+    }
+
+    public String getPlantTypesETag() {
+        return plantTypesETag;
+    }
+
+    public String getSoilTypesETag() {
+        return soilTypesETag;
+    }
+
+    // every serialized field goes into the ETag; \u0000 separates fields, \u0001 entities
+    private static void append(StringBuilder content, Object... fields) {
+        for (Object field : fields) {
+            content.append(field).append('\u0000');
+        }
+        content.append('\u0001');
+    }
+
+    private static String hash(CharSequence content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
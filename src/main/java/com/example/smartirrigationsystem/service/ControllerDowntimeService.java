@@ -0,0 +1,47 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.entity.MicrocontrollerDowntime;
+import com.example.smartirrigationsystem.repository.MicrocontrollerDowntimeRepository;
+import com.example.smartirrigationsystem.repository.ZoneLastSeenRepository;
+import com.example.smartirrigationsystem.repository.ZoneRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Database side of {@link ControllerLivenessTracker}: downtime rows, the zone health
+ * flag and batched last-seen times. Only called on state changes and periodic flushes.
+ */
+@Service
+@RequiredArgsConstructor
+public class ControllerDowntimeService {
+
+    private final MicrocontrollerDowntimeRepository downtimeRepo;
+    private final ZoneRepository zoneRepo;
+    private final ZoneLastSeenRepository lastSeenRepo;
+    private final ZoneHealthService healthService;
+
+    @Transactional
+    public void open(Integer zoneId, LocalDateTime detectedAt, String reason) {
+        MicrocontrollerDowntime downtime = new MicrocontrollerDowntime();
+        downtime.setZone(zoneRepo.getReferenceById(zoneId));
+        downtime.setDetectedAt(detectedAt);
+        downtime.setReason(reason);
+        downtimeRepo.save(downtime);
+        healthService.onControllerSilence(zoneId, true);
+    }
+
+    @Transactional
+    public void resolve(Integer zoneId, LocalDateTime resolvedAt) {
+        downtimeRepo.resolveOpen(zoneId, resolvedAt);
+        healthService.onControllerSilence(zoneId, false);
+    }
+
+    @Transactional
+    public void saveLastSeen(Map<Integer, LocalDateTime> lastSeenByZoneId) {
+        lastSeenRepo.updateAll(lastSeenByZoneId);
+    }
+}
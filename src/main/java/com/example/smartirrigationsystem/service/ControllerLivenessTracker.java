@@ -0,0 +1,185 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.repository.ZoneRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Last-seen time of every controller, kept in memory. A controller post only stores a
+ * timestamp in the map; a scheduled sweep opens a MicrocontrollerDowntime row once a
+ * controller has been silent longer than the threshold and closes it when it reports
+ * again, and a second schedule persists Zone.lastSeenAt in one batch. With several instances
+ * behind a load balancer a controller may be posting to another one, so before opening a
+ * downtime the sweep reads the persisted Zone.lastSeenAt and goes by the later of the two.
+ */
+@Slf4j
+@Component
+public class ControllerLivenessTracker {
+
+    private static final ZoneId KYIV = ZoneId.of("Europe/Kyiv");
+
+    static final class Liveness {
+        final Integer zoneId;
+        volatile long lastSeenMillis;
+        // first post after the controller was marked silent, 0 if none yet
+        volatile long recoveredMillis;
+        volatile boolean silent;
+        // owned by the sweeps
+        long silentLastSeenMillis;
+        long persistedMillis;
+
+        Liveness(Integer zoneId, long lastSeenMillis) {
+            this.zoneId = zoneId;
+            this.lastSeenMillis = lastSeenMillis;
+        }
+    }
+
+    private final Map<String, Liveness> controllers = new ConcurrentHashMap<>();
+    private final ControllerDowntimeService downtimeService;
+    private final ZoneRepository zoneRepo;
+    private final long thresholdMillis;
+    private final Clock clock;
+
+    @Autowired
+    public ControllerLivenessTracker(ControllerDowntimeService downtimeService,
+                                     ZoneRepository zoneRepo,
+                                     @Value("${irrigation.liveness.silence-threshold-seconds:300}") long thresholdSeconds) {
+        this(downtimeService, zoneRepo, thresholdSeconds, Clock.systemUTC());
+    }
+
+    ControllerLivenessTracker(ControllerDowntimeService downtimeService, ZoneRepository zoneRepo,
+                              long thresholdSeconds, Clock clock) {
+        this.downtimeService = downtimeService;
+        this.zoneRepo = zoneRepo;
+        this.thresholdMillis = TimeUnit.SECONDS.toMillis(thresholdSeconds);
+        this.clock = clock;
+    }
+
+    /**
+     * Called on every controller post; never touches the database.
+     */
+    public void onSeen(String controllerUid, Integer zoneId) {
+        long now = clock.millis();
+        Liveness liveness = controllers.get(controllerUid);
+        if (liveness == null) {
+            liveness = controllers.computeIfAbsent(controllerUid, uid -> new Liveness(zoneId, now));
+        }
+        liveness.lastSeenMillis = now;
+        if (liveness.silent && liveness.recoveredMillis == 0) {
+            liveness.recoveredMillis = now;
+        }
+    }
+
+    public void forget(String controllerUid) {
+        controllers.remove(controllerUid);
+    }
+
+    // controllers that stay silent across a restart are still detected
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        for (ZoneRepository.LivenessView zone : zoneRepo.findLiveness()) {
+            long lastSeen = zone.getLastSeenAt().atZone(KYIV).toInstant().toEpochMilli();
+            Liveness liveness = new Liveness(zone.getId(), lastSeen);
+            liveness.persistedMillis = lastSeen;
+            if (Boolean.TRUE.equals(zone.getControllerOffline())) {
+                liveness.silent = true;
+                liveness.silentLastSeenMillis = lastSeen;
+            }
+            controllers.putIfAbsent(zone.getControllerUid(), liveness);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${irrigation.liveness.sweep-interval-ms:15000}")
+    public void sweep() {
+        long now = clock.millis();
+        for (Map.Entry<String, Liveness> entry : controllers.entrySet()) {
+            Liveness liveness = entry.getValue();
+            long lastSeen = liveness.lastSeenMillis;
+            try {
+                if (!liveness.silent && now - lastSeen > thresholdMillis) {
+                    lastSeen = Math.max(lastSeen, readPersistedLastSeen(liveness));
+                }
+                if (!liveness.silent && now - lastSeen > thresholdMillis) {
+                    downtimeService.open(liveness.zoneId, toLocal(now),
+                            "No sensor data since " + toLocal(lastSeen));
+                    liveness.silentLastSeenMillis = lastSeen;
+                    liveness.recoveredMillis = 0;
+                    liveness.silent = true;
+                } else if (liveness.silent
+                        && (liveness.recoveredMillis != 0 || lastSeen != liveness.silentLastSeenMillis)) {
+                    long recovered = liveness.recoveredMillis != 0 ? liveness.recoveredMillis : lastSeen;
+                    downtimeService.resolve(liveness.zoneId, toLocal(recovered));
+                    liveness.silent = false;
+                    liveness.recoveredMillis = 0;
+                }
+            } catch (RuntimeException e) {
+                // e.g. the zone was deleted in between; retried on the next sweep
+                log.warn("Liveness update failed for controller {}", entry.getKey(), e);
+            }
+        }
+    }
+
+    // Zone.lastSeenAt as written by any instance; taken over when it is newer than ours
+    private long readPersistedLastSeen(Liveness liveness) {
+        LocalDateTime persisted = zoneRepo.findLastSeenAt(liveness.zoneId);
+        if (persisted == null) {
+            return 0;
+        }
+        long persistedMillis = persisted.atZone(KYIV).toInstant().toEpochMilli();
+        if (persistedMillis > liveness.lastSeenMillis) {
+            liveness.lastSeenMillis = persistedMillis;
+            liveness.persistedMillis = Math.max(liveness.persistedMillis, persistedMillis);
+        }
+        return persistedMillis;
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        persistLastSeen();
+    }
+
+    @Scheduled(fixedDelayString = "${irrigation.liveness.persist-interval-ms:60000}")
+    public void persistLastSeen() {
+        Map<Integer, LocalDateTime> dirty = new HashMap<>();
+        Map<Liveness, Long> snapshot = new HashMap<>();
+        for (Liveness liveness : controllers.values()) {
+            long lastSeen = liveness.lastSeenMillis;
+            if (lastSeen > liveness.persistedMillis) {
+                dirty.put(liveness.zoneId, toLocal(lastSeen));
+                snapshot.put(liveness, lastSeen);
+            }
+        }
+        if (dirty.isEmpty()) {
+            return;
+        }
+        try {
+            downtimeService.saveLastSeen(dirty);
+            snapshot.forEach((liveness, lastSeen) -> liveness.persistedMillis = lastSeen);
+        } catch (RuntimeException e) {
+            log.warn("Failed to persist last-seen time of {} controllers", dirty.size(), e);
+        }
+    }
+
+    public int size() {
+        return controllers.size();
+    }
+
+    private static LocalDateTime toLocal(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), KYIV);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.dto.ForecastPoint;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reads forecasts from a local JSON file ({@code irrigation.weather.file.path}), an array of
+ * <pre>{"latitude": 49.84, "longitude": 24.03, "forecastTime": "2025-06-01T14:00:00", "precipitationMm": 1.2}</pre>
+ * Entries within half a grid cell of the requested location are returned. The file is re-read
+ * on every fetch, so edits show up after the cache TTL.
+ */
+@Component
+@ConditionalOnProperty(name = "irrigation.weather.provider", havingValue = "file")
+public class FileWeatherForecastProvider implements WeatherForecastProvider {
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    static class FileEntry extends ForecastPoint {
+        private double latitude;
+        private double longitude;
+    }
+
+    private final Path file;
+    private final double halfCell;
+    private final ObjectMapper objectMapper;
+
+    public FileWeatherForecastProvider(@Value("${irrigation.weather.file.path}") String file,
+                                       @Value("${irrigation.weather.grid-degrees:0.1}") double gridDegrees,
+                                       ObjectMapper objectMapper) {
+        this.file = Paths.get(file);
+        this.halfCell = gridDegrees / 2;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public List<ForecastPoint> fetch(double latitude, double longitude) {
+        List<FileEntry> entries;
+        try {
+            entries = objectMapper.readValue(Files.readAllBytes(file), new TypeReference<List<FileEntry>>() {
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return entries.stream()
+                .filter(e -> Math.abs(e.getLatitude() - latitude) <= halfCell
+                        && Math.abs(e.getLongitude() - longitude) <= halfCell)
+                .collect(Collectors.toList());
+    }
+}
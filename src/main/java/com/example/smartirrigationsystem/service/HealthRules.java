@@ -0,0 +1,37 @@
+package com.example.smartirrigationsystem.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * When a subzone or zone counts as unhealthy. Kept free of persistence so the
+ * incremental updates in {@link ZoneHealthService} and a full recomputation can share it.
+ */
+public final class HealthRules {
+
+    // an irrigation is judged by the readings between 1 and 2 hours after it started
+    public static final long EFFECT_DELAY_MINUTES = 60;
+    public static final long EFFECT_WINDOW_MINUTES = 120;
+
+    private HealthRules() {
+    }
+
+    /**
+     * True if a reading taken at {@code at} shows that the last irrigation didn't help:
+     * the soil is still below the plant's minimum, it isn't raining, and the irrigation
+     * started long enough ago to have had an effect, but not so long ago that the soil
+     * could simply have dried out again.
+     */
+    public static boolean irrigationHadNoEffect(Integer optimalMoistureMin, int moisturePercent, boolean raining,
+                                                LocalDateTime lastIrrigationStart, LocalDateTime at) {
+        if (optimalMoistureMin == null || raining || lastIrrigationStart == null) {
+            return false;
+        }
+        return moisturePercent < optimalMoistureMin
+                && !lastIrrigationStart.isAfter(at.minusMinutes(EFFECT_DELAY_MINUTES))
+                && !lastIrrigationStart.isBefore(at.minusMinutes(EFFECT_WINDOW_MINUTES));
+    }
+
+    public static boolean zoneHasIssues(long subZonesWithIssues, boolean controllerOffline) {
+        return subZonesWithIssues > 0 || controllerOffline;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.smartirrigationsystem.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caps how many controller posts hold a database connection at once. On platform threads
+ * Tomcat's thread pool did this implicitly; on virtual threads every post would otherwise
+ * queue inside the connection pool and time out there, together with the ingest writer and
+ * the UI. Posts beyond the cap wait in arrival order and get 503 after
+ * {@code admissionTimeoutMs}, which controllers already treat as "retry later".
+ */
+@Component
+public class IngestAdmission {
+
+    private final Semaphore permits;
+    private final long admissionTimeoutMs;
+
+    public IngestAdmission(@Value("${irrigation.ingest.max-concurrent-posts:16}") int maxConcurrentPosts,
+                           @Value("${irrigation.ingest.admission-timeout-ms:10000}") long admissionTimeoutMs) {
+        // j.u.c semaphore: a waiting virtual thread unmounts instead of pinning its carrier
+        this.permits = new Semaphore(maxConcurrentPosts, true);
+        this.admissionTimeoutMs = admissionTimeoutMs;
+    }
+
+    public <T> T admit(Supplier<T> post) {
+        try {
+            if (!permits.tryAcquire(admissionTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent posts, retry later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting to ingest");
+        }
+        try {
+            return post.get();
+        } finally {
+            permits.release();
+        }
+    }
+}
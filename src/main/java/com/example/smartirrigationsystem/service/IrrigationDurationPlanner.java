@@ -0,0 +1,97 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.repository.SubZoneRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sizes automatic irrigations from the moisture deficit and a response curve learned per
+ * subzone. Every irrigation becomes a sample: the moisture before it, and the first reading
+ * once the soil type's soak time has passed. The sample updates the subzone's
+ * {@link ResponseCurve} in place (one UPDATE per irrigation, never a history scan).
+ * Until a subzone has enough samples its defaultIrrigationDurationInSeconds is used.
+ */
+@Component
+public class IrrigationDurationPlanner {
+
+    private final SubZoneRepository subZoneRepo;
+    private final int minSamples;
+    private final int minDurationSeconds;
+    private final int maxDurationSeconds;
+    private final long sampleWindowSeconds;
+    private final double forgettingFactor;
+
+    public IrrigationDurationPlanner(SubZoneRepository subZoneRepo,
+                                     @Value("${irrigation.planner.min-samples:3}") int minSamples,
+                                     @Value("${irrigation.planner.min-duration-seconds:5}") int minDurationSeconds,
+                                     @Value("${irrigation.planner.max-duration-seconds:600}") int maxDurationSeconds,
+                                     @Value("${irrigation.planner.sample-window-minutes:60}") long sampleWindowMinutes,
+                                     @Value("${irrigation.planner.forgetting-factor:0.95}") double forgettingFactor) {
+        this.subZoneRepo = subZoneRepo;
+        this.minSamples = minSamples;
+        this.minDurationSeconds = minDurationSeconds;
+        this.maxDurationSeconds = maxDurationSeconds;
+        this.sampleWindowSeconds = sampleWindowMinutes * 60;
+        this.forgettingFactor = forgettingFactor;
+    }
+
+    /**
+     * Seconds needed to bring the soil from {@code moisturePercent} to the middle of the
+     * plant's optimal range, clamped to the configured bounds.
+     */
+    public int plannedDurationSeconds(IrrigationRules rules, SubZoneState state, double moisturePercent) {
+        ResponseCurve curve = state.getResponseCurve();
+        Integer min = rules.optimalMoistureMin(state);
+        Integer max = rules.optimalMoistureMax(state);
+        double slope = curve.slope();
+        if (curve.getSamples() < minSamples || slope <= 0 || min == null || max == null) {
+            return state.getDefaultIrrigationDurationInSeconds();
+        }
+        double deficit = (min + max) / 2.0 - moisturePercent;
+        // the epsilon keeps rounding noise in the sums from adding a whole second
+        long seconds = (long) Math.ceil(deficit / slope - 1e-6);
+        return (int) Math.max(minDurationSeconds, Math.min(maxDurationSeconds, seconds));
+    }
+
+    /**
+     * Starts measuring an irrigation the controller was just told to run. An irrigation
+     * started before the previous one was measured discards the previous sample.
+     */
+    public void onIrrigationStarted(SubZoneState state, int durationSeconds, LocalDateTime start) {
+        Integer baseline = state.getLastMoisturePercent();
+        state.setResponseSample(baseline != null && durationSeconds > 0
+                ? new SubZoneState.ResponseSample(start, durationSeconds, baseline)
+                : null);
+    }
+
+    /**
+     * Ingest hook, runs in the caller's transaction. Writes only when a sample completes.
+     */
+    public void onReading(IrrigationRules rules, SubZoneState state, int moisturePercent, boolean raining,
+                          LocalDateTime at) {
+        state.setLastMoisturePercent(moisturePercent);
+        SubZoneState.ResponseSample sample = state.getResponseSample();
+        if (sample == null) {
+            return;
+        }
+        if (raining) {
+            sample.setRainSeen(true);
+        }
+        LocalDateTime soaked = sample.getStart().plusSeconds(rules.soakSeconds(state));
+        if (at.isBefore(soaked)) {
+            return;
+        }
+        state.setResponseSample(null);
+        // a late first reading (controller offline) says more about drying than about the irrigation
+        if (sample.isRainSeen() || at.isAfter(soaked.plusSeconds(sampleWindowSeconds))) {
+            return;
+        }
+        ResponseCurve curve = state.getResponseCurve().add(sample.getDurationSeconds(),
+                moisturePercent - sample.getBaselineMoisturePercent(), forgettingFactor);
+        state.setResponseCurve(curve);
+        subZoneRepo.updateResponseCurve(state.getSubZoneId(), curve.getSamples(),
+                curve.getSumDurationSq(), curve.getSumDurationDelta());
+    }
+}
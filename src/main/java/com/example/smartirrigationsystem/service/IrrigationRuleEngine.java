@@ -0,0 +1,44 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.entity.PlantType;
+import com.example.smartirrigationsystem.entity.SoilType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Holds the current {@link IrrigationRules}, rebuilt by {@link CatalogCache} whenever the
+ * plant or soil type catalog changes; ingest threads pick up the new rules on their next
+ * reading without any locking, and subzone states in the cache stay valid because they
+ * only reference types by id.
+ */
+@Component
+public class IrrigationRuleEngine {
+
+    private final WeatherForecastCache forecastCache;
+    private final long defaultSoakMinutes;
+    private final long forecastWindowMinutes;
+
+    private volatile IrrigationRules rules;
+
+    public IrrigationRuleEngine(WeatherForecastCache forecastCache,
+                                @Value("${irrigation.rules.default-soak-minutes:60}") long defaultSoakMinutes,
+                                @Value("${irrigation.rules.forecast-window-minutes:60}") long forecastWindowMinutes) {
+        this.forecastCache = forecastCache;
+        this.defaultSoakMinutes = defaultSoakMinutes;
+        this.forecastWindowMinutes = forecastWindowMinutes;
+        // no types known yet: nothing is irrigated until the catalog is loaded
+        this.rules = IrrigationRules.compile(Collections.emptyList(), Collections.emptyList(),
+                defaultSoakMinutes, forecastWindowMinutes, forecastCache);
+    }
+
+    public IrrigationRules current() {
+        return rules;
+    }
+
+    void rebuild(Collection<PlantType> plantTypes, Collection<SoilType> soilTypes) {
+        rules = IrrigationRules.compile(plantTypes, soilTypes, defaultSoakMinutes, forecastWindowMinutes, forecastCache);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.entity.PlantType;
+import com.example.smartirrigationsystem.entity.SoilType;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The adaptive-irrigation decision, compiled from the plant and soil type tables into flat
+ * arrays indexed by type id. Immutable: {@link IrrigationRuleEngine} builds a new instance
+ * when a type changes and swaps it in. Evaluating a reading allocates nothing unless every
+ * local rule already allows irrigation and the forecast of a zone with coordinates has to
+ * be consulted.
+ */
+public final class IrrigationRules {
+
+    public enum Decision {
+        IRRIGATE,
+        NO_PLANT_TYPE,
+        MOISTURE_OK,
+        RAINING,
+        IRRIGATION_ISSUE,
+        PENDING_REQUEST,
+        SOAKING,
+        RAIN_EXPECTED
+    }
+
+    private static final int NONE = -1;
+    private static final long PENDING_TTL_SECONDS = TimeUnit.DAYS.toSeconds(1);
+
+    // indexed by PlantType.id / SoilType.id, NONE where no such type exists
+    private final int[] minMoistureByPlant;
+    private final int[] maxMoistureByPlant;
+    private final long[] soakSecondsBySoil;
+    private final long defaultSoakSeconds;
+    private final long forecastWindowMinutes;
+    private final WeatherForecastCache forecastCache;
+
+    private IrrigationRules(int[] minMoistureByPlant, int[] maxMoistureByPlant, long[] soakSecondsBySoil, long defaultSoakSeconds,
+                            long forecastWindowMinutes, WeatherForecastCache forecastCache) {
+        this.minMoistureByPlant = minMoistureByPlant;
+        this.maxMoistureByPlant = maxMoistureByPlant;
+        this.soakSecondsBySoil = soakSecondsBySoil;
+        this.defaultSoakSeconds = defaultSoakSeconds;
+        this.forecastWindowMinutes = forecastWindowMinutes;
+        this.forecastCache = forecastCache;
+    }
+
+    /**
+     * @param defaultSoakMinutes    soak time for subzones without a soil type, or whose soil type has none
+     * @param forecastWindowMinutes how far ahead forecast rain blocks an irrigation; 0 disables the forecast rule
+     * @param forecastCache         may be null when forecastWindowMinutes is 0
+     */
+    public static IrrigationRules compile(Collection<PlantType> plantTypes, Collection<SoilType> soilTypes,
+                                          long defaultSoakMinutes, long forecastWindowMinutes,
+                                          WeatherForecastCache forecastCache) {
+        int maxPlantId = 0;
+        for (PlantType plant : plantTypes) {
+            maxPlantId = Math.max(maxPlantId, plant.getId());
+        }
+        int[] minMoisture = new int[maxPlantId + 1];
+        int[] maxMoisture = new int[maxPlantId + 1];
+        Arrays.fill(minMoisture, NONE);
+        Arrays.fill(maxMoisture, NONE);
+        for (PlantType plant : plantTypes) {
+            if (plant.getOptimalMoistureMin() != null) {
+                minMoisture[plant.getId()] = plant.getOptimalMoistureMin();
+            }
+            if (plant.getOptimalMoistureMax() != null) {
+                maxMoisture[plant.getId()] = plant.getOptimalMoistureMax();
+            }
+        }
+        long defaultSoakSeconds = TimeUnit.MINUTES.toSeconds(defaultSoakMinutes);
+        int maxSoilId = 0;
+        for (SoilType soil : soilTypes) {
+            maxSoilId = Math.max(maxSoilId, soil.getId());
+        }
+        long[] soakSeconds = new long[maxSoilId + 1];
+        Arrays.fill(soakSeconds, NONE);
+        for (SoilType soil : soilTypes) {
+            Integer minutes = soil.getWaitingTimeBeforeMoistureCheckInMinutes();
+            soakSeconds[soil.getId()] = minutes != null ? TimeUnit.MINUTES.toSeconds(minutes) : defaultSoakSeconds;
+        }
+        return new IrrigationRules(minMoisture, maxMoisture, soakSeconds, defaultSoakSeconds, forecastWindowMinutes, forecastCache);
+    }
+
+    /**
+     * Rules in the order of the old inline checks, cheapest and most often failing first.
+     */
+    public Decision evaluate(SubZoneState state, double moisturePercent, boolean raining, LocalDateTime now,
+                             SubZoneStateCache.ControllerState controller) {
+        int min = lookup(minMoistureByPlant, state.getPlantTypeId());
+        if (min == NONE) {
+            return Decision.NO_PLANT_TYPE;
+        }
+        if (moisturePercent >= min) {
+            return Decision.MOISTURE_OK;
+        }
+        if (raining) {
+            return Decision.RAINING;
+        }
+        if (state.isIrrigationIssue()) {
+            return Decision.IRRIGATION_ISSUE;
+        }
+        long nowSeconds = now.toEpochSecond(ZoneOffset.UTC);
+        LocalDateTime pendingRequestedAt = state.getPendingRequestedAt();
+        if (pendingRequestedAt != null
+                && pendingRequestedAt.toEpochSecond(ZoneOffset.UTC) > nowSeconds - PENDING_TTL_SECONDS) {
+            return Decision.PENDING_REQUEST;
+        }
+        LocalDateTime lastIrrigationStart = state.getLastIrrigationStart();
+        if (lastIrrigationStart != null
+                && lastIrrigationStart.toEpochSecond(ZoneOffset.UTC) > nowSeconds - soakSeconds(state)) {
+            return Decision.SOAKING;
+        }
+        Double latitude = controller.getLatitude();
+        Double longitude = controller.getLongitude();
+        if (forecastWindowMinutes > 0 && latitude != null && longitude != null
+                && forecastCache.precipitationExpected(latitude, longitude, now, now.plusMinutes(forecastWindowMinutes))) {
+            return Decision.RAIN_EXPECTED;
+        }
+        return Decision.IRRIGATE;
+    }
+
+    /**
+     * Lower moisture threshold of the subzone's plant type, null if it has none.
+     */
+    public Integer optimalMoistureMin(SubZoneState state) {
+        int min = lookup(minMoistureByPlant, state.getPlantTypeId());
+        return min == NONE ? null : min;
+    }
+
+    /**
+     * Upper moisture threshold of the subzone's plant type, null if it has none.
+     */
+    public Integer optimalMoistureMax(SubZoneState state) {
+        int max = lookup(maxMoistureByPlant, state.getPlantTypeId());
+        return max == NONE ? null : max;
+    }
+
+    /**
+     * How long moisture readings can't trigger an irrigation after the last one started.
+     */
+    public long soakSeconds(SubZoneState state) {
+        long soak = lookup(soakSecondsBySoil, state.getSoilTypeId());
+        return soak == NONE ? defaultSoakSeconds : soak;
+    }
+
+    private static int lookup(int[] table, int id) {
+        return id > 0 && id < table.length ? table[id] : NONE;
+    }
+
+    private static long lookup(long[] table, int id) {
+        return id > 0 && id < table.length ? table[id] : NONE;
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.dto.PlannedIrrigationResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Staggers the irrigations of one controller poll so that the valves open at the same
+ * time never draw more than the zone's flow capacity. Greedy list scheduling: the driest
+ * subzone goes first, and each next one starts as soon as enough running valves have
+ * closed, found with a heap of end times. The heap starts with the valves earlier polls
+ * left running or scheduled (kept in the controller state), so consecutive polls don't
+ * overlap. O(n log n) for n valves, so it runs inline in the poll. Zones without a flow
+ * capacity are left as they are: all valves open at once.
+ */
+@Component
+public class IrrigationScheduler {
+
+    /**
+     * One valve to open: its plan (whose start offset gets set), its flow and how far the
+     * soil is below the target moisture.
+     */
+    public static final class Job {
+        final PlannedIrrigationResponse.SubZonePlan plan;
+        final double flow;
+        final double deficit;
+
+        public Job(PlannedIrrigationResponse.SubZonePlan plan, double flow, double deficit) {
+            this.plan = plan;
+            this.flow = flow;
+            this.deficit = deficit;
+        }
+    }
+
+    static final class Running {
+        final long end;
+        final double flow;
+
+        Running(long end, double flow) {
+            this.end = end;
+            this.flow = flow;
+        }
+    }
+
+    private final double defaultValveFlow;
+
+    public IrrigationScheduler(@Value("${irrigation.schedule.default-valve-flow-lpm:10}") double defaultValveFlow) {
+        this.defaultValveFlow = defaultValveFlow;
+    }
+
+    /**
+     * Staggers the plans of one poll; {@code states} and {@code plans} are parallel lists.
+     * Subzones with nothing to irrigate keep offset 0. Records when each planned valve closes
+     * in the controller state, for the next polls.
+     */
+    public void stagger(SubZoneStateCache.ControllerState controller, List<SubZoneState> states,
+                        List<PlannedIrrigationResponse.SubZonePlan> plans, IrrigationRules rules, LocalDateTime now) {
+        Map<Integer, LocalDateTime> valveEnds = controller.getValveEndsByIndex();
+        valveEnds.values().removeIf(end -> !end.isAfter(now));
+
+        Double capacity = controller.getFlowCapacityLitersPerMinute();
+        if (capacity != null && capacity > 0) {
+            List<Job> jobs = new ArrayList<>();
+            Set<Integer> planned = new HashSet<>();
+            for (int i = 0; i < plans.size(); i++) {
+                PlannedIrrigationResponse.SubZonePlan plan = plans.get(i);
+                if (plan.getPlannedIrrigationDurationInSeconds() <= 0) {
+                    continue;
+                }
+                SubZoneState state = states.get(i);
+                jobs.add(new Job(plan, flow(state), deficit(rules, state)));
+                planned.add(plan.getSubzoneIndex());
+            }
+            // a valve planned again gets the new plan instead of the old one; a valve scheduled
+            // for later counts as open from now on, which is safe but may start others later than needed
+            List<Running> open = new ArrayList<>();
+            valveEnds.forEach((index, end) -> {
+                if (!planned.contains(index)) {
+                    open.add(new Running(Duration.between(now, end).getSeconds(),
+                            flow(controller.getSubZonesByIndex().get(index))));
+                }
+            });
+            if (jobs.size() > 1 || !jobs.isEmpty() && !open.isEmpty()) {
+                schedule(jobs, capacity, open);
+            }
+        }
+
+        for (PlannedIrrigationResponse.SubZonePlan plan : plans) {
+            if (plan.getPlannedIrrigationDurationInSeconds() > 0) {
+                valveEnds.put(plan.getSubzoneIndex(), now.plusSeconds(
+                        plan.getStartOffsetInSeconds() + plan.getPlannedIrrigationDurationInSeconds()));
+            }
+        }
+    }
+
+    // a subzone deleted meanwhile draws the default flow
+    private double flow(SubZoneState state) {
+        Double flow = state != null ? state.getValveFlowLitersPerMinute() : null;
+        return flow != null ? flow : defaultValveFlow;
+    }
+
+    // distance of the last reading below the middle of the plant's range; unknown counts as none
+    private static double deficit(IrrigationRules rules, SubZoneState state) {
+        Integer min = rules.optimalMoistureMin(state);
+        Integer max = rules.optimalMoistureMax(state);
+        Integer moisture = state.getLastMoisturePercent();
+        if (min == null || max == null || moisture == null) {
+            return 0;
+        }
+        return Math.max(0, (min + max) / 2.0 - moisture);
+    }
+
+    /**
+     * Sets startOffsetInSeconds on every job's plan. A valve that alone draws more than the
+     * capacity runs by itself.
+     */
+    public static void schedule(List<Job> jobs, double capacity) {
+        schedule(jobs, capacity, List.of());
+    }
+
+    /**
+     * Same, around valves that are already open; their ends are offsets from the start of this poll.
+     */
+    static void schedule(List<Job> jobs, double capacity, List<Running> open) {
+        List<Job> ordered = new ArrayList<>(jobs);
+        // driest first; ties by subzone index, so the same input always yields the same schedule
+        ordered.sort((a, b) -> a.deficit != b.deficit
+                ? Double.compare(b.deficit, a.deficit)
+                : Integer.compare(a.plan.getSubzoneIndex(), b.plan.getSubzoneIndex()));
+
+        PriorityQueue<Running> running = new PriorityQueue<>(Math.max(1, ordered.size() + open.size()),
+                (a, b) -> Long.compare(a.end, b.end));
+        long now = 0;
+        double available = capacity;
+        for (Running valve : open) {
+            double flow = Math.min(valve.flow, capacity);
+            running.add(new Running(valve.end, flow));
+            available -= flow;
+        }
+        for (Job job : ordered) {
+            double flow = Math.min(job.flow, capacity);
+            // tolerance, so that e.g. ten 0.1 flows fit a capacity of 1.0
+            while (flow > available + 1e-9 && !running.isEmpty()) {
+                Running done = running.poll();
+                now = done.end;
+                available += done.flow;
+                // valves closing at the same second free their flow together
+                while (!running.isEmpty() && running.peek().end == now) {
+                    available += running.poll().flow;
+                }
+            }
+            if (running.isEmpty()) {
+                // drop the rounding drift of the additions above
+                available = capacity;
+            }
+            job.plan.setStartOffsetInSeconds((int) now);
+            available -= flow;
+            running.add(new Running(now + job.plan.getPlannedIrrigationDurationInSeconds(), flow));
+        }
+    }
+}
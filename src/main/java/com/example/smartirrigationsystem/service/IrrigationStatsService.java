@@ -0,0 +1,198 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.dto.IrrigationRunTotals;
+import com.example.smartirrigationsystem.dto.IrrigationStatsDto;
+import com.example.smartirrigationsystem.entity.TriggeredBy;
+import com.example.smartirrigationsystem.repository.IrrigationHistoryRepository;
+import com.example.smartirrigationsystem.repository.ZoneRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Irrigation history analytics. The database returns one GROUP BY row per subzone, day and
+ * trigger (or per subzone and trigger for all zones), so a report never reads history rows into
+ * the application; weeks, zones and average intervals are folded from those rows here.
+ */
+@Service
+@RequiredArgsConstructor
+public class IrrigationStatsService {
+
+    public static final int DEFAULT_RANGE_DAYS = 30;
+    public static final int MAX_RANGE_DAYS = 366;
+
+    private final IrrigationHistoryRepository historyRepo;
+    private final ZoneRepository zoneRepo;
+
+    enum Granularity {
+        DAY, WEEK;
+
+        static Granularity fromParam(String value) {
+            for (Granularity granularity : values()) {
+                if (granularity.name().equalsIgnoreCase(value)) {
+                    return granularity;
+                }
+            }
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown bucket '" + value + "', use day or week");
+        }
+
+        LocalDate bucketStart(LocalDate day) {
+            return this == DAY ? day : day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+    }
+
+    // first and last start of one subzone's runs, for the average interval
+    private static final class Span {
+        LocalDateTime first;
+        LocalDateTime last;
+        long runs;
+    }
+
+    private static final class Accumulator {
+        long runs;
+        long waterSeconds;
+        final Map<TriggeredBy, Long> runsByTrigger = new EnumMap<>(TriggeredBy.class);
+        final Map<Integer, Span> spans = new HashMap<>();
+
+        void add(IrrigationRunTotals row) {
+            runs += row.getRuns();
+            waterSeconds += row.getWaterSeconds();
+            runsByTrigger.merge(row.getTriggeredBy(), row.getRuns(), Long::sum);
+            Span span = spans.computeIfAbsent(row.getSubZoneId(), id -> new Span());
+            if (span.first == null || row.getFirstStart().isBefore(span.first)) {
+                span.first = row.getFirstStart();
+            }
+            if (span.last == null || row.getLastStart().isAfter(span.last)) {
+                span.last = row.getLastStart();
+            }
+            span.runs += row.getRuns();
+        }
+
+        IrrigationStatsDto.Totals totals() {
+            Map<TriggeredBy, Long> byTrigger = new EnumMap<>(TriggeredBy.class);
+            for (TriggeredBy triggeredBy : TriggeredBy.values()) {
+                byTrigger.put(triggeredBy, runsByTrigger.getOrDefault(triggeredBy, 0L));
+            }
+            // n runs of a subzone leave n - 1 gaps that add up to last - first
+            long spanSeconds = 0;
+            long gaps = 0;
+            for (Span span : spans.values()) {
+                if (span.runs > 1) {
+                    spanSeconds += Duration.between(span.first, span.last).toSeconds();
+                    gaps += span.runs - 1;
+                }
+            }
+            Long averageInterval = gaps == 0 ? null : Math.round((double) spanSeconds / gaps);
+            return new IrrigationStatsDto.Totals(runs, waterSeconds, byTrigger, averageInterval);
+        }
+    }
+
+    private static final class SubZoneAccumulator {
+        final Integer subzoneIndex;
+        final Accumulator totals = new Accumulator();
+        final Map<LocalDate, Accumulator> buckets = new TreeMap<>();
+
+        SubZoneAccumulator(Integer subzoneIndex) {
+            this.subzoneIndex = subzoneIndex;
+        }
+    }
+
+    /**
+     * Totals of one zone and its subzones in [from, to), per day or per ISO week.
+     */
+    @Transactional(readOnly = true)
+    public IrrigationStatsDto getZoneStats(Integer zoneId, LocalDateTime from, LocalDateTime to, String bucket) {
+        Granularity granularity = Granularity.fromParam(bucket);
+        if (zoneRepo.findById(zoneId).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Zone not found with id " + zoneId);
+        }
+        LocalDateTime end = resolveTo(to);
+        LocalDateTime start = resolveFrom(from, end);
+
+        Accumulator zone = new Accumulator();
+        Map<LocalDate, Accumulator> zoneBuckets = new TreeMap<>();
+        Map<Integer, SubZoneAccumulator> subZones = new HashMap<>();
+        for (IrrigationRunTotals row : historyRepo.findDailyTotalsByZone(zoneId, start, end)) {
+            LocalDate bucketStart = granularity.bucketStart(row.getDay());
+            SubZoneAccumulator subZone = subZones.computeIfAbsent(row.getSubZoneId(),
+                    id -> new SubZoneAccumulator(row.getSubzoneIndex()));
+            zone.add(row);
+            zoneBuckets.computeIfAbsent(bucketStart, d -> new Accumulator()).add(row);
+            subZone.totals.add(row);
+            subZone.buckets.computeIfAbsent(bucketStart, d -> new Accumulator()).add(row);
+        }
+
+        List<IrrigationStatsDto.SubZoneStats> subZoneStats = new ArrayList<>(subZones.size());
+        subZones.forEach((subZoneId, acc) -> subZoneStats.add(new IrrigationStatsDto.SubZoneStats(
+                subZoneId, acc.subzoneIndex, acc.totals.totals(), buckets(acc.buckets))));
+        subZoneStats.sort(Comparator.comparing(IrrigationStatsDto.SubZoneStats::getSubzoneIndex));
+        return new IrrigationStatsDto(zoneId, start, end, zone.totals(), buckets(zoneBuckets), subZoneStats);
+    }
+
+    /**
+     * Totals of every zone and subzone with runs in [from, to), ordered by zone id.
+     */
+    @Transactional(readOnly = true)
+    public List<IrrigationStatsDto> getAllZoneStats(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime end = resolveTo(to);
+        LocalDateTime start = resolveFrom(from, end);
+
+        Map<Integer, Accumulator> zones = new TreeMap<>();
+        Map<Integer, Map<Integer, SubZoneAccumulator>> subZonesByZone = new HashMap<>();
+        for (IrrigationRunTotals row : historyRepo.findTotals(start, end)) {
+            zones.computeIfAbsent(row.getZoneId(), id -> new Accumulator()).add(row);
+            subZonesByZone.computeIfAbsent(row.getZoneId(), id -> new HashMap<>())
+                    .computeIfAbsent(row.getSubZoneId(), id -> new SubZoneAccumulator(row.getSubzoneIndex()))
+                    .totals.add(row);
+        }
+
+        List<IrrigationStatsDto> result = new ArrayList<>(zones.size());
+        zones.forEach((zoneId, zone) -> {
+            List<IrrigationStatsDto.SubZoneStats> subZoneStats = new ArrayList<>();
+            subZonesByZone.get(zoneId).forEach((subZoneId, acc) -> subZoneStats.add(
+                    new IrrigationStatsDto.SubZoneStats(subZoneId, acc.subzoneIndex, acc.totals.totals(), null)));
+            subZoneStats.sort(Comparator.comparing(IrrigationStatsDto.SubZoneStats::getSubzoneIndex));
+            result.add(new IrrigationStatsDto(zoneId, start, end, zone.totals(), null, subZoneStats));
+        });
+        return result;
+    }
+
+    private static List<IrrigationStatsDto.Bucket> buckets(Map<LocalDate, Accumulator> byStart) {
+        List<IrrigationStatsDto.Bucket> buckets = new ArrayList<>(byStart.size());
+        byStart.forEach((start, acc) -> buckets.add(new IrrigationStatsDto.Bucket(start, acc.totals())));
+        return buckets;
+    }
+
+    // default: up to the end of today (Kyiv time, like the stored start times)
+    private static LocalDateTime resolveTo(LocalDateTime to) {
+        return to != null ? to : LocalDate.now(ZoneId.of("Europe/Kyiv")).plusDays(1).atStartOfDay();
+    }
+
+    private static LocalDateTime resolveFrom(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = from != null ? from : to.minusDays(DEFAULT_RANGE_DAYS);
+        if (!start.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'");
+        }
+        if (start.plusDays(MAX_RANGE_DAYS).isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_RANGE_DAYS + " days per report");
+        }
+        return start;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.smartirrigationsystem.service;
+
+import lombok.Getter;
+
+/**
+ * How much the soil moisture of one subzone rises per second of irrigation, as a
+ * least-squares line through the origin over past (duration, moisture delta) samples.
+ * Only the two running sums are kept, each decayed by a forgetting factor before a new
+ * sample is added, so the fit follows slow changes (roots, mulch, clogged emitters)
+ * without ever rereading the history. Immutable, so it can be swapped in one write.
+ */
+@Getter
+public final class ResponseCurve {
+
+    public static final ResponseCurve EMPTY = new ResponseCurve(0, 0, 0);
+
+    private final int samples;
+    // Σ duration², Σ duration·delta
+    private final double sumDurationSq;
+    private final double sumDurationDelta;
+
+    public ResponseCurve(int samples, double sumDurationSq, double sumDurationDelta) {
+        this.samples = samples;
+        this.sumDurationSq = sumDurationSq;
+        this.sumDurationDelta = sumDurationDelta;
+    }
+
+    public ResponseCurve add(int durationSeconds, double moistureDelta, double forgettingFactor) {
+        return new ResponseCurve(samples + 1,
+                forgettingFactor * sumDurationSq + (double) durationSeconds * durationSeconds,
+                forgettingFactor * sumDurationDelta + durationSeconds * moistureDelta);
+    }
+
+    /**
+     * Moisture percentage points gained per second of irrigation; 0 without samples.
+     */
+    public double slope() {
+        return sumDurationSq > 0 ? sumDurationDelta / sumDurationSq : 0;
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.dto.SensorReading;
+import com.example.smartirrigationsystem.repository.SensorReadingStore;
+import com.example.smartirrigationsystem.repository.SoilMoistureRollupRepository;
+import com.example.smartirrigationsystem.repository.SubZoneLastReadingRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-memory queue between POST /api/zones/readings and the database.
+ * Controllers only enqueue; a single background writer drains readings from all
+ * controllers and hands them to the {@link SensorReadingStore} once either
+ * {@code flushSize} readings are buffered or {@code flushIntervalMs} has elapsed.
+ * The same batch also updates the soil-moisture rollups used by the charts and
+ * the last reading of each subzone shown in the zone summary, in one transaction
+ * with the readings (file-backed readings are appended last, once the database
+ * writes have succeeded). A batch that fails is kept and retried with doubling
+ * backoff; meanwhile the queue fills up and posts get 503 through {@link #hasRoomFor}.
+ * After {@code maxWriteAttempts} the batch is written in halves to isolate the
+ * readings that can't be written, and only those are dropped and counted.
+ */
+@Slf4j
+@Component
+public class SensorIngestQueue {
+
+    private static final long MAX_RETRY_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final SensorReadingStore readingStore;
+    private final SoilMoistureRollupRepository rollupRepository;
+    private final SubZoneLastReadingRepository lastReadingRepository;
+    private final TransactionTemplate writeTransaction;
+    private final BlockingQueue<SensorReading> queue;
+    private final int flushSize;
+    private final long flushIntervalNanos;
+    private final int maxWriteAttempts;
+    private final AtomicLong droppedReadings = new AtomicLong();
+
+    // writer thread only: failed attempts of the batch it holds, and when to try it again
+    private int failedAttempts;
+    private long retryAtNanos;
+    private volatile int pendingReadings;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public SensorIngestQueue(SensorReadingStore readingStore,
+                             SoilMoistureRollupRepository rollupRepository,
+                             SubZoneLastReadingRepository lastReadingRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${irrigation.ingest.queue-capacity:50000}") int capacity,
+                             @Value("${irrigation.ingest.flush-size:500}") int flushSize,
+                             @Value("${irrigation.ingest.flush-interval-ms:1000}") long flushIntervalMs,
+                             @Value("${irrigation.ingest.max-write-attempts:5}") int maxWriteAttempts) {
+        this.readingStore = readingStore;
+        this.rollupRepository = rollupRepository;
+        this.lastReadingRepository = lastReadingRepository;
+        // a transaction of its own: the synchronous path runs from the ingest's afterCommit callback
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.flushSize = flushSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.maxWriteAttempts = maxWriteAttempts;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writer = new Thread(this::runWriter, "sensor-ingest-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) * 5);
+    }
+
+    /**
+     * Cheap admission check done before any database work, so a saturated writer
+     * turns into 503 responses instead of an ever-growing backlog.
+     */
+    public boolean hasRoomFor(int readingCount) {
+        return queue.remainingCapacity() >= readingCount;
+    }
+
+    /**
+     * Hands readings to the writer once the surrounding transaction commits, so the
+     * writer never sees subzone ids that are not visible yet (or were rolled back).
+     */
+    public void enqueueAfterCommit(List<SensorReading> readings) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(readings);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(readings);
+            }
+        });
+    }
+
+    private void enqueue(List<SensorReading> readings) {
+        if (!offerAll(readings)) {
+            // lost the race for the last free slots: write on the caller's thread rather than drop data
+            write(readings);
+        }
+    }
+
+    /**
+     * Enqueues all readings of one controller post, or none of them.
+     */
+    private synchronized boolean offerAll(List<SensorReading> readings) {
+        // producers are serialized here and the writer only removes, so the check stays valid
+        if (queue.remainingCapacity() < readings.size()) {
+            return false;
+        }
+        queue.addAll(readings);
+        return true;
+    }
+
+    private void write(List<SensorReading> readings) {
+        writeTransaction.executeWithoutResult(status -> {
+            rollupRepository.addAll(readings);
+            lastReadingRepository.updateAll(readings);
+            readingStore.appendAll(readings);
+        });
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    // readings of a failed batch waiting for their next attempt
+    public int pendingRetry() {
+        return pendingReadings;
+    }
+
+    // readings given up on since start-up
+    public long droppedReadings() {
+        return droppedReadings.get();
+    }
+
+    private void runWriter() {
+        List<SensorReading> batch = new ArrayList<>(flushSize);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (failedAttempts > 0) {
+                    // hold the failed batch and take nothing new; the queue filling up is the back-pressure
+                    long waitNanos = retryAtNanos - System.nanoTime();
+                    if (waitNanos > 0) {
+                        TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    }
+                } else {
+                    long waitNanos = deadline - System.nanoTime();
+                    SensorReading first = waitNanos > 0 ? queue.poll(waitNanos, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (first != null) {
+                        batch.add(first);
+                        queue.drainTo(batch, flushSize - batch.size());
+                    }
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            long now = System.nanoTime();
+            if (failedAttempts > 0 ? now - retryAtNanos >= 0 : batch.size() >= flushSize || now - deadline >= 0) {
+                flush(batch);
+                deadline = System.nanoTime() + flushIntervalNanos;
+            }
+        }
+    }
+
+    /**
+     * Writes the batch and clears it, or keeps it for a retry after a doubling backoff
+     * (flushIntervalMs, 2x, 4x... at most 30 s).
+     */
+    void flush(List<SensorReading> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            write(batch);
+        } catch (RuntimeException e) {
+            failedAttempts++;
+            if (failedAttempts < maxWriteAttempts) {
+                long backoffNanos = Math.min(flushIntervalNanos << Math.min(failedAttempts - 1, 20),
+                        MAX_RETRY_BACKOFF_NANOS);
+                retryAtNanos = System.nanoTime() + backoffNanos;
+                pendingReadings = batch.size();
+                log.warn("Failed to write {} sensor readings (attempt {} of {}), retrying in {} ms", batch.size(),
+                        failedAttempts, maxWriteAttempts, TimeUnit.NANOSECONDS.toMillis(backoffNanos), e);
+                return;
+            }
+            log.error("Failed to write {} sensor readings {} times, isolating the failing ones", batch.size(),
+                    failedAttempts, e);
+            writeIsolating(batch);
+        }
+        failedAttempts = 0;
+        pendingReadings = 0;
+        batch.clear();
+    }
+
+    // halves the readings until the ones that fail on their own are found; only those are dropped
+    private void writeIsolating(List<SensorReading> readings) {
+        try {
+            write(readings);
+        } catch (RuntimeException e) {
+            if (readings.size() == 1) {
+                droppedReadings.incrementAndGet();
+                log.error("Dropping sensor reading {}", readings.get(0), e);
+                return;
+            }
+            int half = readings.size() / 2;
+            writeIsolating(readings.subList(0, half));
+            writeIsolating(readings.subList(half, readings.size()));
+        }
+    }
+}
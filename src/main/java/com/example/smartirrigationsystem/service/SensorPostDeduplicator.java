@@ -0,0 +1,119 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.dto.PlannedIrrigationResponse;
+import com.example.smartirrigationsystem.dto.SensorDataRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Answers controller retries from memory. A controller that sends a sequenceNumber gets
+ * the plan of its last few posts remembered in a small ring buffer; a post whose number is
+ * still in the ring is answered with the stored plan and doesn't ingest anything again.
+ * Posts without a number are always processed. Not persisted: a retry that arrives after
+ * a restart is processed once more.
+ */
+@Component
+public class SensorPostDeduplicator {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    // one per controller; all access synchronized on the instance, contended only by the controller itself
+    private static final class Window {
+        final long[] sequenceNumbers;
+        // null while the post in that slot is being processed
+        final PlannedIrrigationResponse[] responses;
+        // oldest slot, overwritten by the next new post
+        int next;
+
+        Window(int size) {
+            sequenceNumbers = new long[size];
+            responses = new PlannedIrrigationResponse[size];
+            Arrays.fill(sequenceNumbers, EMPTY);
+        }
+
+        int indexOf(long sequenceNumber) {
+            for (int i = 0; i < sequenceNumbers.length; i++) {
+                if (sequenceNumbers[i] == sequenceNumber) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final int windowSize;
+
+    public SensorPostDeduplicator(@Value("${irrigation.dedupe.window-size:16}") int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Runs {@code ingest} unless the post is a retry of one still in the window. A retry of
+     * a post that is still being processed gets 409, so it retries again once the first
+     * attempt has committed. If {@code ingest} fails the number is released.
+     */
+    public PlannedIrrigationResponse handle(SensorDataRequest req, Supplier<PlannedIrrigationResponse> ingest) {
+        Long sequenceNumber = req.getSequenceNumber();
+        if (sequenceNumber == null || windowSize <= 0) {
+            return ingest.get();
+        }
+        Window window = windows.computeIfAbsent(req.getControllerUid(), uid -> new Window(windowSize));
+        int slot;
+        synchronized (window) {
+            int index = window.indexOf(sequenceNumber);
+            if (index >= 0) {
+                if (window.responses[index] == null) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT,
+                            "Post " + sequenceNumber + " is still being processed, retry later");
+                }
+                return window.responses[index];
+            }
+            slot = window.next;
+            window.next = (slot + 1) % windowSize;
+            window.sequenceNumbers[slot] = sequenceNumber;
+            window.responses[slot] = null;
+        }
+        PlannedIrrigationResponse response = null;
+        try {
+            response = ingest.get();
+            return response;
+        } finally {
+            synchronized (window) {
+                // the slot may have been reused by a newer post meanwhile; then there's nothing to do
+                if (window.sequenceNumbers[slot] == sequenceNumber) {
+                    if (response != null) {
+                        window.responses[slot] = response;
+                    } else {
+                        window.sequenceNumbers[slot] = EMPTY;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The stored plan of a post still in the window, or null; never ingests.
+     */
+    public PlannedIrrigationResponse stored(String controllerUid, long sequenceNumber) {
+        Window window = windows.get(controllerUid);
+        if (window == null) {
+            return null;
+        }
+        synchronized (window) {
+            int index = window.indexOf(sequenceNumber);
+            return index >= 0 ? window.responses[index] : null;
+        }
+    }
+
+    public void forget(String controllerUid) {
+        windows.remove(controllerUid);
+    }
+}
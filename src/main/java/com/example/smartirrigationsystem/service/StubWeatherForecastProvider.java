@@ -0,0 +1,39 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.dto.ForecastPoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Same forecast everywhere: {@code irrigation.weather.stub.precipitation-mm} per hour for the
+ * next 24 hours. With the default of 0 the irrigation decision behaves as without forecasts.
+ */
+@Component
+@ConditionalOnProperty(name = "irrigation.weather.provider", havingValue = "stub", matchIfMissing = true)
+public class StubWeatherForecastProvider implements WeatherForecastProvider {
+
+    private static final int HOURS = 24;
+
+    private final double precipitationMm;
+
+    public StubWeatherForecastProvider(@Value("${irrigation.weather.stub.precipitation-mm:0}") double precipitationMm) {
+        this.precipitationMm = precipitationMm;
+    }
+
+    @Override
+    public List<ForecastPoint> fetch(double latitude, double longitude) {
+        LocalDateTime hour = LocalDateTime.now(ZoneId.of("Europe/Kyiv")).truncatedTo(ChronoUnit.HOURS);
+        List<ForecastPoint> points = new ArrayList<>(HOURS);
+        for (int i = 0; i < HOURS; i++) {
+            points.add(new ForecastPoint(hour.plusHours(i), null, null, precipitationMm));
+        }
+        return points;
+    }
+}
@@ -3,12 +3,15 @@ package com.example.smartirrigationsystem.service;
 
 import com.example.smartirrigationsystem.entity.ManualIrrigationRequest;
 import com.example.smartirrigationsystem.entity.SubZone;
-import com.example.smartirrigationsystem.entity.SoilMoistureReading;
+import com.example.smartirrigationsystem.dto.NextMoistureCheckDto;
 import com.example.smartirrigationsystem.dto.SoilMoistureReadingDto;
+import com.example.smartirrigationsystem.entity.ReadingResolution;
 import com.example.smartirrigationsystem.entity.TriggeredBy;
+import com.example.smartirrigationsystem.repository.IrrigationHistoryRepository;
 import com.example.smartirrigationsystem.repository.ManualIrrigationRequestRepository;
 import com.example.smartirrigationsystem.repository.SubZoneRepository;
-import com.example.smartirrigationsystem.repository.SoilMoistureReadingRepository;
+import com.example.smartirrigationsystem.repository.SensorReadingStore;
+import com.example.smartirrigationsystem.repository.SoilMoistureRollupRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,37 +21,121 @@ import org.springframework.http.HttpStatus;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class SubZoneService {
 
+    public static final int DEFAULT_PAGE_SIZE = 1_000;
+    public static final int MAX_PAGE_SIZE = 10_000;
+
     private final SubZoneRepository subzoneRepo;
-    private final SoilMoistureReadingRepository moistureRepo;
+    private final SensorReadingStore readingStore;
+    private final SoilMoistureRollupRepository rollupRepository;
     private final ManualIrrigationRequestRepository irrigationRequestRepository;
+    private final IrrigationHistoryRepository irrigationHistoryRepository;
+    private final SubZoneStateCache stateCache;
+    private final ZoneHealthService healthService;
+    private final IrrigationRuleEngine ruleEngine;
 
     /**
-     * Fetches the soil‐moisture readings for a given subzone,
-     * verifying that it exists and belongs to the expected zone.
+     * Fetches the soil‐moisture readings for a given subzone within [from, to)
+     * (null bounds are open), verifying that it exists. Anything coarser than
+     * raw is served from the pre-aggregated rollups.
      */
     @Transactional(readOnly = true)
-    public List<SoilMoistureReadingDto> getSoilReadingsForSubzone(Integer subzoneId) {
-        // 1) Load the SubZone and verify its parent Zone ID
-        SubZone sz = subzoneRepo.findById(subzoneId)
-                .orElseThrow(() ->
-                        new ResponseStatusException(HttpStatus.NOT_FOUND,
-                                "Subzone not found with ID: " + subzoneId)
-                );
+    public List<SoilMoistureReadingDto> getSoilReadingsForSubzone(Integer subzoneId, LocalDateTime from,
+                                                                  LocalDateTime to, ReadingResolution resolution) {
+        // 1) Verify the SubZone exists and the range makes sense
+        if (!subzoneRepo.existsById(subzoneId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Subzone not found with ID: " + subzoneId);
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'");
+        }
 
-        // 2) Fetch readings ordered by recordedAt
-        List<SoilMoistureReading> readings =
-                moistureRepo.findBySubZoneOrderByRecordedAtAsc(sz);
+        // 2) Raw readings ordered by recordedAt, or one point per bucket
+        if (resolution == ReadingResolution.RAW) {
+            return readingStore.findSoilReadings(subzoneId, from, to);
+        }
+        return rollupRepository.findRange(subzoneId, resolution, from, to);
+    }
 
-        // 3) Map to DTOs
-        return readings.stream()
-                .map(r -> new SoilMoistureReadingDto(r.getRecordedAt(), r.getMoisturePercent()))
-                .collect(Collectors.toList());
+    /**
+     * Keyset page of raw soil readings with {@code after < recordedAt < to}, oldest first.
+     * Pass the last recordedAt of a page as the next {@code after}.
+     */
+    @Transactional(readOnly = true)
+    public List<SoilMoistureReadingDto> getSoilReadingsPage(Integer subzoneId, LocalDateTime after,
+                                                            LocalDateTime to, int limit) {
+        if (!subzoneRepo.existsById(subzoneId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Subzone not found with ID: " + subzoneId);
+        }
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'limit' must be positive");
+        }
+        return nextPage(subzoneId, after, to, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Walks the raw soil readings after {@code after} (and before {@code to}) page by page,
+     * so an export holds one page in memory however long the history is.
+     * Doesn't check that the subzone exists; callers do that before they start streaming.
+     */
+    public void forEachSoilReadingPage(Integer subzoneId, LocalDateTime after, LocalDateTime to,
+                                       Consumer<List<SoilMoistureReadingDto>> consumer) {
+        LocalDateTime cursor = after;
+        while (true) {
+            List<SoilMoistureReadingDto> page = nextPage(subzoneId, cursor, to, DEFAULT_PAGE_SIZE);
+            if (page.isEmpty()) {
+                return;
+            }
+            consumer.accept(page);
+            cursor = page.get(page.size() - 1).getRecordedAt();
+        }
+    }
+
+    // a full page never ends inside a group of readings sharing one timestamp,
+    // otherwise continuing "after" that timestamp would skip the rest of the group
+    private List<SoilMoistureReadingDto> nextPage(Integer subzoneId, LocalDateTime after, LocalDateTime to, int limit) {
+        List<SoilMoistureReadingDto> page = readingStore.findSoilReadingsAfter(subzoneId, after, to, limit);
+        if (page.size() < limit) {
+            return page;
+        }
+        LocalDateTime last = page.get(page.size() - 1).getRecordedAt();
+        int end = page.size();
+        while (end > 0 && page.get(end - 1).getRecordedAt().equals(last)) {
+            end--;
+        }
+        // a whole page with one timestamp can't be split; return it as is
+        return end > 0 ? page.subList(0, end) : page;
+    }
+
+    /**
+     * End of the soak window after the last irrigation, from the same state and rules the
+     * ingest decision uses. Subzones of controllers that haven't posted since startup are
+     * read from the database (backfilling lastIrrigationStart once, as the controller load does).
+     */
+    @Transactional
+    public NextMoistureCheckDto getNextMoistureCheck(Integer subzoneId) {
+        SubZoneState state = stateCache.getSubZone(subzoneId);
+        if (state == null) {
+            SubZone subZone = findById(subzoneId);
+            state = SubZoneState.of(subZone, null);
+            if (state.getLastIrrigationStart() == null && !Boolean.TRUE.equals(subZone.getLastIrrigationStartBackfilled())) {
+                state.setLastIrrigationStart(irrigationHistoryRepository.findLastStartTime(subzoneId));
+                subzoneRepo.backfillLastIrrigationStart(subzoneId, state.getLastIrrigationStart());
+            }
+        }
+        long soakSeconds = ruleEngine.current().soakSeconds(state);
+        LocalDateTime now = LocalDateTime.now(ZoneId.of("Europe/Kyiv"));
+        LocalDateTime lastIrrigationStart = state.getLastIrrigationStart();
+        LocalDateTime soakUntil = lastIrrigationStart != null ? lastIrrigationStart.plusSeconds(soakSeconds) : null;
+        LocalDateTime nextCheckAt = soakUntil != null && soakUntil.isAfter(now) ? soakUntil : now;
+        return new NextMoistureCheckDto(subzoneId, lastIrrigationStart, soakSeconds / 60, soakUntil, nextCheckAt);
     }
 
     /**
@@ -72,10 +159,26 @@ public class SubZoneService {
 
         // Save the manual irrigation request (if you have a repository for it)
         irrigationRequestRepository.save(request);
+        stateCache.afterCommit(() -> {
+            SubZoneState state = stateCache.getSubZone(subzoneId);
+            if (state != null) {
+                state.setPendingRequestedAt(request.getRequestedAt());
+            }
+        });
         System.out.println("Triggering manual irrigation for SubZone: " + subZone.getName());
     }
 
+    /**
+     * Saves an edited SubZone and refreshes its cached irrigation-decision state and zone health.
+     */
+    @Transactional
     public SubZone save(SubZone s) {
-        return subzoneRepo.save(s);
+        SubZone saved = subzoneRepo.save(s);
+        stateCache.afterCommit(() -> stateCache.onSubZoneSaved(saved));
+        if (saved.getZone() != null) {
+            // the issue flag may have been cleared (fix-issue)
+            healthService.refreshZone(saved.getZone().getId());
+        }
+        return saved;
     }
 }
@@ -0,0 +1,98 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.entity.PlantType;
+import com.example.smartirrigationsystem.entity.SoilType;
+import com.example.smartirrigationsystem.entity.SubZone;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Everything the adaptive-irrigation decision needs to know about one subzone,
+ * kept in {@link SubZoneStateCache} so steady-state ingest doesn't read the database.
+ */
+@Getter
+@Setter
+public class SubZoneState {
+    private final Integer subZoneId;
+    private final int subzoneIndex;
+
+    // thresholds and soak times live in IrrigationRules, looked up by type id (0 = none)
+    private volatile int plantTypeId;
+    private volatile int soilTypeId;
+    private volatile boolean irrigationIssue;
+    private volatile int defaultIrrigationDurationInSeconds;
+    private volatile Double valveFlowLitersPerMinute;
+    // requestedAt of the newest not executed request this instance knows of (null = none); only keeps
+    // the rules from adding a second auto request, the plan reads pending requests from the database
+    private volatile LocalDateTime pendingRequestedAt;
+    private volatile LocalDateTime lastIrrigationStart;
+    private volatile Integer lastMoisturePercent;
+    // learned moisture response and the irrigation currently being measured, see IrrigationDurationPlanner
+    private volatile ResponseCurve responseCurve = ResponseCurve.EMPTY;
+    private volatile ResponseSample responseSample;
+
+    /**
+     * An irrigation whose effect hasn't been measured yet.
+     */
+    @Getter
+    public static final class ResponseSample {
+        private final LocalDateTime start;
+        private final int durationSeconds;
+        private final int baselineMoisturePercent;
+        // rain between the start and the measurement makes the delta useless
+        @Setter
+        private volatile boolean rainSeen;
+
+        public ResponseSample(LocalDateTime start, int durationSeconds, int baselineMoisturePercent) {
+            this.start = start;
+            this.durationSeconds = durationSeconds;
+            this.baselineMoisturePercent = baselineMoisturePercent;
+        }
+    }
+
+    public SubZoneState(Integer subZoneId, int subzoneIndex) {
+        this.subZoneId = subZoneId;
+        this.subzoneIndex = subzoneIndex;
+    }
+
+    public static SubZoneState of(SubZone subZone, LocalDateTime pendingRequestedAt) {
+        SubZoneState state = new SubZoneState(subZone.getId(), subZone.getSubzoneIndex());
+        state.applySettings(subZone);
+        state.setPendingRequestedAt(pendingRequestedAt);
+        state.setLastIrrigationStart(subZone.getLastIrrigationStart());
+        state.setLastMoisturePercent(subZone.getLastMoisturePercent());
+        if (subZone.getResponseSamples() != null && subZone.getResponseSamples() > 0) {
+            state.setResponseCurve(new ResponseCurve(subZone.getResponseSamples(),
+                    subZone.getResponseSumDurationSq(), subZone.getResponseSumDurationDelta()));
+        }
+        return state;
+    }
+
+    /**
+     * Takes over what only lives in memory from the state this one replaces on a reload: the
+     * irrigation being measured, and its start if the row doesn't have it yet.
+     */
+    public void keepLiveValues(SubZoneState previous) {
+        responseSample = previous.getResponseSample();
+        LocalDateTime previousStart = previous.getLastIrrigationStart();
+        if (previousStart != null && (lastIrrigationStart == null || previousStart.isAfter(lastIrrigationStart))) {
+            lastIrrigationStart = previousStart;
+        }
+    }
+
+    /**
+     * Copies the user-editable part of the subzone (plant and soil type, issue flag, default duration,
+     * valve flow).
+     */
+    public void applySettings(SubZone subZone) {
+        PlantType plant = subZone.getPlantType();
+        plantTypeId = plant != null && plant.getId() != null ? plant.getId() : 0;
+        SoilType soil = subZone.getSoilType();
+        soilTypeId = soil != null && soil.getId() != null ? soil.getId() : 0;
+        irrigationIssue = Boolean.TRUE.equals(subZone.getHasIrrigationIssue());
+        defaultIrrigationDurationInSeconds = subZone.getDefaultIrrigationDurationInSeconds();
+        valveFlowLitersPerMinute = subZone.getValveFlowLitersPerMinute();
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.entity.SubZone;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory view of {@link SubZoneState} per controller, keyed by controllerUid and
+ * subzoneIndex (as the controllers address them) and by subzone id (as the UI does).
+ * Entries are loaded on the first post of a controller and then kept coherent by the
+ * services that write the underlying rows: a change is applied after its transaction commits,
+ * or the controller is dropped (and reloaded from the database) if the transaction rolls back.
+ * Changes made on another instance or directly in the database are picked up when a controller
+ * is older than {@code irrigation.state.reload-seconds} and gets reloaded on its next post.
+ */
+@Component
+public class SubZoneStateCache {
+
+    @Getter
+    public static class ControllerState {
+        private final Integer zoneId;
+        private final Map<Integer, SubZoneState> subZonesByIndex = new ConcurrentHashMap<>();
+        // zone coordinates, for the forecast lookup
+        @Setter
+        private volatile Double latitude;
+        @Setter
+        private volatile Double longitude;
+        // null = no limit, all valves open together
+        @Setter
+        private volatile Double flowCapacityLitersPerMinute;
+        // when each running or already scheduled valve closes, by subzone index; the scheduler
+        // packs the next polls around them
+        private final Map<Integer, LocalDateTime> valveEndsByIndex = new ConcurrentHashMap<>();
+        private final long loadedAtNanos = System.nanoTime();
+
+        public ControllerState(Integer zoneId) {
+            this.zoneId = zoneId;
+        }
+    }
+
+    private final Map<String, ControllerState> byController = new ConcurrentHashMap<>();
+    private final Map<Integer, SubZoneState> bySubZoneId = new ConcurrentHashMap<>();
+    private final long reloadNanos;
+
+    public SubZoneStateCache(@Value("${irrigation.state.reload-seconds:30}") long reloadSeconds) {
+        this.reloadNanos = TimeUnit.SECONDS.toNanos(reloadSeconds);
+    }
+
+    public ControllerState getController(String controllerUid) {
+        return byController.get(controllerUid);
+    }
+
+    /**
+     * Whether the controller was loaded longer than the reload interval ago and should be read
+     * from the database again.
+     */
+    public boolean isStale(ControllerState controller) {
+        return System.nanoTime() - controller.getLoadedAtNanos() >= reloadNanos;
+    }
+
+    public void putController(String controllerUid, ControllerState controller) {
+        ControllerState previous = byController.put(controllerUid, controller);
+        if (previous != null) {
+            previous.getSubZonesByIndex().values().forEach(s -> bySubZoneId.remove(s.getSubZoneId()));
+        }
+        controller.getSubZonesByIndex().values().forEach(s -> bySubZoneId.put(s.getSubZoneId(), s));
+    }
+
+    public void putSubZone(ControllerState controller, SubZoneState state) {
+        controller.getSubZonesByIndex().put(state.getSubzoneIndex(), state);
+        bySubZoneId.put(state.getSubZoneId(), state);
+    }
+
+    /**
+     * Cached state of a subzone, or null if its controller hasn't been loaded yet.
+     */
+    public SubZoneState getSubZone(Integer subZoneId) {
+        return bySubZoneId.get(subZoneId);
+    }
+
+    // called after a subzone was edited (plant type, duration, issue flag)
+    public void onSubZoneSaved(SubZone subZone) {
+        SubZoneState state = bySubZoneId.get(subZone.getId());
+        if (state != null) {
+            state.applySettings(subZone);
+        }
+    }
+
+    /**
+     * Runs a cache change once the surrounding transaction has committed, or right away without one.
+     */
+    public void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    /**
+     * Drops the controller if the surrounding transaction doesn't commit, so whatever the ingest
+     * changed in its state meanwhile (pending flags, irrigation starts, new subzones) doesn't outlive
+     * the rolled back rows.
+     */
+    public void evictOnRollback(String controllerUid) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    evictController(controllerUid);
+                }
+            }
+        });
+    }
+
+    public void evictController(String controllerUid) {
+        ControllerState removed = byController.remove(controllerUid);
+        if (removed != null) {
+            removed.getSubZonesByIndex().values().forEach(s -> bySubZoneId.remove(s.getSubZoneId()));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.dto.ForecastPoint;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory forecasts keyed by a lat/lon grid cell ({@code irrigation.weather.grid-degrees}),
+ * so zones close to each other share one provider fetch. Each cell holds a time-indexed
+ * TreeMap; lookups are O(log n) and never block on the provider: a missing or expired cell
+ * is (re)fetched in the background and the lookup answers from what is cached meanwhile.
+ * Cells nobody looked up for two TTLs (zones moved or deleted) are dropped by a periodic sweep.
+ */
+@Slf4j
+@Component
+public class WeatherForecastCache {
+
+    static final class Cell {
+        final double latitude;
+        final double longitude;
+        volatile NavigableMap<LocalDateTime, ForecastPoint> points = Collections.emptyNavigableMap();
+        volatile long fetchedAtNanos;
+        volatile long usedAtNanos;
+        volatile boolean attempted;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Cell(double latitude, double longitude) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+    }
+
+    private final Map<Long, Cell> cells = new ConcurrentHashMap<>();
+    private final WeatherForecastProvider provider;
+    private final double gridDegrees;
+    private final long ttlNanos;
+    private final double rainThresholdMm;
+    private final Executor executor;
+    private final ExecutorService ownExecutor;
+
+    @Autowired
+    public WeatherForecastCache(WeatherForecastProvider provider,
+                                @Value("${irrigation.weather.grid-degrees:0.1}") double gridDegrees,
+                                @Value("${irrigation.weather.ttl-minutes:30}") long ttlMinutes,
+                                @Value("${irrigation.weather.rain-threshold-mm:0.2}") double rainThresholdMm) {
+        this(provider, gridDegrees, ttlMinutes, rainThresholdMm, Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "weather-forecast-fetch");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    WeatherForecastCache(WeatherForecastProvider provider, double gridDegrees, long ttlMinutes,
+                         double rainThresholdMm, Executor executor) {
+        this.provider = provider;
+        this.gridDegrees = gridDegrees;
+        this.ttlNanos = TimeUnit.MINUTES.toNanos(ttlMinutes);
+        this.rainThresholdMm = rainThresholdMm;
+        this.executor = executor;
+        this.ownExecutor = executor instanceof ExecutorService ? (ExecutorService) executor : null;
+    }
+
+    @PreDestroy
+    void stop() {
+        if (ownExecutor != null) {
+            ownExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * True if the cached forecast for the location promises at least the rain threshold in
+     * any hour overlapping [from, to). Zones without coordinates, and cells not fetched yet,
+     * count as "no rain expected".
+     */
+    public boolean precipitationExpected(Double latitude, Double longitude, LocalDateTime from, LocalDateTime to) {
+        if (latitude == null || longitude == null) {
+            return false;
+        }
+        Cell cell = cell(latitude, longitude);
+        // the hour that contains `from` counts too
+        LocalDateTime start = from.truncatedTo(ChronoUnit.HOURS);
+        for (ForecastPoint point : cell.points.subMap(start, true, to, false).values()) {
+            Double mm = point.getPrecipitationMm();
+            if (mm != null && mm >= rainThresholdMm) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int cellCount() {
+        return cells.size();
+    }
+
+    @Scheduled(fixedDelayString = "${irrigation.weather.ttl-minutes:30}", timeUnit = TimeUnit.MINUTES)
+    public void evictIdleCells() {
+        evictIdleCells(System.nanoTime());
+    }
+
+    void evictIdleCells(long nowNanos) {
+        cells.values().removeIf(cell -> nowNanos - cell.usedAtNanos > 2 * ttlNanos);
+    }
+
+    private Cell cell(double latitude, double longitude) {
+        long latIndex = Math.round(latitude / gridDegrees);
+        long lonIndex = Math.round(longitude / gridDegrees);
+        Cell cell = cells.computeIfAbsent((latIndex << 32) | (lonIndex & 0xFFFFFFFFL),
+                k -> new Cell(centre(latIndex), centre(lonIndex)));
+        long now = System.nanoTime();
+        cell.usedAtNanos = now;
+        if (!cell.attempted || now - cell.fetchedAtNanos > ttlNanos) {
+            refresh(cell);
+        }
+        return cell;
+    }
+
+    // decimal arithmetic, so the provider gets 49.8 rather than 498 * 0.1 = 49.800000000000004
+    private double centre(long index) {
+        return BigDecimal.valueOf(index).multiply(BigDecimal.valueOf(gridDegrees)).doubleValue();
+    }
+
+    // at most one fetch per cell in flight; a failure keeps the previous forecast until the TTL expires again
+    private void refresh(Cell cell) {
+        if (!cell.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                NavigableMap<LocalDateTime, ForecastPoint> points = new TreeMap<>();
+                for (ForecastPoint point : provider.fetch(cell.latitude, cell.longitude)) {
+                    points.put(point.getForecastTime(), point);
+                }
+                cell.points = Collections.unmodifiableNavigableMap(points);
+            } catch (RuntimeException e) {
+                log.warn("Forecast fetch failed for {}, {}", cell.latitude, cell.longitude, e);
+            } finally {
+                cell.fetchedAtNanos = System.nanoTime();
+                cell.attempted = true;
+                cell.refreshing.set(false);
+            }
+        });
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.dto.ForecastPoint;
+
+import java.util.List;
+
+/**
+ * Source of hourly forecasts, picked with {@code irrigation.weather.provider}
+ * ({@code stub} or {@code file}). Called off the request path by {@link WeatherForecastCache}.
+ */
+public interface WeatherForecastProvider {
+
+    /**
+     * Hourly forecast for the given location, covering at least the next few hours.
+     */
+    List<ForecastPoint> fetch(double latitude, double longitude);
+}
@@ -0,0 +1,60 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.repository.SubZoneRepository;
+import com.example.smartirrigationsystem.repository.ZoneHealthRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keeps SubZone.hasIrrigationIssue and Zone.hasIssues / controllerOffline up to date as
+ * events arrive, so listing zones only reads stored flags. Nothing is written unless a
+ * flag actually changes; the steady-state ingest path costs no extra statements.
+ */
+@Service
+@RequiredArgsConstructor
+public class ZoneHealthService {
+
+    private final SubZoneRepository subZoneRepo;
+    private final ZoneHealthRepository zoneHealthRepo;
+    private final IrrigationRuleEngine ruleEngine;
+
+    /**
+     * Ingest hook: flags the subzone if the reading shows an irrigation without effect.
+     * Runs in the caller's transaction.
+     */
+    @Transactional
+    public void onReading(Integer zoneId, SubZoneState state, int moisturePercent, boolean raining,
+                          LocalDateTime at) {
+        if (state.isIrrigationIssue()
+                || !HealthRules.irrigationHadNoEffect(ruleEngine.current().optimalMoistureMin(state), moisturePercent, raining,
+                state.getLastIrrigationStart(), at)) {
+            return;
+        }
+        state.setIrrigationIssue(true);
+        if (subZoneRepo.markIrrigationIssue(state.getSubZoneId(), at) > 0) {
+            refreshZone(zoneId);
+        }
+    }
+
+    /**
+     * Controller went silent (true) or reported again (false).
+     */
+    @Transactional
+    public void onControllerSilence(Integer zoneId, boolean offline) {
+        long issues = subZoneRepo.countIrrigationIssues(zoneId);
+        zoneHealthRepo.updateHealth(zoneId, offline, HealthRules.zoneHasIssues(issues, offline));
+    }
+
+    /**
+     * Re-derives Zone.hasIssues after a subzone flag changed outside ingest (fix-issue, edits)
+     * or when a controller is loaded into the cache. One count over the zone's subzones.
+     */
+    @Transactional
+    public void refreshZone(Integer zoneId) {
+        long issues = subZoneRepo.countIrrigationIssues(zoneId);
+        zoneHealthRepo.updateHasIssues(zoneId, issues > 0);
+    }
+}
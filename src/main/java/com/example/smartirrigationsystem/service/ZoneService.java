@@ -1,23 +1,36 @@
 package com.example.smartirrigationsystem.service;
 
+import com.example.smartirrigationsystem.dto.DeviceKeyDto;
 import com.example.smartirrigationsystem.dto.PlannedIrrigationResponse;
 import com.example.smartirrigationsystem.dto.SensorDataRequest;
+import com.example.smartirrigationsystem.dto.SensorReading;
+import com.example.smartirrigationsystem.dto.SubZoneSummaryDto;
+import com.example.smartirrigationsystem.dto.ZoneSummaryDto;
 import com.example.smartirrigationsystem.entity.*;
+import com.example.smartirrigationsystem.repository.IrrigationHistoryBatchRepository;
 import com.example.smartirrigationsystem.repository.IrrigationHistoryRepository;
 import com.example.smartirrigationsystem.repository.ManualIrrigationRequestRepository;
+import com.example.smartirrigationsystem.repository.SubZoneRepository;
 import com.example.smartirrigationsystem.repository.ZoneRepository;
+import com.example.smartirrigationsystem.security.DeviceKeyRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,18 +38,34 @@ public class ZoneService {
     private final ZoneRepository zoneRepo;
     private final ManualIrrigationRequestRepository irrigationRequestRepository;
     private final IrrigationHistoryRepository irrigationHistoryRepository;
+    private final IrrigationHistoryBatchRepository irrigationHistoryBatchRepository;
+    private final SubZoneRepository subZoneRepo;
+    private final SensorIngestQueue ingestQueue;
+    private final SubZoneStateCache stateCache;
+    private final ZoneHealthService healthService;
+    private final ControllerLivenessTracker livenessTracker;
+    private final IrrigationRuleEngine ruleEngine;
+    private final IrrigationDurationPlanner durationPlanner;
+    private final IrrigationScheduler scheduler;
+    private final SensorPostDeduplicator deduplicator;
+    private final DeviceKeyRegistry deviceKeys;
 
-    public List<Zone> findAll() {
-        List<Zone> zoneList = zoneRepo.findAll();
-        zoneList.forEach(zone -> {
-            zone.getSubZones().forEach(subZone -> {
-                subZone.getIrrigationHistoryList().forEach(irrigationHistory -> {
-                    boolean hasIssues = false;
-                    zone.setHasIssues(hasIssues);
-                });
-            });
-        });
-        return zoneList;
+    /**
+     * Zone list for the dashboard: two queries, whatever the number of subzones or the
+     * size of their reading and irrigation history.
+     */
+    @Transactional(readOnly = true)
+    public List<ZoneSummaryDto> findAllSummaries() {
+        List<ZoneSummaryDto> zones = zoneRepo.findSummaries();
+        Map<Integer, ZoneSummaryDto> byId = zones.stream()
+                .collect(Collectors.toMap(ZoneSummaryDto::getId, z -> z));
+        for (SubZoneSummaryDto subZone : subZoneRepo.findSummaries()) {
+            ZoneSummaryDto zone = byId.get(subZone.getZoneId());
+            if (zone != null) {
+                zone.addSubZone(subZone);
+            }
+        }
+        return zones;
     }
 
     public Zone updateZone(Integer id, Zone incoming) {
@@ -50,104 +79,196 @@ public class ZoneService {
         existing.setLatitude(incoming.getLatitude());
         existing.setLongitude(incoming.getLongitude());
         existing.setExtraInfo(incoming.getExtraInfo());
+        existing.setFlowCapacityLitersPerMinute(incoming.getFlowCapacityLitersPerMinute());
+
+        Zone saved = zoneRepo.save(existing);
+        SubZoneStateCache.ControllerState controller = stateCache.getController(saved.getControllerUid());
+        if (controller != null) {
+            controller.setLatitude(saved.getLatitude());
+            controller.setLongitude(saved.getLongitude());
+            controller.setFlowCapacityLitersPerMinute(saved.getFlowCapacityLitersPerMinute());
+        }
+        return saved;
+    }
 
-        return zoneRepo.save(existing);
+    /**
+     * Controller poll: stores the readings, runs the adaptive-irrigation check and
+     * returns the irrigation plan, all in one transaction. In the steady state the
+     * zone comes from the state cache and pending requests are fetched with one
+     * query for all subzones.
+     */
+    @Transactional
+    public PlannedIrrigationResponse ingestAndPlan(SensorDataRequest req) {
+        LocalDateTime now = LocalDateTime.now(ZoneId.of("Europe/Kyiv"));
+        SubZoneStateCache.ControllerState controller = ingest(req, now);
+        return new PlannedIrrigationResponse(plan(controller, now));
     }
 
     @Transactional
     public void ingestSensorData(SensorDataRequest req) {
-        // 1. Знаходимо зону за її унікальним контролером
-        Zone zone = zoneRepo.findByControllerUid(req.getControllerUid());
-        if (zone == null) {
-            // Якщо зона ще не створена, створимо її «на льоту»
-            zone = new Zone();
-            zone.setControllerUid(req.getControllerUid());
-            zone = zoneRepo.save(zone);
+        ingest(req, LocalDateTime.now(ZoneId.of("Europe/Kyiv")));
+    }
+
+    private SubZoneStateCache.ControllerState ingest(SensorDataRequest req, LocalDateTime now) {
+        // 0. Якщо черга записувача переповнена — одразу відповідаємо 503, нічого не змінюючи
+        if (!ingestQueue.hasRoomFor(req.getSubZones().size())) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Sensor ingest queue is full, retry later");
         }
 
+        // 1. Стан зони та її підзон — з кешу; БД читаємо лише при першому зверненні контролера
+        SubZoneStateCache.ControllerState controller = loadControllerState(req.getControllerUid(), true);
+        livenessTracker.onSeen(req.getControllerUid(), controller.getZoneId());
+        // one rule set for the whole request, even if a plant type changes meanwhile
+        IrrigationRules rules = ruleEngine.current();
+
         // 2. Для кожної підзони в запиті оновлюємо показники
+        List<SensorReading> readings = new ArrayList<>(req.getSubZones().size());
         for (SensorDataRequest.SubzoneData subzoneData : req.getSubZones()) {
             int subzoneIndex = subzoneData.getSubzoneIndex();
 
             // Якщо підзона з таким індексом ще не існує, створюємо її
-            Optional<SubZone> found = zone.getSubZones().stream()
-                    .filter(sz -> sz.getSubzoneIndex() == subzoneIndex)
-                    .findFirst();
-
-            SubZone subZone;
-            if (found.isEmpty()) {
-                subZone = new SubZone();
-                subZone.setSubzoneIndex(subzoneIndex);
-                subZone.setZone(zone);
-                zone.getSubZones().add(subZone);
-            } else {
-                subZone = found.get();
+            SubZoneState state = controller.getSubZonesByIndex().get(subzoneIndex);
+            if (state == null) {
+                state = createSubZone(controller, subzoneIndex);
             }
 
-            // 2.1. Додаємо новий запис про дощемір
-            RainSensorReading rainReading = new RainSensorReading();
-            rainReading.setSubZone(subZone);
-            rainReading.setRaining(subzoneData.isRainDetected());
-            ZoneId kyivZone = ZoneId.of("Europe/Kyiv");
-            rainReading.setRecordedAt(LocalDateTime.now(kyivZone));
-            subZone.getRainSensorReadings().add(rainReading);
-
-            // 2.2. Додаємо новий запис про вологість ґрунту
-            SoilMoistureReading moistureReading = new SoilMoistureReading();
-            moistureReading.setSubZone(subZone);
-            moistureReading.setMoisturePercent(subzoneData.getSoilMoisturePercent());
-            moistureReading.setRecordedAt(LocalDateTime.now(kyivZone));
-            subZone.getSoilMoistureReadings().add(moistureReading);
-
-            // 3. Перевіряємо умови для адаптивного поливу
-            PlantType plant = subZone.getPlantType();
-            if (plant != null) {
-                double currentMoisture = moistureReading.getMoisturePercent();
-                int minOptimal = plant.getOptimalMoistureMin();
-
-                // 3.1. Якщо поточна вологість нижче мінімальної межі
-                if (currentMoisture < minOptimal) {
-                    // 3.2. Перевіряємо, чи зараз не йде дощ
-                    boolean isRainingNow = subzoneData.isRainDetected();
-                    boolean hasIrrigationIssue = subZone.getHasIrrigationIssue() != null ? subZone.getHasIrrigationIssue() : false;
-                    List<ManualIrrigationRequest> manualIrrigationRequests = getPendingIrrigationRequests(subZone.getId());
-                    boolean hasPendingRequests = !manualIrrigationRequests.isEmpty();
-                    // check using history when last irrigation happened
-                    IrrigationHistory lastIrrigationHistory = subZone.getIrrigationHistoryList().stream()
-                            .max(Comparator.comparing(IrrigationHistory::getStartTime))
-                            .orElse(null);
-                    boolean isLastRequestRecent = lastIrrigationHistory != null &&
-                            lastIrrigationHistory.getStartTime().isAfter(LocalDateTime.now(kyivZone).minusHours(1));
-
-                    // 3.4. Якщо немає дощу зараз і прогноз не обіцяє опадів найближчу годину
-                    if (!isRainingNow && !hasIrrigationIssue && !hasPendingRequests && !isLastRequestRecent) {
-                        // Створюємо запис в IrrigationHistory
-                        ManualIrrigationRequest irrigationRequest = new ManualIrrigationRequest();
-                        irrigationRequest.setSubZone(subZone);
-                        irrigationRequest.setRequestedAt(LocalDateTime.now(kyivZone));
-                        irrigationRequest.setTriggeredBy(TriggeredBy.valueOf("auto"));
-                        irrigationRequest.setDurationSeconds(subZone.getDefaultIrrigationDurationInSeconds());
-
-                        irrigationRequestRepository.save(irrigationRequest);
-                    }
-                }
+            // 2.1. Показники дощеміра й вологості ґрунту пишуться пакетно фоновим записувачем
+            readings.add(new SensorReading(state.getSubZoneId(), subzoneData.getSoilMoisturePercent(),
+                    subzoneData.isRainDetected(), now));
+
+            // 2.2. Полив без ефекту позначає підзону (і зону) як проблемну
+            healthService.onReading(controller.getZoneId(), state, subzoneData.getSoilMoisturePercent(),
+                    subzoneData.isRainDetected(), now);
+
+            // 2.3. Перше вимірювання після вбирання доповнює криву відгуку підзони
+            durationPlanner.onReading(rules, state, subzoneData.getSoilMoisturePercent(),
+                    subzoneData.isRainDetected(), now);
+
+            // 3. Правила адаптивного поливу: поріг вологості, дощ, проблеми, запити, час вбирання, прогноз
+            IrrigationRules.Decision decision = rules.evaluate(state, subzoneData.getSoilMoisturePercent(),
+                    subzoneData.isRainDetected(), now, controller);
+            if (decision == IrrigationRules.Decision.IRRIGATE) {
+                // Створюємо запит на полив
+                ManualIrrigationRequest irrigationRequest = new ManualIrrigationRequest();
+                irrigationRequest.setSubZone(subZoneRepo.getReferenceById(state.getSubZoneId()));
+                irrigationRequest.setRequestedAt(now);
+                irrigationRequest.setTriggeredBy(TriggeredBy.valueOf("auto"));
+                // тривалість — з дефіциту вологості та вивченої кривої відгуку
+                irrigationRequest.setDurationSeconds(durationPlanner.plannedDurationSeconds(rules, state,
+                        subzoneData.getSoilMoisturePercent()));
+
+                irrigationRequestRepository.save(irrigationRequest);
+                state.setPendingRequestedAt(now);
             }
         }
 
-        // Зберігаємо всі зміни до об’єктів Zone → SubZone → пов’язані сутності
-        zoneRepo.save(zone);
+        // 4. Показники потрапляють у чергу лише після коміту транзакції
+        ingestQueue.enqueueAfterCommit(readings);
+        return controller;
     }
 
-    @Transactional
-    public List<PlannedIrrigationResponse.SubZonePlan> calculatePlannedIrrigation(String controllerUid) {
+    // cache miss: load (or create) the zone and build the state of all its subzones once
+    private SubZoneStateCache.ControllerState loadControllerState(String controllerUid, boolean createIfMissing) {
+        // the caller's transaction changes the cached state in place; a rollback drops it
+        stateCache.evictOnRollback(controllerUid);
+        SubZoneStateCache.ControllerState previous = stateCache.getController(controllerUid);
+        if (previous != null && !stateCache.isStale(previous)) {
+            return previous;
+        }
         Zone zone = zoneRepo.findByControllerUid(controllerUid);
-        if (zone == null) {
+        if (zone == null && previous != null) {
+            // deleted since it was loaded
+            stateCache.evictController(controllerUid);
+        }
+        if (zone == null && !createIfMissing) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Zone not found with controller UID: " + controllerUid);
         }
+        if (zone == null) {
+            // Якщо зона ще не створена, створимо її «на льоту»
+            zone = new Zone();
+            zone.setControllerUid(controllerUid);
+            zone = zoneRepo.save(zone);
+        }
+        SubZoneStateCache.ControllerState controller = new SubZoneStateCache.ControllerState(zone.getId());
+        controller.setLatitude(zone.getLatitude());
+        controller.setLongitude(zone.getLongitude());
+        controller.setFlowCapacityLitersPerMinute(zone.getFlowCapacityLitersPerMinute());
+        LocalDateTime now = LocalDateTime.now(ZoneId.of("Europe/Kyiv"));
+        Map<Integer, List<ManualIrrigationRequest>> pendingBySubZone = zone.getSubZones().isEmpty()
+                ? Collections.emptyMap()
+                : getPendingIrrigationRequestsByZone(zone.getId(), now);
+        for (SubZone subZone : zone.getSubZones()) {
+            LocalDateTime pendingRequestedAt = pendingBySubZone.getOrDefault(subZone.getId(), Collections.emptyList())
+                    .stream()
+                    .map(ManualIrrigationRequest::getRequestedAt)
+                    .max(Comparator.naturalOrder())
+                    .orElse(null);
+            SubZoneState state = SubZoneState.of(subZone, pendingRequestedAt);
+            state.setLastIrrigationStart(getLastIrrigationStart(subZone));
+            SubZoneState replaced = previous != null ? previous.getSubZonesByIndex().get(subZone.getSubzoneIndex()) : null;
+            if (replaced != null && replaced.getSubZoneId().equals(subZone.getId())) {
+                state.keepLiveValues(replaced);
+            }
+            controller.getSubZonesByIndex().put(subZone.getSubzoneIndex(), state);
+        }
+        if (previous != null) {
+            // valves this instance planned but whose history rows aren't visible yet
+            previous.getValveEndsByIndex().forEach((index, end) -> {
+                if (end.isAfter(now)) {
+                    controller.getValveEndsByIndex().merge(index, end, (a, b) -> a.isAfter(b) ? a : b);
+                }
+            });
+        }
+        if (!zone.getSubZones().isEmpty()) {
+            // valves still open (or scheduled) from polls before the restart or eviction
+            for (IrrigationHistoryRepository.RunView run :
+                    irrigationHistoryRepository.findRunsByZoneId(zone.getId(), now.minusDays(1))) {
+                LocalDateTime end = run.getStartTime().plusSeconds(run.getDurationSeconds());
+                if (end.isAfter(now)) {
+                    controller.getValveEndsByIndex().merge(run.getSubzoneIndex(), end,
+                            (a, b) -> a.isAfter(b) ? a : b);
+                }
+            }
+            // re-derive the stored zone flag once per load, in case it drifted while the app was down
+            healthService.refreshZone(zone.getId());
+        }
+        stateCache.putController(controllerUid, controller);
+        return controller;
+    }
+
+    private SubZoneState createSubZone(SubZoneStateCache.ControllerState controller, int subzoneIndex) {
+        SubZone subZone = new SubZone();
+        subZone.setSubzoneIndex(subzoneIndex);
+        subZone.setZone(zoneRepo.getReferenceById(controller.getZoneId()));
+        // зберігаємо одразу, щоб мати id для показників у черзі
+        subZone = subZoneRepo.save(subZone);
+        SubZoneState state = SubZoneState.of(subZone, null);
+        stateCache.putSubZone(controller, state);
+        return state;
+    }
+
+    @Transactional
+    public List<PlannedIrrigationResponse.SubZonePlan> calculatePlannedIrrigation(String controllerUid) {
+        LocalDateTime now = LocalDateTime.now(ZoneId.of("Europe/Kyiv"));
+        return plan(loadControllerState(controllerUid, false), now);
+    }
+
+    private List<PlannedIrrigationResponse.SubZonePlan> plan(SubZoneStateCache.ControllerState controller,
+                                                             LocalDateTime now) {
+        List<SubZoneState> subZones = new ArrayList<>(controller.getSubZonesByIndex().values());
+        subZones.sort(Comparator.comparingInt(SubZoneState::getSubzoneIndex));
+
+        // Один індексований запит на всю зону при кожному опитуванні: запит на полив могли створити
+        // на іншому інстансі або напряму в БД, тож прапорець у кеші не є джерелом істини
+        Map<Integer, List<ManualIrrigationRequest>> pendingBySubZone =
+                getPendingIrrigationRequestsByZone(controller.getZoneId(), now);
 
         List<PlannedIrrigationResponse.SubZonePlan> subZonePlans = new ArrayList<>();
-        for (SubZone subZone : zone.getSubZones()) {
-            List<ManualIrrigationRequest> manualIrrigationRequests = getPendingIrrigationRequests(subZone.getId());
+        List<ManualIrrigationRequest> lastRequests = new ArrayList<>();
+        List<Integer> executedRequestIds = new ArrayList<>();
+        for (SubZoneState state : subZones) {
+            List<ManualIrrigationRequest> manualIrrigationRequests =
+                    pendingBySubZone.getOrDefault(state.getSubZoneId(), Collections.emptyList());
             // get last manual irrigation request
             ManualIrrigationRequest lastRequest = manualIrrigationRequests.stream()
                     .max(Comparator.comparing(ManualIrrigationRequest::getRequestedAt))
@@ -157,24 +278,68 @@ public class ZoneService {
                 // If there is a last request, use its duration
                 plannedDuration = lastRequest.getDurationSeconds();
             }
-            subZonePlans.add(new PlannedIrrigationResponse.SubZonePlan(subZone.getSubzoneIndex(), plannedDuration));
-            // save to irrigation history last irrigation request
-            if (lastRequest != null) {
-                IrrigationHistory history = new IrrigationHistory();
-                history.setSubZone(subZone);
-                history.setDurationSeconds(lastRequest.getDurationSeconds());
-                history.setTriggeredBy(lastRequest.getTriggeredBy());
-                ZoneId kyivZone = ZoneId.of("Europe/Kyiv");
-                history.setStartTime(LocalDateTime.now(kyivZone));
-                irrigationHistoryRepository.save(history);
+            subZonePlans.add(new PlannedIrrigationResponse.SubZonePlan(state.getSubzoneIndex(), plannedDuration));
+            lastRequests.add(lastRequest);
+            // Mark all pending requests as executed
+            manualIrrigationRequests.forEach(request -> executedRequestIds.add(request.getId()));
+            state.setPendingRequestedAt(null);
+        }
+
+        // Клапани відкриваються по черзі, щоб не перевищити пропускну здатність джерела води зони
+        scheduler.stagger(controller, subZones, subZonePlans, ruleEngine.current(), now);
+
+        // save to irrigation history last irrigation requests, each with its staggered start
+        List<IrrigationHistory> historyRows = new ArrayList<>();
+        Map<LocalDateTime, List<Integer>> irrigatedSubZoneIdsByStart = new HashMap<>();
+        for (int i = 0; i < subZones.size(); i++) {
+            ManualIrrigationRequest lastRequest = lastRequests.get(i);
+            if (lastRequest == null) {
+                continue;
             }
-            manualIrrigationRequests.forEach(
-                    request -> request.setExecuted(true) // Mark all pending requests as executed
-            );
+            SubZoneState state = subZones.get(i);
+            LocalDateTime start = now.plusSeconds(subZonePlans.get(i).getStartOffsetInSeconds());
+            IrrigationHistory history = new IrrigationHistory();
+            history.setSubZone(subZoneRepo.getReferenceById(state.getSubZoneId()));
+            history.setDurationSeconds(lastRequest.getDurationSeconds());
+            history.setTriggeredBy(lastRequest.getTriggeredBy());
+            history.setStartTime(start);
+            historyRows.add(history);
+            irrigatedSubZoneIdsByStart.computeIfAbsent(start, k -> new ArrayList<>()).add(state.getSubZoneId());
+            state.setLastIrrigationStart(start);
+            durationPlanner.onIrrigationStarted(state, lastRequest.getDurationSeconds(), start);
+        }
+
+        // Усі записи одним пакетом: історія (JDBC batch), виконані запити та час поливу
+        // (один UPDATE на кожен окремий час старту; без розподілу за часом — один)
+        if (!historyRows.isEmpty()) {
+            irrigationHistoryBatchRepository.insertAll(historyRows);
+            irrigatedSubZoneIdsByStart.forEach((start, ids) -> subZoneRepo.updateLastIrrigationStart(ids, start));
+        }
+        if (!executedRequestIds.isEmpty()) {
+            irrigationRequestRepository.markExecuted(executedRequestIds);
         }
         return subZonePlans;
     }
 
+    // last irrigation start; rows written before the column existed are backfilled once from the index
+    // (a subzone without history stays null, so the flag records that the lookup was done)
+    private LocalDateTime getLastIrrigationStart(SubZone subZone) {
+        if (subZone.getLastIrrigationStart() != null || Boolean.TRUE.equals(subZone.getLastIrrigationStartBackfilled())) {
+            return subZone.getLastIrrigationStart();
+        }
+        LocalDateTime last = irrigationHistoryRepository.findLastStartTime(subZone.getId());
+        subZoneRepo.backfillLastIrrigationStart(subZone.getId(), last);
+        return last;
+    }
+
+    // not executed requests of the last day for all subzones of a zone, grouped by subzone id
+    private Map<Integer, List<ManualIrrigationRequest>> getPendingIrrigationRequestsByZone(Integer zoneId,
+                                                                                          LocalDateTime now) {
+        return irrigationRequestRepository.findPendingByZoneId(zoneId, now.minusDays(1))
+                .stream()
+                .collect(Collectors.groupingBy(r -> r.getSubZone().getId()));
+    }
+
     // get all not executed manual irrigation requests for a subzone for the last day
     public List<ManualIrrigationRequest> getPendingIrrigationRequests(Integer subZoneId) {
         ZoneId kyivZone = ZoneId.of("Europe/Kyiv");
@@ -192,5 +357,43 @@ public class ZoneService {
     public void deleteZone(Integer id) {
         Zone zone = findById(id);
         zoneRepo.delete(zone);
+        stateCache.evictController(zone.getControllerUid());
+        livenessTracker.forget(zone.getControllerUid());
+        deduplicator.forget(zone.getControllerUid());
+        deviceKeys.revoke(zone.getControllerUid());
+    }
+
+    /**
+     * Issues a new device key for the zone's controller, replacing the previous one. The key
+     * becomes valid once its verifier and UDP MAC key have committed.
+     */
+    @Transactional
+    public DeviceKeyDto issueDeviceKey(Integer id) {
+        Zone zone = findById(id);
+        String key = DeviceKeyRegistry.newKey();
+        String verifier = DeviceKeyRegistry.verifier(key);
+        String macKey = DeviceKeyRegistry.udpMacKey(key);
+        zoneRepo.updateDeviceKey(id, verifier, macKey);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deviceKeys.register(zone.getControllerUid(), verifier, macKey);
+            }
+        });
+        return new DeviceKeyDto(zone.getControllerUid(), key);
+    }
+
+    /**
+     * Highest sequence number accepted from the controller over UDP since its key was issued,
+     * or null if none.
+     */
+    @Transactional(readOnly = true)
+    public Long findLastUdpSequenceNumber(String controllerUid) {
+        return zoneRepo.findLastUdpSequenceNumber(controllerUid);
+    }
+
+    @Transactional
+    public void saveUdpSequenceNumber(String controllerUid, long sequenceNumber) {
+        zoneRepo.advanceUdpSequenceNumber(controllerUid, sequenceNumber);
     }
 }
@@ -0,0 +1,182 @@
+package com.example.smartirrigationsystem.benchmark;
+
+import com.example.smartirrigationsystem.SmartIrrigationSystemApplication;
+import com.example.smartirrigationsystem.dto.SensorDataRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput and latency of POST /api/zones/readings with thousands of controllers posting at
+ * once, on platform request threads vs virtual threads. Each mode boots the application on a
+ * random port; every statement and commit is delayed by {@code benchmark.db-latency-ms} to stand
+ * in for the MySQL round trip the in-memory database doesn't have. The client logs in once and
+ * reuses the session, so the numbers show request handling and JPA work rather than BCrypt.
+ * Run with:
+ * <pre>mvn test -Dbenchmark=true -Dtest=ConcurrentPostLoadBenchmark [-Dbenchmark.posts=10000]
+ *     [-Dbenchmark.controllers=1000] [-Dbenchmark.db-latency-ms=2] [-Dbenchmark.modes=platform,virtual]</pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ConcurrentPostLoadBenchmark {
+
+    private static final int SUBZONES_PER_CONTROLLER = 4;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        int posts = Integer.getInteger("benchmark.posts", 10_000);
+        int controllers = Integer.getInteger("benchmark.controllers", 1_000);
+        long dbLatencyMs = Long.getLong("benchmark.db-latency-ms", 2);
+        List<String> results = new ArrayList<>();
+        for (String mode : System.getProperty("benchmark.modes", "platform,virtual").split(",")) {
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SmartIrrigationSystemApplication.class)
+                    .profiles("bench")
+                    .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(delayingDataSource(dbLatencyMs)))
+                    .run("--server.port=0",
+                            "--spring.threads.virtual.enabled=" + mode.equals("virtual"),
+                            "--spring.datasource.url=jdbc:h2:mem:load-" + mode + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE")) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                results.add(run(mode, "http://localhost:" + port, posts, controllers));
+            }
+        }
+        System.out.printf("%-9s %7s %7s %7s %10s %10s %9s %9s%n",
+                "mode", "posts", "ok", "other", "wall(ms)", "posts/s", "p50(ms)", "p99(ms)");
+        results.forEach(System.out::println);
+    }
+
+    private String run(String mode, String baseUrl, int posts, int controllers) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        String session = login(client, baseUrl);
+        byte[][] bodies = new byte[controllers][];
+        for (int i = 0; i < controllers; i++) {
+            bodies[i] = objectMapper.writeValueAsBytes(request("load-" + i, new Random(i)));
+            // first post of a controller creates its zone; not part of the measurement
+            post(client, baseUrl, session, bodies[i]);
+        }
+
+        long[] latencies = new long[posts];
+        AtomicInteger ok = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        long begin;
+        try (ExecutorService simulated = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < posts; i++) {
+                int n = i;
+                simulated.execute(() -> {
+                    try {
+                        start.await();
+                        long sent = System.nanoTime();
+                        int status = post(client, baseUrl, session, bodies[n % controllers]);
+                        latencies[n] = System.nanoTime() - sent;
+                        if (status == 200) {
+                            ok.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        latencies[n] = Long.MAX_VALUE;
+                    }
+                });
+            }
+            begin = System.nanoTime();
+            start.countDown();
+        }
+        long wallNanos = System.nanoTime() - begin;
+
+        Arrays.sort(latencies);
+        return String.format("%-9s %7d %7d %7d %10d %10d %9d %9d", mode, posts, ok.get(), posts - ok.get(),
+                wallNanos / 1_000_000, posts * 1_000_000_000L / wallNanos,
+                latencies[posts / 2] / 1_000_000, latencies[(int) (posts * 0.99)] / 1_000_000);
+    }
+
+    private static String login(HttpClient client, String baseUrl) throws Exception {
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("username=espNode&password=pass"))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        String cookie = response.headers().firstValue("Set-Cookie").orElseThrow();
+        return cookie.substring(0, cookie.indexOf(';'));
+    }
+
+    private static int post(HttpClient client, String baseUrl, String session, byte[] body) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/zones/readings"))
+                .header("Content-Type", "application/json")
+                .header("Cookie", session)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static SensorDataRequest request(String controllerUid, Random random) {
+        List<SensorDataRequest.SubzoneData> subZones = new ArrayList<>();
+        for (int i = 0; i < SUBZONES_PER_CONTROLLER; i++) {
+            SensorDataRequest.SubzoneData data = new SensorDataRequest.SubzoneData();
+            data.setSubzoneIndex(i);
+            data.setSoilMoisturePercent(random.nextInt(101));
+            data.setRainDetected(false);
+            subZones.add(data);
+        }
+        SensorDataRequest request = new SensorDataRequest();
+        request.setControllerUid(controllerUid);
+        request.setSubZones(subZones);
+        return request;
+    }
+
+    // wraps the DataSource so every statement execution and commit sleeps for the given time
+    private static BeanPostProcessor delayingDataSource(long latencyMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource && latencyMs > 0
+                        ? delaying(bean, DataSource.class, latencyMs)
+                        : bean;
+            }
+        };
+    }
+
+    private static Object delaying(Object target, Class<?> type, long latencyMs) {
+        return Proxy.newProxyInstance(ConcurrentPostLoadBenchmark.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (isRoundTrip(method)) {
+                        Thread.sleep(latencyMs);
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    Class<?> returned = method.getReturnType();
+                    return result != null && (returned == Connection.class || Statement.class.isAssignableFrom(returned))
+                            ? delaying(result, returned, latencyMs)
+                            : result;
+                });
+    }
+
+    private static boolean isRoundTrip(Method method) {
+        return method.getName().startsWith("execute") || method.getName().equals("commit");
+    }
+}
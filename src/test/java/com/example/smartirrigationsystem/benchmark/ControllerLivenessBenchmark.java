@@ -0,0 +1,66 @@
+package com.example.smartirrigationsystem.benchmark;
+
+import com.example.smartirrigationsystem.service.ControllerLivenessTracker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cost of liveness tracking for many controllers: the per-post hook, one sweep without
+ * state changes and one batched last-seen flush. Run with:
+ * <pre>mvn test -Dbenchmark=true -Dtest=ControllerLivenessBenchmark [-Dbenchmark.controllers=50000]</pre>
+ */
+@SpringBootTest(properties = {
+        // keep the schedulers out of the measurement
+        "irrigation.liveness.sweep-interval-ms=3600000",
+        "irrigation.liveness.persist-interval-ms=3600000"
+})
+@ActiveProfiles("bench")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ControllerLivenessBenchmark {
+
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private ControllerLivenessTracker tracker;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void trackManyControllers() {
+        int count = Integer.getInteger("benchmark.controllers", 50_000);
+        List<Object[]> zones = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            zones.add(new Object[]{"bench-live-" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO zones (controller_uid, has_issues, controller_offline) VALUES (?, false, false)",
+                zones);
+        List<Integer> zoneIds = jdbcTemplate.queryForList(
+                "SELECT id FROM zones WHERE controller_uid LIKE 'bench-live-%' ORDER BY id", Integer.class);
+
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < count; i++) {
+                tracker.onSeen("bench-live-" + i, zoneIds.get(i));
+            }
+        }
+        long onSeenNanos = (System.nanoTime() - start) / ((long) ROUNDS * count);
+
+        start = System.nanoTime();
+        tracker.sweep();
+        long sweepMillis = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        tracker.persistLastSeen();
+        long persistMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("controllers=%d onSeen=%dns sweep=%dms persistLastSeen=%dms%n",
+                tracker.size(), onSeenNanos, sweepMillis, persistMillis);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.smartirrigationsystem.benchmark;
+
+import com.example.smartirrigationsystem.dto.SensorDataRequest;
+import com.example.smartirrigationsystem.entity.PlantType;
+import com.example.smartirrigationsystem.entity.SubZone;
+import com.example.smartirrigationsystem.entity.Zone;
+import com.example.smartirrigationsystem.repository.PlantTypeRepository;
+import com.example.smartirrigationsystem.repository.SubZoneRepository;
+import com.example.smartirrigationsystem.repository.ZoneRepository;
+import com.example.smartirrigationsystem.service.SubZoneService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Controller-facing latency of POST /api/zones/readings for a zone with many valves,
+ * plus the number of SQL statements Hibernate prepares per poll. Run with:
+ * <pre>mvn test -Dbenchmark=true -Dtest=ControllerPollBenchmark [-Dbenchmark.subzones=24]</pre>
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("bench")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ControllerPollBenchmark {
+
+    private static final String CONTROLLER_UID = "bench-poll";
+    private static final int WARMUP_POSTS = 100;
+    private static final int MEASURED_POSTS = 500;
+    // manual requests queued before every post, so the plan has work to do
+    private static final int MANUAL_REQUESTS_PER_POST = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ZoneRepository zoneRepo;
+    @Autowired
+    private SubZoneRepository subZoneRepo;
+    @Autowired
+    private SubZoneService subZoneService;
+    @Autowired
+    private PlantTypeRepository plantTypeRepo;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void pollLatency() throws Exception {
+        int subZoneCount = Integer.getInteger("benchmark.subzones", 24);
+        byte[] body = objectMapper.writeValueAsBytes(request(subZoneCount));
+        postReadings(body);
+
+        Zone zone = zoneRepo.findByControllerUid(CONTROLLER_UID);
+        PlantType plant = plantTypeRepo.save(new PlantType(null, "bench", null, 50, 70));
+        List<Integer> subZoneIds = new ArrayList<>();
+        for (SubZone subZone : subZoneRepo.findAll()) {
+            if (subZone.getZone().getId().equals(zone.getId())) {
+                subZone.setPlantType(plant);
+                subZoneService.save(subZone);
+                subZoneIds.add(subZone.getId());
+            }
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        for (int i = 0; i < WARMUP_POSTS; i++) {
+            queueManualRequests(subZoneIds, i);
+            postReadings(body);
+        }
+
+        long[] samples = new long[MEASURED_POSTS];
+        long statements = 0;
+        for (int i = 0; i < MEASURED_POSTS; i++) {
+            queueManualRequests(subZoneIds, i);
+            statistics.clear();
+            long start = System.nanoTime();
+            postReadings(body);
+            samples[i] = System.nanoTime() - start;
+            statements += statistics.getPrepareStatementCount();
+        }
+        Arrays.sort(samples);
+        System.out.printf("subzones=%d avg=%dus p95=%dus p99=%dus statements/post=%.1f%n", subZoneCount,
+                Arrays.stream(samples).sum() / MEASURED_POSTS / 1_000,
+                samples[(int) (MEASURED_POSTS * 0.95)] / 1_000,
+                samples[(int) (MEASURED_POSTS * 0.99)] / 1_000,
+                (double) statements / MEASURED_POSTS);
+    }
+
+    private void queueManualRequests(List<Integer> subZoneIds, int round) {
+        for (int i = 0; i < MANUAL_REQUESTS_PER_POST; i++) {
+            subZoneService.triggerManualIrrigation(subZoneIds.get((round * MANUAL_REQUESTS_PER_POST + i) % subZoneIds.size()));
+        }
+    }
+
+    private void postReadings(byte[] body) throws Exception {
+        mockMvc.perform(post("/api/zones/readings")
+                        .with(user("espNode").roles("ESP_NODE"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk());
+    }
+
+    private static SensorDataRequest request(int subZoneCount) {
+        SensorDataRequest request = new SensorDataRequest();
+        request.setControllerUid(CONTROLLER_UID);
+        request.setSubZones(IntStream.range(0, subZoneCount).mapToObj(i -> {
+            SensorDataRequest.SubzoneData data = new SensorDataRequest.SubzoneData();
+            data.setSubzoneIndex(i);
+            // half of the valves report dry soil
+            data.setSoilMoisturePercent(i % 2 == 0 ? 30 : 60);
+            data.setRainDetected(false);
+            return data;
+        }).collect(Collectors.toList()));
+        return request;
+    }
+}
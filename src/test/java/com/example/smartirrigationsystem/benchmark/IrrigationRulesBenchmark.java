@@ -0,0 +1,88 @@
+package com.example.smartirrigationsystem.benchmark;
+
+import com.example.smartirrigationsystem.entity.PlantType;
+import com.example.smartirrigationsystem.entity.SoilType;
+import com.example.smartirrigationsystem.service.IrrigationRules;
+import com.example.smartirrigationsystem.service.StubWeatherForecastProvider;
+import com.example.smartirrigationsystem.service.SubZoneState;
+import com.example.smartirrigationsystem.service.SubZoneStateCache;
+import com.example.smartirrigationsystem.service.WeatherForecastCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Decisions per second of the compiled irrigation rules on one thread, and bytes allocated
+ * per decision, over a mix of subzones where most readings need no irrigation. Run with:
+ * <pre>mvn test -Dbenchmark=true -Dtest=IrrigationRulesBenchmark [-Dbenchmark.decisions=50000000]</pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class IrrigationRulesBenchmark {
+
+    private static final int SUBZONES = 4096;
+    private static final int PLANT_TYPES = 20;
+    private static final int SOIL_TYPES = 8;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void decisionsPerSecond() {
+        long decisions = Long.getLong("benchmark.decisions", 50_000_000L);
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+        List<PlantType> plants = new ArrayList<>();
+        for (int i = 1; i <= PLANT_TYPES; i++) {
+            plants.add(new PlantType(i, "plant " + i, null, 30 + random.nextInt(20), 70));
+        }
+        List<SoilType> soils = new ArrayList<>();
+        for (int i = 1; i <= SOIL_TYPES; i++) {
+            soils.add(new SoilType(i, "soil " + i, null, i % 2 == 0 ? 30 * i : null));
+        }
+        WeatherForecastCache forecastCache = new WeatherForecastCache(new StubWeatherForecastProvider(0), 0.1, 30, 0.2);
+        IrrigationRules rules = IrrigationRules.compile(plants, soils, 60, 60, forecastCache);
+
+        SubZoneStateCache.ControllerState controller = new SubZoneStateCache.ControllerState(1);
+        SubZoneState[] states = new SubZoneState[SUBZONES];
+        int[] moisture = new int[SUBZONES];
+        boolean[] raining = new boolean[SUBZONES];
+        for (int i = 0; i < SUBZONES; i++) {
+            SubZoneState state = new SubZoneState(i + 1, i % 8);
+            state.setPlantTypeId(random.nextInt(PLANT_TYPES + 2)); // a few without a known plant type
+            state.setSoilTypeId(random.nextInt(SOIL_TYPES + 1));
+            state.setIrrigationIssue(random.nextInt(50) == 0);
+            if (random.nextInt(10) == 0) {
+                state.setPendingRequestedAt(now.minusHours(random.nextInt(30)));
+            }
+            state.setLastIrrigationStart(now.minusMinutes(random.nextInt(600)));
+            states[i] = state;
+            moisture[i] = 20 + random.nextInt(60);
+            raining[i] = random.nextInt(10) == 0;
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long sink = 0;
+        for (int round = 0; round <= ROUNDS; round++) {
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            for (long n = 0; n < decisions; n++) {
+                int i = (int) (n & (SUBZONES - 1));
+                sink += rules.evaluate(states[i], moisture[i], raining[i], now, controller).ordinal();
+            }
+            long nanos = System.nanoTime() - start;
+            long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            // round 0 is warmup
+            if (round > 0) {
+                System.out.printf("round=%d decisions/s=%.1fM ns/decision=%.1f bytes/decision=%.3f%n",
+                        round, decisions * 1e3 / nanos, (double) nanos / decisions, (double) allocated / decisions);
+            }
+        }
+        System.out.println("checksum=" + sink);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.smartirrigationsystem.benchmark;
+
+import com.example.smartirrigationsystem.dto.IrrigationStatsDto;
+import com.example.smartirrigationsystem.entity.IrrigationHistory;
+import com.example.smartirrigationsystem.entity.SubZone;
+import com.example.smartirrigationsystem.entity.TriggeredBy;
+import com.example.smartirrigationsystem.entity.Zone;
+import com.example.smartirrigationsystem.repository.IrrigationHistoryBatchRepository;
+import com.example.smartirrigationsystem.repository.ZoneRepository;
+import com.example.smartirrigationsystem.service.IrrigationStatsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Latency of the irrigation analytics: a monthly report over all zones and a per-day report of
+ * one zone, with {@code benchmark.subzones} subzones irrigated a few times a day for 90 days.
+ * Run with:
+ * <pre>mvn test -Dbenchmark=true -Dtest=IrrigationStatsBenchmark [-Dbenchmark.subzones=2000]</pre>
+ */
+@SpringBootTest
+@ActiveProfiles("bench")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class IrrigationStatsBenchmark {
+
+    private static final int SUBZONES_PER_ZONE = 20;
+    private static final int DAYS = 90;
+    private static final int RUNS = 50;
+    private static final LocalDateTime MONTH_START = LocalDateTime.of(2025, 6, 1, 0, 0);
+
+    @Autowired
+    private ZoneRepository zoneRepo;
+    @Autowired
+    private IrrigationHistoryBatchRepository historyBatchRepo;
+    @Autowired
+    private IrrigationStatsService statsService;
+
+    @Test
+    void reportLatency() {
+        int subZoneCount = Integer.getInteger("benchmark.subzones", 2_000);
+        Random random = new Random(7);
+        List<Zone> zones = new ArrayList<>();
+        long rows = 0;
+        for (int z = 0; z < subZoneCount / SUBZONES_PER_ZONE; z++) {
+            Zone zone = new Zone("bench-stats-" + z);
+            for (int i = 0; i < SUBZONES_PER_ZONE; i++) {
+                zone.getSubZones().add(new SubZone(i, zone));
+            }
+            zone = zoneRepo.save(zone);
+            zones.add(zone);
+            List<IrrigationHistory> history = new ArrayList<>();
+            for (SubZone subZone : zone.getSubZones()) {
+                LocalDateTime start = MONTH_START.minusDays(DAYS / 3);
+                for (int day = 0; day < DAYS; day++) {
+                    for (int run = 0; run < 1 + random.nextInt(4); run++) {
+                        history.add(new IrrigationHistory(null, subZone,
+                                start.plusDays(day).plusMinutes(360 + run * 180 + random.nextInt(60)), null,
+                                random.nextInt(5) == 0 ? TriggeredBy.manual : TriggeredBy.auto,
+                                20 + random.nextInt(200)));
+                    }
+                }
+            }
+            historyBatchRepo.insertAll(history);
+            rows += history.size();
+        }
+
+        LocalDateTime monthEnd = MONTH_START.plusMonths(1);
+        long[] allZones = measure(() -> statsService.getAllZoneStats(MONTH_START, monthEnd).size());
+        long[] oneZone = measure(() -> statsService.getZoneStats(zones.get(zones.size() / 2).getId(),
+                MONTH_START, monthEnd, "day").getBuckets().size());
+        System.out.printf("history rows=%d subzones=%d%n", rows, subZoneCount);
+        System.out.printf("all zones, month:     avg=%.1fms p95=%.1fms%n", avg(allZones), p95(allZones));
+        System.out.printf("one zone, month/day:  avg=%.1fms p95=%.1fms%n", avg(oneZone), p95(oneZone));
+    }
+
+    private interface Report {
+        int run();
+    }
+
+    private static long[] measure(Report report) {
+        for (int i = 0; i < RUNS / 5; i++) {
+            report.run();
+        }
+        long[] samples = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            report.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static double avg(long[] samples) {
+        return Arrays.stream(samples).average().orElse(0) / 1e6;
+    }
+
+    private static double p95(long[] samples) {
+        return samples[(int) (samples.length * 0.95)] / 1e6;
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.smartirrigationsystem.benchmark;
+
+import com.example.smartirrigationsystem.SmartIrrigationSystemApplication;
+import com.example.smartirrigationsystem.dto.SensorDataRequest;
+import com.example.smartirrigationsystem.entity.PlantType;
+import com.example.smartirrigationsystem.entity.SoilType;
+import com.example.smartirrigationsystem.entity.SubZone;
+import com.example.smartirrigationsystem.repository.PlantTypeRepository;
+import com.example.smartirrigationsystem.repository.SoilTypeRepository;
+import com.example.smartirrigationsystem.repository.SubZoneRepository;
+import com.example.smartirrigationsystem.repository.ZoneRepository;
+import com.example.smartirrigationsystem.service.SubZoneService;
+import com.example.smartirrigationsystem.service.SubZoneStateCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL statements Hibernate prepares per request with the second-level cache off and on, each
+ * mode in its own application context. "post (cold)" is a controller post after its entry in
+ * SubZoneStateCache was dropped, i.e. the zone is resolved by controllerUid again; a warm post
+ * reads nothing through Hibernate in either mode. Run with:
+ * <pre>mvn test -Dbenchmark=true -Dtest=SecondLevelCacheBenchmark [-Dbenchmark.controllers=200]</pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SecondLevelCacheBenchmark {
+
+    private static final int SUBZONES_PER_CONTROLLER = 4;
+
+    @Test
+    void statementsPerRequest() throws Exception {
+        int controllers = Integer.getInteger("benchmark.controllers", 200);
+        List<String> results = new ArrayList<>();
+        for (boolean cached : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SmartIrrigationSystemApplication.class)
+                    .profiles("bench")
+                    .run("--server.port=0",
+                            "--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + cached,
+                            "--spring.jpa.properties.hibernate.cache.use_query_cache=" + cached,
+                            "--spring.datasource.url=jdbc:h2:mem:l2-" + cached + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE")) {
+                results.addAll(run(context, cached ? "on" : "off", controllers));
+            }
+        }
+        System.out.printf("%-5s %-14s %10s %10s%n", "l2", "request", "stmts/req", "avg(us)");
+        results.forEach(System.out::println);
+    }
+
+    private List<String> run(ConfigurableApplicationContext context, String mode, int controllers) throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .apply(springSecurity())
+                .build();
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        ZoneRepository zoneRepo = context.getBean(ZoneRepository.class);
+        SubZoneRepository subZoneRepo = context.getBean(SubZoneRepository.class);
+        SubZoneService subZoneService = context.getBean(SubZoneService.class);
+        SubZoneStateCache stateCache = context.getBean(SubZoneStateCache.class);
+        PlantType[] plants = {
+                context.getBean(PlantTypeRepository.class).save(new PlantType(null, "tomato", null, 40, 60)),
+                context.getBean(PlantTypeRepository.class).save(new PlantType(null, "lawn", null, 30, 50))};
+        SoilType[] soils = {
+                context.getBean(SoilTypeRepository.class).save(new SoilType(null, "clay", null, 90)),
+                context.getBean(SoilTypeRepository.class).save(new SoilType(null, "sand", null, 20))};
+
+        List<String> uids = new ArrayList<>();
+        List<byte[]> bodies = new ArrayList<>();
+        for (int i = 0; i < controllers; i++) {
+            uids.add("l2-" + i);
+            bodies.add(objectMapper.writeValueAsBytes(request(uids.get(i))));
+            mockMvc.perform(readings(bodies.get(i))).andExpect(status().isOk());
+        }
+        List<Integer> zoneIds = new ArrayList<>();
+        List<Integer> subZoneIds = new ArrayList<>();
+        for (String uid : uids) {
+            zoneIds.add(zoneRepo.findByControllerUid(uid).getId());
+        }
+        for (SubZone subZone : subZoneRepo.findAll()) {
+            subZone.setPlantType(plants[subZone.getSubzoneIndex() % plants.length]);
+            subZone.setSoilType(soils[subZone.getSubzoneIndex() / 2 % soils.length]);
+            subZoneService.save(subZone);
+            subZoneIds.add(subZone.getId());
+        }
+
+        Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        List<String> rows = new ArrayList<>();
+        // every request runs once unmeasured to fill the cache, as after some uptime
+        for (int round = 0; round < 2; round++) {
+            boolean measured = round == 1;
+            rows.add(measure(mode, "post (warm)", statistics, controllers, measured,
+                    i -> mockMvc.perform(readings(bodies.get(i))).andExpect(status().isOk())));
+            rows.add(measure(mode, "post (cold)", statistics, controllers, measured, i -> {
+                stateCache.evictController(uids.get(i));
+                mockMvc.perform(readings(bodies.get(i))).andExpect(status().isOk());
+            }));
+            rows.add(measure(mode, "GET zone", statistics, controllers, measured,
+                    i -> mockMvc.perform(viewer(get("/api/zones/{id}", zoneIds.get(i)))).andExpect(status().isOk())));
+            rows.add(measure(mode, "GET subzone", statistics, subZoneIds.size(), measured,
+                    i -> mockMvc.perform(viewer(get("/api/zones/{zoneId}/subzones/{id}", 0, subZoneIds.get(i))))
+                            .andExpect(status().isOk())));
+            rows.add(measure(mode, "GET roles", statistics, controllers, measured,
+                    i -> mockMvc.perform(get("/api/roles").with(user("admin").roles("ADMIN"))).andExpect(status().isOk())));
+        }
+        return rows.subList(rows.size() / 2, rows.size());
+    }
+
+    private interface Request {
+        void perform(int i) throws Exception;
+    }
+
+    private static String measure(String mode, String name, Statistics statistics, int count, boolean measured,
+                                  Request request) throws Exception {
+        statistics.clear();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            request.perform(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        return !measured ? "" : String.format("%-5s %-14s %10.2f %10d", mode, name,
+                (double) statistics.getPrepareStatementCount() / count, elapsed / count / 1_000);
+    }
+
+    private static RequestBuilder readings(byte[] body) {
+        return post("/api/zones/readings")
+                .with(user("espNode").roles("ESP_NODE"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+
+    private static RequestBuilder viewer(MockHttpServletRequestBuilder request) {
+        return request.with(user("viewer").roles("VIEWER"));
+    }
+
+    private static SensorDataRequest request(String controllerUid) {
+        SensorDataRequest request = new SensorDataRequest();
+        request.setControllerUid(controllerUid);
+        List<SensorDataRequest.SubzoneData> subZones = new ArrayList<>();
+        for (int i = 0; i < SUBZONES_PER_CONTROLLER; i++) {
+            SensorDataRequest.SubzoneData data = new SensorDataRequest.SubzoneData();
+            data.setSubzoneIndex(i);
+            // wet soil, so no irrigation is planned and the warm post stays read-only
+            data.setSoilMoisturePercent(80);
+            data.setRainDetected(false);
+            subZones.add(data);
+        }
+        request.setSubZones(subZones);
+        return request;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.smartirrigationsystem.benchmark;
+
+import com.example.smartirrigationsystem.controller.SensorFrameCodec;
+import com.example.smartirrigationsystem.dto.PlannedIrrigationResponse;
+import com.example.smartirrigationsystem.dto.SensorDataRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Binary frames vs JSON for the controller post: bytes on the wire for request and plan,
+ * and server-side cost of parsing the request / writing the plan, using the application's
+ * ObjectMapper. Run with:
+ * <pre>mvn test -Dbenchmark=true -Dtest=SensorFrameBenchmark [-Dbenchmark.iterations=200000]</pre>
+ */
+@SpringBootTest
+@ActiveProfiles("bench")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SensorFrameBenchmark {
+
+    private static final int[] SUBZONE_COUNTS = {8, 24, 128};
+
+    private interface Task {
+        Object run() throws Exception;
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void frameVersusJson() throws Exception {
+        int iterations = Integer.getInteger("benchmark.iterations", 200_000);
+        for (int count : SUBZONE_COUNTS) {
+            SensorDataRequest req = request(count);
+            PlannedIrrigationResponse plan = plan(count);
+            byte[] json = objectMapper.writeValueAsBytes(req);
+            byte[] frame = SensorFrameCodec.encode(req).array();
+            byte[] planJson = objectMapper.writeValueAsBytes(plan);
+
+            measure("json  parse", count, iterations, () -> objectMapper.readValue(json, SensorDataRequest.class));
+            measure("frame parse", count, iterations, () -> SensorFrameCodec.decode(ByteBuffer.wrap(frame)));
+            measure("json  write", count, iterations, () -> objectMapper.writeValueAsBytes(plan));
+            measure("frame write", count, iterations, () -> {
+                ByteBuffer out = ByteBuffer.allocate(SensorFrameCodec.encodedSize(plan));
+                SensorFrameCodec.encode(plan, out);
+                return out;
+            });
+            System.out.printf("subzones=%d request bytes json=%d frame=%d, plan bytes json=%d frame=%d%n",
+                    count, json.length, frame.length, planJson.length, SensorFrameCodec.encodedSize(plan));
+        }
+    }
+
+    private static void measure(String name, int count, int iterations, Task task) throws Exception {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += task.run().hashCode() & 1;
+        }
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += task.run().hashCode() & 1;
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        System.out.printf("%s subzones=%d ns/op=%d bytes allocated/op=%d (%d)%n",
+                name, count, nanos / iterations, allocated / iterations, sink);
+    }
+
+    private static SensorDataRequest request(int count) {
+        Random random = new Random(count);
+        SensorDataRequest req = new SensorDataRequest();
+        req.setControllerUid("esp32-a4cf12b6e0d1");
+        req.setSequenceNumber(1_718_000_000_000L);
+        List<SensorDataRequest.SubzoneData> subZones = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            SensorDataRequest.SubzoneData data = new SensorDataRequest.SubzoneData();
+            data.setSubzoneIndex(i);
+            data.setSoilMoisturePercent(random.nextInt(101));
+            data.setRainDetected(random.nextInt(10) == 0);
+            subZones.add(data);
+        }
+        req.setSubZones(subZones);
+        return req;
+    }
+
+    private static PlannedIrrigationResponse plan(int count) {
+        List<PlannedIrrigationResponse.SubZonePlan> plans = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            PlannedIrrigationResponse.SubZonePlan plan =
+                    new PlannedIrrigationResponse.SubZonePlan(i, i % 4 == 0 ? 120 : 0);
+            plan.setStartOffsetInSeconds(i % 4 == 0 ? 30 * i : 0);
+            plans.add(plan);
+        }
+        return new PlannedIrrigationResponse(plans);
+    }
+}
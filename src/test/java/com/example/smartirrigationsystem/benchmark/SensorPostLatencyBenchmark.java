@@ -0,0 +1,131 @@
+package com.example.smartirrigationsystem.benchmark;
+
+import com.example.smartirrigationsystem.dto.SensorDataRequest;
+import com.example.smartirrigationsystem.entity.PlantType;
+import com.example.smartirrigationsystem.entity.SubZone;
+import com.example.smartirrigationsystem.entity.Zone;
+import com.example.smartirrigationsystem.repository.PlantTypeRepository;
+import com.example.smartirrigationsystem.repository.SubZoneRepository;
+import com.example.smartirrigationsystem.repository.ZoneRepository;
+import com.example.smartirrigationsystem.service.SubZoneService;
+import com.example.smartirrigationsystem.service.ZoneService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Latency of one controller post (ingest + plan) while the subzone's reading and
+ * irrigation history grows. Run with:
+ * <pre>mvn test -Dbenchmark=true -Dtest=SensorPostLatencyBenchmark [-Dbenchmark.rows=10000,100000,1000000]</pre>
+ */
+@SpringBootTest
+@ActiveProfiles("bench")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SensorPostLatencyBenchmark {
+
+    private static final String CONTROLLER_UID = "bench-latency";
+    private static final int SEED_CHUNK = 10_000;
+    private static final int WARMUP_POSTS = 50;
+    private static final int MEASURED_POSTS = 200;
+
+    @Autowired
+    private ZoneService zoneService;
+    @Autowired
+    private SubZoneService subZoneService;
+    @Autowired
+    private ZoneRepository zoneRepo;
+    @Autowired
+    private SubZoneRepository subZoneRepo;
+    @Autowired
+    private PlantTypeRepository plantTypeRepo;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void postLatencyStaysFlatAsHistoryGrows() {
+        long[] targets = Arrays.stream(System.getProperty("benchmark.rows", "0,10000,100000,1000000").split(","))
+                .mapToLong(Long::parseLong)
+                .toArray();
+
+        SensorDataRequest request = request(CONTROLLER_UID);
+        zoneService.ingestSensorData(request);
+        Zone zone = zoneRepo.findByControllerUid(CONTROLLER_UID);
+        SubZone subZone = subZoneRepo.findAll().stream()
+                .filter(sz -> sz.getZone().getId().equals(zone.getId()))
+                .findFirst()
+                .orElseThrow();
+        // plant type with a high minimum, so every post goes through the auto-irrigation checks
+        subZone.setPlantType(plantTypeRepo.save(new PlantType(null, "bench", null, 90, 95)));
+        subZoneService.save(subZone);
+
+        System.out.printf("%12s %12s %12s%n", "historyRows", "avg(us)", "p95(us)");
+        long seeded = 0;
+        for (long target : targets) {
+            seed(subZone.getId(), seeded, target);
+            seeded = Math.max(seeded, target);
+
+            for (int i = 0; i < WARMUP_POSTS; i++) {
+                post(request);
+            }
+            long[] samples = new long[MEASURED_POSTS];
+            for (int i = 0; i < MEASURED_POSTS; i++) {
+                long start = System.nanoTime();
+                post(request);
+                samples[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(samples);
+            System.out.printf("%12d %12d %12d%n", seeded,
+                    Arrays.stream(samples).sum() / MEASURED_POSTS / 1_000,
+                    samples[(int) (MEASURED_POSTS * 0.95)] / 1_000);
+        }
+    }
+
+    private void post(SensorDataRequest request) {
+        zoneService.ingestSensorData(request);
+        zoneService.calculatePlannedIrrigation(request.getControllerUid());
+    }
+
+    // grows soil, rain and irrigation history tables of the subzone from `from` to `to` rows each
+    private void seed(Integer subZoneId, long from, long to) {
+        LocalDateTime base = LocalDateTime.now().minusYears(1);
+        for (long offset = from; offset < to; offset += SEED_CHUNK) {
+            List<Object[]> readingRows = new ArrayList<>();
+            List<Object[]> historyRows = new ArrayList<>();
+            for (long i = offset; i < Math.min(to, offset + SEED_CHUNK); i++) {
+                Timestamp at = Timestamp.valueOf(base.plusSeconds(i));
+                readingRows.add(new Object[]{subZoneId, (int) (i % 100), at});
+                historyRows.add(new Object[]{subZoneId, at, "auto", 30});
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO soil_moisture_readings (subzone_id, moisture_percent, recorded_at) VALUES (?, ?, ?)",
+                    readingRows);
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO rain_sensor_readings (subzone_id, is_raining, recorded_at) VALUES (?, ?, ?)",
+                    readingRows.stream().map(r -> new Object[]{r[0], false, r[2]}).collect(Collectors.toList()));
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO irrigation_history (subzone_id, start_time, triggered_by, duration_seconds) VALUES (?, ?, ?, ?)",
+                    historyRows);
+        }
+    }
+
+    private static SensorDataRequest request(String controllerUid) {
+        SensorDataRequest.SubzoneData data = new SensorDataRequest.SubzoneData();
+        data.setSubzoneIndex(0);
+        data.setSoilMoisturePercent(20);
+        data.setRainDetected(false);
+        SensorDataRequest request = new SensorDataRequest();
+        request.setControllerUid(controllerUid);
+        request.setSubZones(List.of(data));
+        return request;
+    }
+}
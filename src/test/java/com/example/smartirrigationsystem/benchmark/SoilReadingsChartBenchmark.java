@@ -0,0 +1,109 @@
+package com.example.smartirrigationsystem.benchmark;
+
+import com.example.smartirrigationsystem.dto.SensorDataRequest;
+import com.example.smartirrigationsystem.dto.SensorReading;
+import com.example.smartirrigationsystem.dto.SoilMoistureReadingDto;
+import com.example.smartirrigationsystem.entity.ReadingResolution;
+import com.example.smartirrigationsystem.entity.SubZone;
+import com.example.smartirrigationsystem.entity.Zone;
+import com.example.smartirrigationsystem.repository.SensorReadingStore;
+import com.example.smartirrigationsystem.repository.SoilMoistureRollupRepository;
+import com.example.smartirrigationsystem.repository.SubZoneRepository;
+import com.example.smartirrigationsystem.repository.ZoneRepository;
+import com.example.smartirrigationsystem.service.SubZoneService;
+import com.example.smartirrigationsystem.service.ZoneService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Cost of one soil-readings chart request over the last 30 days of a subzone that
+ * reports once a minute, raw versus the rolled-up resolutions. Run with:
+ * <pre>mvn test -Dbenchmark=true -Dtest=SoilReadingsChartBenchmark [-Dbenchmark.days=90]</pre>
+ */
+@SpringBootTest
+@ActiveProfiles("bench")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SoilReadingsChartBenchmark {
+
+    private static final String CONTROLLER_UID = "bench-chart";
+    private static final int SEED_CHUNK = 500;
+    private static final int MEASURED_REQUESTS = 20;
+
+    @Autowired
+    private ZoneService zoneService;
+    @Autowired
+    private SubZoneService subZoneService;
+    @Autowired
+    private ZoneRepository zoneRepo;
+    @Autowired
+    private SubZoneRepository subZoneRepo;
+    @Autowired
+    private SensorReadingStore readingStore;
+    @Autowired
+    private SoilMoistureRollupRepository rollupRepository;
+
+    @Test
+    void chartLatencyPerResolution() {
+        int days = Integer.getInteger("benchmark.days", 90);
+        zoneService.ingestSensorData(request());
+        Zone zone = zoneRepo.findByControllerUid(CONTROLLER_UID);
+        SubZone subZone = subZoneRepo.findAll().stream()
+                .filter(sz -> sz.getZone().getId().equals(zone.getId()))
+                .findFirst()
+                .orElseThrow();
+
+        // same path as the ingest writer: store + rollups, one flush-sized batch at a time
+        LocalDateTime end = LocalDateTime.of(2025, 9, 1, 0, 0);
+        LocalDateTime start = end.minusDays(days);
+        List<SensorReading> batch = new ArrayList<>(SEED_CHUNK);
+        for (LocalDateTime t = start; t.isBefore(end); t = t.plusMinutes(1)) {
+            batch.add(new SensorReading(subZone.getId(), (int) (t.getMinute() + t.getHour()) % 100, false, t));
+            if (batch.size() == SEED_CHUNK) {
+                readingStore.appendAll(batch);
+                rollupRepository.addAll(batch);
+                batch.clear();
+            }
+        }
+        readingStore.appendAll(batch);
+        rollupRepository.addAll(batch);
+
+        LocalDateTime from = end.minusDays(30);
+        List<SoilMoistureReadingDto> daily =
+                subZoneService.getSoilReadingsForSubzone(subZone.getId(), from, end, ReadingResolution.DAILY);
+        assertEquals(30, daily.size());
+
+        System.out.printf("%-8s %10s %10s%n", "res", "points", "avg(us)");
+        for (ReadingResolution resolution : ReadingResolution.values()) {
+            int points = 0;
+            long[] samples = new long[MEASURED_REQUESTS];
+            for (int i = 0; i < MEASURED_REQUESTS; i++) {
+                long t0 = System.nanoTime();
+                points = subZoneService.getSoilReadingsForSubzone(subZone.getId(), from, end, resolution).size();
+                samples[i] = System.nanoTime() - t0;
+            }
+            System.out.printf("%-8s %10d %10d%n", resolution.getParam(), points,
+                    Arrays.stream(samples).sum() / MEASURED_REQUESTS / 1_000);
+        }
+    }
+
+    private static SensorDataRequest request() {
+        SensorDataRequest.SubzoneData data = new SensorDataRequest.SubzoneData();
+        data.setSubzoneIndex(0);
+        data.setSoilMoisturePercent(50);
+        data.setRainDetected(false);
+        SensorDataRequest request = new SensorDataRequest();
+        request.setControllerUid(CONTROLLER_UID);
+        request.setSubZones(List.of(data));
+        return request;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.smartirrigationsystem.benchmark;
+
+import com.example.smartirrigationsystem.entity.SubZone;
+import com.example.smartirrigationsystem.entity.Zone;
+import com.example.smartirrigationsystem.repository.SubZoneRepository;
+import com.example.smartirrigationsystem.repository.ZoneRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Dashboard first load: GET /api/zones with many zones whose subzones carry reading and
+ * irrigation history. Reports latency, prepared statements and response size. Run with:
+ * <pre>mvn test -Dbenchmark=true -Dtest=ZoneListBenchmark [-Dbenchmark.zones=50 -Dbenchmark.rows=200]</pre>
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("bench")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ZoneListBenchmark {
+
+    private static final int SUBZONES_PER_ZONE = 8;
+    private static final int WARMUP_REQUESTS = 5;
+    private static final int MEASURED_REQUESTS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ZoneRepository zoneRepo;
+    @Autowired
+    private SubZoneRepository subZoneRepo;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void zoneListLatency() throws Exception {
+        int zoneCount = Integer.getInteger("benchmark.zones", 50);
+        int rowsPerSubZone = Integer.getInteger("benchmark.rows", 200);
+        seed(zoneCount, rowsPerSubZone);
+
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            list();
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        long[] samples = new long[MEASURED_REQUESTS];
+        int bytes = 0;
+        for (int i = 0; i < MEASURED_REQUESTS; i++) {
+            long start = System.nanoTime();
+            bytes = list();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        System.out.printf("zones=%d rows/subzone=%d avg=%dms p95=%dms statements/request=%.1f bytes=%d%n",
+                zoneCount, rowsPerSubZone,
+                Arrays.stream(samples).sum() / MEASURED_REQUESTS / 1_000_000,
+                samples[(int) (MEASURED_REQUESTS * 0.95)] / 1_000_000,
+                (double) statistics.getPrepareStatementCount() / MEASURED_REQUESTS,
+                bytes);
+    }
+
+    private int list() throws Exception {
+        return mockMvc.perform(get("/api/zones").with(user("viewer").roles("VIEWER")))
+                .andReturn().getResponse().getContentAsByteArray().length;
+    }
+
+    private void seed(int zoneCount, int rowsPerSubZone) {
+        LocalDateTime base = LocalDateTime.now().minusDays(30);
+        for (int z = 0; z < zoneCount; z++) {
+            Zone zone = new Zone("bench-list-" + z);
+            zone.setName("Zone " + z);
+            zone.setLatitude(49.8);
+            zone.setLongitude(24.0);
+            for (int s = 0; s < SUBZONES_PER_ZONE; s++) {
+                zone.getSubZones().add(new SubZone(s, zone));
+            }
+            zoneRepo.save(zone);
+            for (SubZone subZone : zone.getSubZones()) {
+                List<Object[]> readingRows = new ArrayList<>();
+                List<Object[]> historyRows = new ArrayList<>();
+                for (int i = 0; i < rowsPerSubZone; i++) {
+                    Timestamp at = Timestamp.valueOf(base.plusMinutes(i));
+                    readingRows.add(new Object[]{subZone.getId(), i % 100, at});
+                    historyRows.add(new Object[]{subZone.getId(), at, "auto", 30});
+                }
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO soil_moisture_readings (subzone_id, moisture_percent, recorded_at) VALUES (?, ?, ?)",
+                        readingRows);
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO irrigation_history (subzone_id, start_time, triggered_by, duration_seconds) VALUES (?, ?, ?, ?)",
+                        historyRows);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.smartirrigationsystem.controller;
+
+import com.example.smartirrigationsystem.dto.PlannedIrrigationResponse;
+import com.example.smartirrigationsystem.dto.SensorDataRequest;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SensorFrameCodecTest {
+
+    private static SensorDataRequest request(Long sequenceNumber) {
+        SensorDataRequest req = new SensorDataRequest();
+        req.setControllerUid("esp32-01");
+        req.setSequenceNumber(sequenceNumber);
+        List<SensorDataRequest.SubzoneData> subZones = new ArrayList<>();
+        for (int index : new int[]{0, 7, 300}) {
+            SensorDataRequest.SubzoneData data = new SensorDataRequest.SubzoneData();
+            data.setSubzoneIndex(index);
+            data.setSoilMoisturePercent(index == 7 ? 100 : 35);
+            data.setRainDetected(index == 300);
+            subZones.add(data);
+        }
+        req.setSubZones(subZones);
+        return req;
+    }
+
+    @Test
+    void requestRoundTrip() {
+        SensorDataRequest req = request(1_718_000_000_123L);
+        ByteBuffer frame = SensorFrameCodec.encode(req);
+        assertEquals(3 + 8 + 8 + 2 + 3 * 3, frame.remaining());
+        assertEquals(req, SensorFrameCodec.decode(frame));
+
+        SensorDataRequest withoutSequence = SensorFrameCodec.decode(SensorFrameCodec.encode(request(null)));
+        assertNull(withoutSequence.getSequenceNumber());
+        assertEquals(request(null), withoutSequence);
+    }
+
+    @Test
+    void responseLayout() {
+        PlannedIrrigationResponse.SubZonePlan plan = new PlannedIrrigationResponse.SubZonePlan(300, 90);
+        plan.setStartOffsetInSeconds(70_000);
+        PlannedIrrigationResponse response = new PlannedIrrigationResponse(List.of(plan));
+        ByteBuffer out = ByteBuffer.allocate(SensorFrameCodec.encodedSize(response));
+        SensorFrameCodec.encode(response, out);
+
+        out.flip();
+        assertEquals(SensorFrameCodec.VERSION, out.get());
+        assertEquals(1, out.getShort());
+        assertEquals(300, out.getShort());
+        assertEquals(90, out.getShort());
+        assertEquals(70_000, out.getInt());
+        assertEquals(0, out.remaining());
+    }
+
+    @Test
+    void rejectsMalformedFrames() {
+        byte[] frame = SensorFrameCodec.encode(request(5L)).array();
+        assertThrows(IllegalArgumentException.class,
+                () -> SensorFrameCodec.decode(ByteBuffer.wrap(Arrays.copyOf(frame, frame.length - 1))));
+        assertThrows(IllegalArgumentException.class,
+                () -> SensorFrameCodec.decode(ByteBuffer.wrap(Arrays.copyOf(frame, 12))));
+        byte[] wrongVersion = frame.clone();
+        wrongVersion[0] = 2;
+        assertThrows(IllegalArgumentException.class, () -> SensorFrameCodec.decode(ByteBuffer.wrap(wrongVersion)));
+    }
+}
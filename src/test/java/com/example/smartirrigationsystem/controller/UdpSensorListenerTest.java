@@ -0,0 +1,188 @@
+package com.example.smartirrigationsystem.controller;
+
+import com.example.smartirrigationsystem.dto.PlannedIrrigationResponse;
+import com.example.smartirrigationsystem.dto.SensorDataRequest;
+import com.example.smartirrigationsystem.repository.ZoneRepository;
+import com.example.smartirrigationsystem.security.DeviceKeyRegistry;
+import com.example.smartirrigationsystem.service.IngestAdmission;
+import com.example.smartirrigationsystem.service.SensorPostDeduplicator;
+import com.example.smartirrigationsystem.service.ZoneService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UdpSensorListenerTest {
+
+    private static final String KEY = DeviceKeyRegistry.newKey();
+
+    private final ZoneService zoneService = mock(ZoneService.class);
+    private final DeviceKeyRegistry deviceKeys = new DeviceKeyRegistry(mock(ZoneRepository.class), 30);
+    private UdpSensorListener listener;
+    private DatagramSocket client;
+
+    @BeforeEach
+    void start() throws Exception {
+        PlannedIrrigationResponse.SubZonePlan plan = new PlannedIrrigationResponse.SubZonePlan(2, 90);
+        plan.setStartOffsetInSeconds(45);
+        when(zoneService.ingestAndPlan(any())).thenReturn(new PlannedIrrigationResponse(List.of(plan)));
+
+        deviceKeys.register("esp-1", DeviceKeyRegistry.verifier(KEY), DeviceKeyRegistry.udpMacKey(KEY));
+        String other = DeviceKeyRegistry.newKey();
+        deviceKeys.register("esp-2", DeviceKeyRegistry.verifier(other), DeviceKeyRegistry.udpMacKey(other));
+        listener = new UdpSensorListener(zoneService, new SensorPostDeduplicator(4),
+                new IngestAdmission(4, 1_000), deviceKeys, "127.0.0.1", 0, 2);
+        listener.start();
+        client = new DatagramSocket();
+        client.setSoTimeout(2_000);
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        client.close();
+        listener.stop();
+    }
+
+    // the controller keys its MACs with HMAC-SHA256(device key, "udp-frame")
+    private static byte[] macKey() throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(KEY.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return mac.doFinal("udp-frame".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] mac(byte[] key, byte[] data, int length) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(key, "HmacSHA256"));
+        mac.update(data, 0, length);
+        return Arrays.copyOf(mac.doFinal(), UdpSensorListener.MAC_LENGTH);
+    }
+
+    private static byte[] datagram(Long sequenceNumber) throws Exception {
+        return datagram("esp-1", sequenceNumber, macKey());
+    }
+
+    private static byte[] datagram(String controllerUid, Long sequenceNumber, byte[] macKey) throws Exception {
+        SensorDataRequest req = new SensorDataRequest();
+        req.setControllerUid(controllerUid);
+        req.setSequenceNumber(sequenceNumber);
+        SensorDataRequest.SubzoneData data = new SensorDataRequest.SubzoneData();
+        data.setSubzoneIndex(2);
+        data.setSoilMoisturePercent(21);
+        req.setSubZones(List.of(data));
+
+        ByteBuffer frame = SensorFrameCodec.encode(req);
+        int length = frame.remaining();
+        byte[] datagram = Arrays.copyOf(frame.array(), length + UdpSensorListener.MAC_LENGTH);
+        System.arraycopy(mac(macKey, datagram, length), 0, datagram, length, UdpSensorListener.MAC_LENGTH);
+        return datagram;
+    }
+
+    private void send(byte[] datagram) throws Exception {
+        client.send(new DatagramPacket(datagram, datagram.length, InetAddress.getLoopbackAddress(),
+                listener.getLocalPort()));
+    }
+
+    private byte[] receive() throws Exception {
+        DatagramPacket packet = new DatagramPacket(new byte[512], 512);
+        client.receive(packet);
+        return Arrays.copyOf(packet.getData(), packet.getLength());
+    }
+
+    @Test
+    void answersWithAnAuthenticatedPlan() throws Exception {
+        send(datagram(1L));
+        byte[] reply = receive();
+
+        int length = reply.length - UdpSensorListener.MAC_LENGTH;
+        assertArrayEquals(mac(macKey(), reply, length), Arrays.copyOfRange(reply, length, reply.length));
+        ByteBuffer frame = ByteBuffer.wrap(reply, 0, length);
+        assertEquals(SensorFrameCodec.VERSION, frame.get());
+        assertEquals(1, frame.getShort());
+        assertEquals(2, frame.getShort());
+        assertEquals(90, frame.getShort());
+        assertEquals(45, frame.getInt());
+    }
+
+    @Test
+    void retriesAreAnsweredWithoutIngestingAgain() throws Exception {
+        send(datagram(5L));
+        byte[] first = receive();
+        send(datagram(5L));
+        assertArrayEquals(first, receive());
+        verify(zoneService, times(1)).ingestAndPlan(any());
+    }
+
+    @Test
+    void dropsDatagramsWithABadMac() throws Exception {
+        byte[] datagram = datagram(1L);
+        datagram[datagram.length - 1] ^= 1;
+        send(datagram);
+        send(new byte[]{1, 0});
+        assertThrows(SocketTimeoutException.class, this::receive);
+        verify(zoneService, never()).ingestAndPlan(any());
+    }
+
+    @Test
+    void dropsDatagramsMacedWithAnotherControllersKey() throws Exception {
+        // valid MAC under esp-1's key, but the frame claims to come from esp-2
+        send(datagram("esp-2", 1L, macKey()));
+        send(datagram("esp-unknown", 1L, macKey()));
+        assertThrows(SocketTimeoutException.class, this::receive);
+        verify(zoneService, never()).ingestAndPlan(any());
+    }
+
+    @Test
+    void theStoredVerifierDoesNotSignFrames() throws Exception {
+        send(datagram("esp-1", 1L, HexFormat.of().parseHex(DeviceKeyRegistry.verifier(KEY))));
+        assertThrows(SocketTimeoutException.class, this::receive);
+        verify(zoneService, never()).ingestAndPlan(any());
+    }
+
+    @Test
+    void dropsUnnumberedAndOlderFrames() throws Exception {
+        send(datagram(null));
+        assertThrows(SocketTimeoutException.class, this::receive);
+
+        send(datagram(7L));
+        receive();
+        send(datagram(6L));
+        assertThrows(SocketTimeoutException.class, this::receive);
+        send(datagram(8L));
+        receive();
+        verify(zoneService, times(2)).ingestAndPlan(any());
+    }
+
+    @Test
+    void theLastAcceptedNumberSurvivesARestart() throws Exception {
+        // stored on the zone by an earlier run
+        when(zoneService.findLastUdpSequenceNumber("esp-1")).thenReturn(7L);
+        send(datagram(7L));
+        assertThrows(SocketTimeoutException.class, this::receive);
+        verify(zoneService, never()).ingestAndPlan(any());
+
+        send(datagram(8L));
+        receive();
+        verify(zoneService).saveUdpSequenceNumber("esp-1", 8L);
+    }
+}
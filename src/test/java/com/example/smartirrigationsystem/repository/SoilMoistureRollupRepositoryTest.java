@@ -0,0 +1,82 @@
+package com.example.smartirrigationsystem.repository;
+
+import com.example.smartirrigationsystem.dto.SensorReading;
+import com.example.smartirrigationsystem.dto.SoilMoistureReadingDto;
+import com.example.smartirrigationsystem.entity.ReadingResolution;
+import com.example.smartirrigationsystem.entity.SubZone;
+import com.example.smartirrigationsystem.entity.Zone;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@Import(SoilMoistureRollupRepository.class)
+// the upsert needs H2's MySQL mode, so keep this datasource instead of the default embedded one
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rollups;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class SoilMoistureRollupRepositoryTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 5, 7, 6, 0);
+
+    @Autowired
+    private SoilMoistureRollupRepository rollupRepository;
+    @Autowired
+    private ZoneRepository zoneRepo;
+
+    private static SensorReading reading(Integer subZoneId, LocalDateTime at, int moisture) {
+        return new SensorReading(subZoneId, moisture, false, at);
+    }
+
+    @Test
+    void foldsABatchIntoOneBucketPerSubZoneResolutionAndStart() {
+        List<SoilMoistureRollupRepository.Bucket> buckets = SoilMoistureRollupRepository.fold(List.of(
+                reading(1, T0, 40),
+                reading(1, T0.plusMinutes(4), 20),
+                reading(1, T0.plusMinutes(5), 60),
+                reading(2, T0, 10)));
+
+        // subzone 1: two 5-minute buckets, one hour, one day; subzone 2: one of each
+        assertEquals(7, buckets.size());
+        SoilMoistureRollupRepository.Bucket first = buckets.get(0);
+        assertEquals(ReadingResolution.FIVE_MINUTES, first.resolution);
+        assertEquals(T0, first.start);
+        assertEquals(20, first.min);
+        assertEquals(40, first.max);
+        assertEquals(60, first.sum);
+        assertEquals(2, first.count);
+        SoilMoistureRollupRepository.Bucket day = buckets.get(2);
+        assertEquals(ReadingResolution.DAILY, day.resolution);
+        assertEquals(3, day.count);
+        assertEquals(120, day.sum);
+    }
+
+    @Test
+    void mergesLaterBatchesIntoExistingBuckets() {
+        Zone zone = new Zone("rollup-1");
+        zone.getSubZones().add(new SubZone(0, zone));
+        Integer subZoneId = zoneRepo.save(zone).getSubZones().get(0).getId();
+
+        rollupRepository.addAll(List.of(reading(subZoneId, T0, 40), reading(subZoneId, T0.plusMinutes(1), 30)));
+        rollupRepository.addAll(List.of(reading(subZoneId, T0.plusMinutes(2), 50), reading(subZoneId, T0.plusMinutes(7), 10)));
+
+        List<SoilMoistureReadingDto> fiveMinutes =
+                rollupRepository.findRange(subZoneId, ReadingResolution.FIVE_MINUTES, null, null);
+        assertEquals(List.of(
+                new SoilMoistureReadingDto(T0, 40, 30, 50),
+                new SoilMoistureReadingDto(T0.plusMinutes(5), 10, 10, 10)), fiveMinutes);
+        assertEquals(List.of(new SoilMoistureReadingDto(T0, 33, 10, 50)),
+                rollupRepository.findRange(subZoneId, ReadingResolution.HOURLY, null, null));
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.smartirrigationsystem.repository;
+
+import com.example.smartirrigationsystem.dto.SensorReading;
+import com.example.smartirrigationsystem.dto.SoilMoistureReadingDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeSeriesSensorReadingStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 1, 0, 0);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackWhatWasAppendedAcrossHeadAndSealedBlocks() {
+        TimeSeriesSensorReadingStore store = new TimeSeriesSensorReadingStore(dir.toString());
+        List<SensorReading> readings = readings(1, START, TimeSeriesSensorReadingStore.BLOCK_SIZE * 2 + 17);
+        for (int i = 0; i < readings.size(); i += 100) {
+            store.appendAll(readings.subList(i, Math.min(readings.size(), i + 100)));
+        }
+
+        List<SoilMoistureReadingDto> result = store.findSoilReadings(1, null, null);
+
+        assertEquals(readings.size(), result.size());
+        for (int i = 0; i < readings.size(); i++) {
+            assertEquals(readings.get(i).getRecordedAt(), result.get(i).getRecordedAt());
+            assertEquals(readings.get(i).getMoisturePercent(), result.get(i).getSoilMoisturePercent());
+        }
+        assertTrue(store.findSoilReadings(2, null, null).isEmpty());
+    }
+
+    @Test
+    void filtersByHalfOpenRange() {
+        TimeSeriesSensorReadingStore store = new TimeSeriesSensorReadingStore(dir.toString());
+        store.appendAll(readings(1, START, 1000));
+
+        List<SoilMoistureReadingDto> result =
+                store.findSoilReadings(1, START.plusMinutes(100), START.plusMinutes(200));
+
+        assertEquals(100, result.size());
+        assertEquals(START.plusMinutes(100), result.get(0).getRecordedAt());
+        assertEquals(START.plusMinutes(199), result.get(99).getRecordedAt());
+    }
+
+    @Test
+    void pagesThroughSeveralDaysWithAnExclusiveCursor() {
+        TimeSeriesSensorReadingStore store = new TimeSeriesSensorReadingStore(dir.toString());
+        // one reading per minute for three days
+        List<SensorReading> readings = readings(1, START, 3 * 24 * 60);
+        store.appendAll(readings);
+
+        List<SoilMoistureReadingDto> all = new ArrayList<>();
+        LocalDateTime after = null;
+        List<SoilMoistureReadingDto> page;
+        while (!(page = store.findSoilReadingsAfter(1, after, null, 1000)).isEmpty()) {
+            all.addAll(page);
+            after = page.get(page.size() - 1).getRecordedAt();
+        }
+
+        assertEquals(readings.size(), all.size());
+        for (int i = 0; i < readings.size(); i++) {
+            assertEquals(readings.get(i).getRecordedAt(), all.get(i).getRecordedAt());
+        }
+        assertEquals(10, store.findSoilReadingsAfter(1, START, START.plusMinutes(11), 1000).size());
+    }
+
+    @Test
+    void sealsTheHeadWhenTheDayChangesAndRecoversItAfterRestart() throws IOException {
+        TimeSeriesSensorReadingStore store = new TimeSeriesSensorReadingStore(dir.toString());
+        store.appendAll(readings(1, START.plusHours(23), 10));
+        store.appendAll(readings(1, START.plusDays(1), 5));
+
+        Path subZoneDir = dir.resolve("1");
+        assertTrue(Files.exists(subZoneDir.resolve("20250601.tsb")));
+        assertFalse(Files.exists(subZoneDir.resolve("20250601.head")));
+        assertTrue(Files.exists(subZoneDir.resolve("20250602.head")));
+
+        // a new instance picks up the unsealed head left on disk
+        TimeSeriesSensorReadingStore restarted = new TimeSeriesSensorReadingStore(dir.toString());
+        restarted.appendAll(readings(1, START.plusDays(1).plusHours(1), 5));
+        assertEquals(20, restarted.findSoilReadings(1, null, null).size());
+    }
+
+    @Test
+    void recognizesAnAlreadySealedHeadWhoseReadingsArrivedOutOfOrder() throws IOException {
+        TimeSeriesSensorReadingStore store = new TimeSeriesSensorReadingStore(dir.toString());
+        // the head's first row is not its earliest reading
+        store.appendAll(readings(1, START.plusMinutes(600), 1));
+        store.appendAll(readings(1, START, TimeSeriesSensorReadingStore.BLOCK_SIZE - 2));
+        Path headFile = dir.resolve("1").resolve("20250601.head");
+        byte[] beforeLastRow = Files.readAllBytes(headFile);
+        LocalDateTime last = START.plusMinutes(TimeSeriesSensorReadingStore.BLOCK_SIZE - 2);
+        store.appendAll(readings(1, last, 1));
+        assertFalse(Files.exists(headFile));
+
+        // crash between appending the block and deleting the head: put back the full head
+        // (the last row is one minute after the previous one, moisture 0 and raining)
+        byte[] crashed = Arrays.copyOf(beforeLastRow, beforeLastRow.length + 2);
+        crashed[crashed.length - 2] = 120;
+        crashed[crashed.length - 1] = (byte) 0x80;
+        Files.write(headFile, crashed);
+
+        TimeSeriesSensorReadingStore restarted = new TimeSeriesSensorReadingStore(dir.toString());
+        restarted.appendAll(readings(1, START.plusMinutes(700), 1));
+        assertEquals(TimeSeriesSensorReadingStore.BLOCK_SIZE + 1, restarted.findSoilReadings(1, null, null).size());
+    }
+
+    @Test
+    void sealsHeadsOfSubZonesThatStoppedPostingWhenTheDayChanges() {
+        TimeSeriesSensorReadingStore store = new TimeSeriesSensorReadingStore(dir.toString());
+        store.appendAll(readings(1, START.plusHours(20), 3));
+        store.appendAll(readings(2, START.plusHours(20), 3));
+        assertTrue(Files.exists(dir.resolve("2").resolve("20250601.head")));
+
+        // only subzone 1 posts on the next day
+        store.appendAll(readings(1, START.plusDays(1), 1));
+
+        assertFalse(Files.exists(dir.resolve("2").resolve("20250601.head")));
+        assertTrue(Files.exists(dir.resolve("2").resolve("20250601.tsb")));
+        assertEquals(3, store.findSoilReadings(2, null, null).size());
+    }
+
+    @Test
+    void keepsLateReadingsForAnEarlierDay() {
+        TimeSeriesSensorReadingStore store = new TimeSeriesSensorReadingStore(dir.toString());
+        store.appendAll(readings(1, START.plusDays(1), 3));
+        store.appendAll(readings(1, START.plusHours(12), 2));
+
+        List<SoilMoistureReadingDto> result = store.findSoilReadings(1, null, null);
+
+        assertEquals(5, result.size());
+        assertEquals(START.plusHours(12), result.get(0).getRecordedAt());
+    }
+
+    @Test
+    void sealedReadingsTakeAboutTwoBytesEach() throws IOException {
+        TimeSeriesSensorReadingStore store = new TimeSeriesSensorReadingStore(dir.toString());
+        int count = TimeSeriesSensorReadingStore.BLOCK_SIZE * 5;
+        store.appendAll(readings(1, START, count));
+
+        long bytes;
+        try (Stream<Path> files = Files.list(dir.resolve("1"))) {
+            bytes = files.mapToLong(f -> f.toFile().length()).sum();
+        }
+        assertTrue(bytes < count * 3L, "stored " + bytes + " bytes for " + count + " readings");
+    }
+
+    // one reading per minute
+    private static List<SensorReading> readings(Integer subZoneId, LocalDateTime from, int count) {
+        List<SensorReading> readings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            readings.add(new SensorReading(subZoneId, i % 101, i % 7 == 0, from.plusMinutes(i)));
+        }
+        return readings;
+    }
+}
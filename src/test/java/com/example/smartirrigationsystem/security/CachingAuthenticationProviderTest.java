@@ -0,0 +1,109 @@
+package com.example.smartirrigationsystem.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachingAuthenticationProviderTest {
+
+    private final Map<String, String> passwords = new HashMap<>(Map.of("alice", "secret"));
+    private final AtomicInteger checks = new AtomicInteger();
+
+    // stands in for DaoAuthenticationProvider: counts every (expensive) check
+    private final AuthenticationProvider delegate = new AuthenticationProvider() {
+        @Override
+        public Authentication authenticate(Authentication authentication) {
+            checks.incrementAndGet();
+            if (!authentication.getCredentials().equals(passwords.get(authentication.getName()))) {
+                throw new BadCredentialsException("Bad credentials");
+            }
+            return UsernamePasswordAuthenticationToken.authenticated(authentication.getName(), null,
+                    List.of(new SimpleGrantedAuthority("ROLE_VIEWER")));
+        }
+
+        @Override
+        public boolean supports(Class<?> authentication) {
+            return true;
+        }
+    };
+
+    private static Authentication login(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+
+    @Test
+    void repeatLoginsSkipTheDelegate() {
+        CachingAuthenticationProvider provider = new CachingAuthenticationProvider(delegate, passwords::get, 300, 100);
+        provider.authenticate(login("alice", "secret"));
+        Authentication cached = provider.authenticate(login("alice", "secret"));
+
+        assertEquals(1, checks.get());
+        assertTrue(cached.isAuthenticated());
+        assertEquals("alice", cached.getName());
+        assertEquals("ROLE_VIEWER", cached.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void wrongPasswordIsAlwaysChecked() {
+        CachingAuthenticationProvider provider = new CachingAuthenticationProvider(delegate, passwords::get, 300, 100);
+        provider.authenticate(login("alice", "secret"));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login("alice", "guess")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login("alice", "guess")));
+        assertEquals(3, checks.get());
+    }
+
+    @Test
+    void passwordChangeTakesEffectAfterInvalidate() {
+        CachingAuthenticationProvider provider = new CachingAuthenticationProvider(delegate, passwords::get, 300, 100);
+        provider.authenticate(login("alice", "secret"));
+        passwords.put("alice", "new-secret");
+        provider.invalidate("alice");
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login("alice", "secret")));
+        provider.authenticate(login("alice", "new-secret"));
+        assertEquals(3, checks.get());
+    }
+
+    @Test
+    void boundedAndOffWithoutTtl() {
+        passwords.put("bob", "pw");
+        CachingAuthenticationProvider bounded = new CachingAuthenticationProvider(delegate, passwords::get, 300, 1);
+        bounded.authenticate(login("alice", "secret"));
+        bounded.authenticate(login("bob", "pw"));
+        bounded.authenticate(login("bob", "pw"));
+        assertEquals(3, checks.get());
+
+        CachingAuthenticationProvider off = new CachingAuthenticationProvider(delegate, passwords::get, 0, 100);
+        off.authenticate(login("alice", "secret"));
+        off.authenticate(login("alice", "secret"));
+        assertEquals(5, checks.get());
+    }
+
+    @Test
+    void changesMadeElsewhereAreNotServedFromTheCache() {
+        CachingAuthenticationProvider provider = new CachingAuthenticationProvider(delegate, passwords::get, 300, 100);
+        provider.authenticate(login("alice", "secret"));
+
+        // changed on another instance: no invalidate here, but the credential version moved
+        passwords.put("alice", "new-secret");
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login("alice", "secret")));
+        provider.authenticate(login("alice", "new-secret"));
+        provider.authenticate(login("alice", "new-secret"));
+        assertEquals(3, checks.get());
+
+        passwords.remove("alice");
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login("alice", "new-secret")));
+    }
+}
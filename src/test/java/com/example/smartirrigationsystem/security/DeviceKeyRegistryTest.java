@@ -0,0 +1,126 @@
+package com.example.smartirrigationsystem.security;
+
+import com.example.smartirrigationsystem.repository.ZoneRepository;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DeviceKeyRegistryTest {
+
+    private final ZoneRepository zoneRepo = mock(ZoneRepository.class);
+    private final DeviceKeyRegistry registry = new DeviceKeyRegistry(zoneRepo, 30);
+
+    private static void register(DeviceKeyRegistry registry, String controllerUid, String key) {
+        registry.register(controllerUid, DeviceKeyRegistry.verifier(key), DeviceKeyRegistry.udpMacKey(key));
+    }
+
+    private static ZoneRepository.DeviceKeyView view(String key) {
+        return view(DeviceKeyRegistry.verifier(key), DeviceKeyRegistry.udpMacKey(key));
+    }
+
+    private static ZoneRepository.DeviceKeyView view(String deviceKeyHash, String udpMacKey) {
+        return new ZoneRepository.DeviceKeyView() {
+            @Override
+            public String getControllerUid() {
+                return "esp-1";
+            }
+
+            @Override
+            public String getDeviceKeyHash() {
+                return deviceKeyHash;
+            }
+
+            @Override
+            public String getUdpMacKey() {
+                return udpMacKey;
+            }
+        };
+    }
+
+    @Test
+    void acceptsOnlyTheCurrentKeyOfTheController() {
+        String key = DeviceKeyRegistry.newKey();
+        assertEquals(43, key.length());
+        assertNotEquals(key, DeviceKeyRegistry.newKey());
+        register(registry, "esp-1", key);
+
+        assertTrue(registry.verify("esp-1", key));
+        assertFalse(registry.verify("esp-1", key + "x"));
+        assertFalse(registry.verify("esp-2", key));
+
+        String rotated = DeviceKeyRegistry.newKey();
+        register(registry, "esp-1", rotated);
+        assertFalse(registry.verify("esp-1", key));
+        assertTrue(registry.verify("esp-1", rotated));
+
+        registry.revoke("esp-1");
+        assertFalse(registry.verify("esp-1", rotated));
+    }
+
+    @Test
+    void missesAreReadFromTheZoneOnceWithinTheTtl() {
+        String key = DeviceKeyRegistry.newKey();
+        when(zoneRepo.findDeviceKey("esp-1")).thenReturn(view(key));
+
+        // issued on another instance
+        assertTrue(registry.verify("esp-1", key));
+        assertFalse(registry.verify("esp-1", key + "x"));
+        assertTrue(registry.verify("esp-1", key));
+        verify(zoneRepo, times(1)).findDeviceKey("esp-1");
+
+        // unknown controllers are remembered too
+        assertFalse(registry.verify("esp-2", key));
+        assertFalse(registry.verify("esp-2", key));
+        verify(zoneRepo, times(1)).findDeviceKey("esp-2");
+    }
+
+    @Test
+    void expiredEntriesAreReadAgain() {
+        DeviceKeyRegistry noTtl = new DeviceKeyRegistry(zoneRepo, 0);
+        String key = DeviceKeyRegistry.newKey();
+        register(noTtl, "esp-1", key);
+
+        // revoked on another instance
+        when(zoneRepo.findDeviceKey("esp-1")).thenReturn(null);
+        assertFalse(noTtl.verify("esp-1", key));
+
+        String rotated = DeviceKeyRegistry.newKey();
+        when(zoneRepo.findDeviceKey("esp-1")).thenReturn(view(rotated));
+        assertTrue(noTtl.verify("esp-1", rotated));
+        verify(zoneRepo, times(2)).findDeviceKey("esp-1");
+    }
+
+    @Test
+    void theVerifierAndTheMacKeyAreUnrelated() {
+        String key = DeviceKeyRegistry.newKey();
+        register(registry, "esp-1", key);
+        assertNotEquals(DeviceKeyRegistry.verifier(key), DeviceKeyRegistry.udpMacKey(key));
+        assertArrayEquals(HexFormat.of().parseHex(DeviceKeyRegistry.udpMacKey(key)), registry.macKey("esp-1"));
+        // the stored verifier is not a key
+        assertFalse(registry.verify("esp-1", DeviceKeyRegistry.verifier(key)));
+    }
+
+    @Test
+    void keysIssuedBeforeTheSplitOnlyWorkOverHttp() throws Exception {
+        String key = DeviceKeyRegistry.newKey();
+        String legacyHash = HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8)));
+        when(zoneRepo.findDeviceKey("esp-1")).thenReturn(view(legacyHash, null));
+
+        assertTrue(registry.verify("esp-1", key));
+        assertNull(registry.macKey("esp-1"));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.entity.PlantType;
+import com.example.smartirrigationsystem.entity.SoilType;
+import com.example.smartirrigationsystem.repository.PlantTypeRepository;
+import com.example.smartirrigationsystem.repository.SoilTypeRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CatalogCacheTest {
+
+    private final PlantTypeRepository plantTypeRepo = mock(PlantTypeRepository.class);
+    private final SoilTypeRepository soilTypeRepo = mock(SoilTypeRepository.class);
+    private final IrrigationRuleEngine ruleEngine = mock(IrrigationRuleEngine.class);
+    private final CatalogCache cache = new CatalogCache(plantTypeRepo, soilTypeRepo, ruleEngine);
+
+    @Test
+    void refreshSwapsOnlyWhenAnotherInstanceChangedTheCatalog() {
+        when(plantTypeRepo.findAll()).thenReturn(List.of(new PlantType(1, "tomato", null, 40, 70)));
+        when(soilTypeRepo.findAll()).thenReturn(List.of(new SoilType(1, "loam", null, 30)));
+        cache.reload();
+        CatalogSnapshot loaded = cache.current();
+
+        cache.refresh();
+        assertSame(loaded, cache.current());
+        verify(ruleEngine, times(1)).rebuild(any(), any());
+
+        // edited elsewhere: the next refresh picks it up and recompiles the rules
+        when(soilTypeRepo.findAll()).thenReturn(List.of(new SoilType(1, "loam", null, 45)));
+        cache.refresh();
+        assertEquals(45, cache.current().soilType(1).getWaitingTimeBeforeMoistureCheckInMinutes());
+        assertEquals(loaded.getVersion() + 1, cache.current().getVersion());
+        verify(ruleEngine, times(2)).rebuild(any(), any());
+    }
+}
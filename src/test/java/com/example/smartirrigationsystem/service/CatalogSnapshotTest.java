@@ -0,0 +1,42 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.entity.PlantType;
+import com.example.smartirrigationsystem.entity.SoilType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CatalogSnapshotTest {
+
+    private static CatalogSnapshot snapshot(long version, int tomatoMin) {
+        return new CatalogSnapshot(version,
+                List.of(new PlantType(1, "tomato", null, tomatoMin, 70), new PlantType(2, "mint", "shade", 50, 80)),
+                List.of(new SoilType(1, "loam", null, 30)));
+    }
+
+    @Test
+    void eTagsFollowTheContentNotTheVersion() {
+        CatalogSnapshot first = snapshot(1, 40);
+        CatalogSnapshot reloaded = snapshot(7, 40);
+        assertEquals(first.getPlantTypesETag(), reloaded.getPlantTypesETag());
+        assertEquals(first.getSoilTypesETag(), reloaded.getSoilTypesETag());
+
+        CatalogSnapshot changed = snapshot(8, 45);
+        assertNotEquals(first.getPlantTypesETag(), changed.getPlantTypesETag());
+        assertEquals(first.getSoilTypesETag(), changed.getSoilTypesETag());
+    }
+
+    @Test
+    void looksUpTypesById() {
+        CatalogSnapshot catalog = snapshot(1, 40);
+        assertSame(catalog.getPlantTypes().get(1), catalog.plantType(2));
+        assertEquals("loam", catalog.soilType(1).getName());
+        assertNull(catalog.plantType(3));
+        assertNull(catalog.soilType(null));
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.repository.ZoneRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ControllerLivenessTrackerTest {
+
+    private static final ZoneId KYIV = ZoneId.of("Europe/Kyiv");
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 5, 7, 6, 0);
+
+    private static final class TestClock extends Clock {
+        Instant now = T0.atZone(KYIV).toInstant();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return KYIV;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+
+    private final ControllerDowntimeService downtimeService = mock(ControllerDowntimeService.class);
+    private final ZoneRepository zoneRepo = mock(ZoneRepository.class);
+    private final TestClock clock = new TestClock();
+    // 300 s threshold
+    private final ControllerLivenessTracker tracker = new ControllerLivenessTracker(downtimeService, zoneRepo, 300, clock);
+
+    @Test
+    void opensOneDowntimeAfterTheThreshold() {
+        tracker.onSeen("esp-1", 7);
+        clock.advance(Duration.ofSeconds(300));
+        tracker.sweep();
+        verifyNoInteractions(downtimeService);
+
+        clock.advance(Duration.ofSeconds(1));
+        tracker.sweep();
+        tracker.sweep();
+        verify(downtimeService).open(7, T0.plusSeconds(301), "No sensor data since " + T0);
+    }
+
+    @Test
+    void resolvesAtTheFirstPostAfterTheSilence() {
+        tracker.onSeen("esp-1", 7);
+        clock.advance(Duration.ofMinutes(10));
+        tracker.sweep();
+
+        clock.advance(Duration.ofMinutes(5));
+        tracker.onSeen("esp-1", 7);
+        clock.advance(Duration.ofMinutes(1));
+        tracker.onSeen("esp-1", 7);
+        clock.advance(Duration.ofMinutes(1));
+        tracker.sweep();
+        tracker.sweep();
+
+        verify(downtimeService).resolve(7, T0.plusMinutes(15));
+        verify(downtimeService, times(1)).open(eq(7), any(), anyString());
+
+        // silent again: a new downtime
+        clock.advance(Duration.ofMinutes(6));
+        tracker.sweep();
+        verify(downtimeService).open(7, T0.plusMinutes(23), "No sensor data since " + T0.plusMinutes(16));
+    }
+
+    @Test
+    void aControllerSeenByAnotherInstanceIsNotMarkedSilent() {
+        tracker.onSeen("esp-1", 7);
+        clock.advance(Duration.ofMinutes(10));
+        when(zoneRepo.findLastSeenAt(7)).thenReturn(T0.plusMinutes(8));
+        tracker.sweep();
+        verify(downtimeService, never()).open(eq(7), any(), anyString());
+
+        // no further query until the newer time is itself past the threshold
+        tracker.sweep();
+        verify(zoneRepo, times(1)).findLastSeenAt(7);
+
+        clock.advance(Duration.ofMinutes(4));
+        tracker.sweep();
+        verify(downtimeService).open(7, T0.plusMinutes(14), "No sensor data since " + T0.plusMinutes(8));
+    }
+
+    @Test
+    void aFailedOpenIsRetriedOnTheNextSweep() {
+        tracker.onSeen("esp-1", 7);
+        clock.advance(Duration.ofMinutes(10));
+        doThrow(new IllegalStateException("db down")).when(downtimeService).open(eq(7), any(), anyString());
+        tracker.sweep();
+
+        doThrow(new IllegalStateException("db down")).doNothing().when(downtimeService).open(eq(7), any(), anyString());
+        tracker.sweep();
+        tracker.sweep();
+        verify(downtimeService, times(3)).open(eq(7), any(), anyString());
+    }
+
+    @Test
+    void controllersOfflineBeforeARestartAreNotOpenedTwice() {
+        ZoneRepository.LivenessView offline = livenessView(7, "esp-1", T0, true);
+        ZoneRepository.LivenessView online = livenessView(8, "esp-2", T0, false);
+        when(zoneRepo.findLiveness()).thenReturn(List.of(offline, online));
+        tracker.seed();
+
+        clock.advance(Duration.ofMinutes(10));
+        tracker.sweep();
+        verify(downtimeService, never()).open(eq(7), any(), anyString());
+        verify(downtimeService).open(8, T0.plusMinutes(10), "No sensor data since " + T0);
+
+        tracker.onSeen("esp-1", 7);
+        tracker.sweep();
+        verify(downtimeService).resolve(7, T0.plusMinutes(10));
+    }
+
+    @Test
+    void persistsOnlyChangedLastSeenTimes() {
+        tracker.onSeen("esp-1", 7);
+        tracker.onSeen("esp-2", 8);
+        tracker.persistLastSeen();
+        verify(downtimeService).saveLastSeen(Map.of(7, T0, 8, T0));
+
+        clock.advance(Duration.ofSeconds(30));
+        tracker.onSeen("esp-2", 8);
+        tracker.persistLastSeen();
+        tracker.persistLastSeen();
+        verify(downtimeService).saveLastSeen(Map.of(8, T0.plusSeconds(30)));
+        verify(downtimeService, times(2)).saveLastSeen(anyMap());
+        assertEquals(2, tracker.size());
+    }
+
+    private static ZoneRepository.LivenessView livenessView(Integer id, String controllerUid, LocalDateTime lastSeenAt,
+                                                            boolean offline) {
+        return new ZoneRepository.LivenessView() {
+            @Override
+            public Integer getId() {
+                return id;
+            }
+
+            @Override
+            public String getControllerUid() {
+                return controllerUid;
+            }
+
+            @Override
+            public LocalDateTime getLastSeenAt() {
+                return lastSeenAt;
+            }
+
+            @Override
+            public Boolean getControllerOffline() {
+                return offline;
+            }
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.entity.PlantType;
+import com.example.smartirrigationsystem.entity.SoilType;
+import com.example.smartirrigationsystem.repository.SubZoneRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class IrrigationDurationPlannerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 1, 6, 0);
+
+    private final SubZoneRepository subZoneRepo = mock(SubZoneRepository.class);
+    private final IrrigationDurationPlanner planner = new IrrigationDurationPlanner(subZoneRepo, 3, 5, 600, 60, 0.95);
+    // plant 40..70 (target 55), soil with a 30 minute soak time
+    private final IrrigationRules rules = IrrigationRules.compile(
+            List.of(new PlantType(1, "tomato", null, 40, 70)), List.of(new SoilType(1, "loam", null, 30)),
+            60, 0, null);
+
+    private SubZoneState state() {
+        SubZoneState state = new SubZoneState(7, 0);
+        state.setPlantTypeId(1);
+        state.setSoilTypeId(1);
+        state.setDefaultIrrigationDurationInSeconds(30);
+        return state;
+    }
+
+    // one irrigation of `seconds` raising moisture by `gain`, measured right after the soak time
+    private void irrigate(SubZoneState state, LocalDateTime start, int seconds, int before, int gain) {
+        planner.onReading(rules, state, before, false, start.minusMinutes(1));
+        planner.onIrrigationStarted(state, seconds, start);
+        planner.onReading(rules, state, before + gain, false, start.plusMinutes(35));
+    }
+
+    @Test
+    void usesTheDefaultUntilEnoughSamples() {
+        SubZoneState state = state();
+        irrigate(state, START, 60, 30, 12);
+        irrigate(state, START.plusHours(3), 60, 30, 12);
+
+        assertEquals(30, planner.plannedDurationSeconds(rules, state, 30));
+    }
+
+    @Test
+    void sizesIrrigationsFromTheLearnedSlope() {
+        SubZoneState state = state();
+        // 0.2 percentage points per second
+        irrigate(state, START, 60, 30, 12);
+        irrigate(state, START.plusHours(3), 100, 35, 20);
+        irrigate(state, START.plusHours(6), 40, 38, 8);
+
+        assertEquals(0.2, state.getResponseCurve().slope(), 1e-9);
+        // (55 - 30) / 0.2
+        assertEquals(125, planner.plannedDurationSeconds(rules, state, 30));
+        // clamped to the configured bounds
+        assertEquals(5, planner.plannedDurationSeconds(rules, state, 55));
+        assertEquals(600, planner.plannedDurationSeconds(rules, state, -200));
+        verify(subZoneRepo, times(3)).updateResponseCurve(eq(7), anyInt(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void waitsForTheSoakTimeAndDiscardsDisturbedSamples() {
+        SubZoneState state = state();
+        planner.onReading(rules, state, 30, false, START.minusMinutes(1));
+
+        planner.onIrrigationStarted(state, 60, START);
+        planner.onReading(rules, state, 50, false, START.plusMinutes(10));
+        assertEquals(0, state.getResponseCurve().getSamples());
+
+        // rain during the soak time
+        planner.onReading(rules, state, 30, true, START.plusMinutes(20));
+        planner.onReading(rules, state, 45, false, START.plusMinutes(35));
+        assertNull(state.getResponseSample());
+
+        // first reading long after the measurement window
+        planner.onIrrigationStarted(state, 60, START.plusHours(3));
+        planner.onReading(rules, state, 45, false, START.plusHours(5));
+
+        // no baseline reading yet
+        SubZoneState fresh = state();
+        planner.onIrrigationStarted(fresh, 60, START);
+        assertNull(fresh.getResponseSample());
+
+        assertEquals(0, state.getResponseCurve().getSamples());
+        verify(subZoneRepo, never()).updateResponseCurve(anyInt(), anyInt(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void forgetsOldSamplesGradually() {
+        SubZoneState state = state();
+        for (int i = 0; i < 20; i++) {
+            irrigate(state, START.plusHours(3L * i), 60, 30, 12);
+        }
+        // the emitters clog: the same irrigation now gains half as much
+        for (int i = 20; i < 60; i++) {
+            irrigate(state, START.plusHours(3L * i), 60, 30, 6);
+        }
+        assertEquals(0.1, state.getResponseCurve().slope(), 0.015);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.dto.ForecastPoint;
+import com.example.smartirrigationsystem.entity.PlantType;
+import com.example.smartirrigationsystem.entity.SoilType;
+import com.example.smartirrigationsystem.service.IrrigationRules.Decision;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IrrigationRulesTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 30);
+
+    private static final PlantType TOMATO = new PlantType(3, "tomato", null, 40, 70);
+    private static final SoilType CLAY = new SoilType(2, "clay", null, 180);
+    private static final SoilType SAND = new SoilType(5, "sand", null, null);
+
+    private final SubZoneStateCache.ControllerState controller = new SubZoneStateCache.ControllerState(1);
+
+    private IrrigationRules rules(double forecastMm) {
+        WeatherForecastProvider provider = (lat, lon) -> List.of(
+                new ForecastPoint(NOW.truncatedTo(ChronoUnit.HOURS), null, null, forecastMm));
+        WeatherForecastCache forecastCache = new WeatherForecastCache(provider, 0.1, 30, 0.2, Runnable::run);
+        return IrrigationRules.compile(List.of(TOMATO), List.of(CLAY, SAND), 60, 60, forecastCache);
+    }
+
+    private static SubZoneState state(int plantTypeId, int soilTypeId) {
+        SubZoneState state = new SubZoneState(10, 0);
+        state.setPlantTypeId(plantTypeId);
+        state.setSoilTypeId(soilTypeId);
+        return state;
+    }
+
+    @Test
+    void followsTheOrderOfTheChecks() {
+        IrrigationRules rules = rules(0);
+        SubZoneState state = state(TOMATO.getId(), 0);
+
+        assertEquals(Decision.IRRIGATE, rules.evaluate(state, 30, false, NOW, controller));
+        assertEquals(Decision.MOISTURE_OK, rules.evaluate(state, 40, false, NOW, controller));
+        assertEquals(Decision.RAINING, rules.evaluate(state, 30, true, NOW, controller));
+
+        state.setPendingRequestedAt(NOW.minusHours(23));
+        assertEquals(Decision.PENDING_REQUEST, rules.evaluate(state, 30, false, NOW, controller));
+        // requests older than a day are ignored
+        state.setPendingRequestedAt(NOW.minusHours(25));
+        assertEquals(Decision.IRRIGATE, rules.evaluate(state, 30, false, NOW, controller));
+
+        state.setIrrigationIssue(true);
+        assertEquals(Decision.IRRIGATION_ISSUE, rules.evaluate(state, 30, false, NOW, controller));
+    }
+
+    @Test
+    void unknownPlantTypeNeverIrrigates() {
+        IrrigationRules rules = rules(0);
+
+        assertEquals(Decision.NO_PLANT_TYPE, rules.evaluate(state(0, 0), 0, false, NOW, controller));
+        assertEquals(Decision.NO_PLANT_TYPE, rules.evaluate(state(4, 0), 0, false, NOW, controller));
+        assertEquals(Decision.NO_PLANT_TYPE, rules.evaluate(state(1000, 0), 0, false, NOW, controller));
+        assertNull(rules.optimalMoistureMin(state(4, 0)));
+    }
+
+    @Test
+    void soakTimeComesFromTheSoilType() {
+        IrrigationRules rules = rules(0);
+        SubZoneState clay = state(TOMATO.getId(), CLAY.getId());
+        SubZoneState sand = state(TOMATO.getId(), SAND.getId());
+        SubZoneState none = state(TOMATO.getId(), 0);
+        for (SubZoneState state : List.of(clay, sand, none)) {
+            state.setLastIrrigationStart(NOW.minusMinutes(90));
+        }
+
+        assertEquals(Decision.SOAKING, rules.evaluate(clay, 30, false, NOW, controller));
+        // no waiting time on the soil type, or no soil type: the default hour
+        assertEquals(Decision.IRRIGATE, rules.evaluate(sand, 30, false, NOW, controller));
+        assertEquals(Decision.IRRIGATE, rules.evaluate(none, 30, false, NOW, controller));
+
+        none.setLastIrrigationStart(NOW.minusMinutes(59));
+        assertEquals(Decision.SOAKING, rules.evaluate(none, 30, false, NOW, controller));
+    }
+
+    @Test
+    void forecastRainLocksOutZonesWithCoordinates() {
+        IrrigationRules rules = rules(2.0);
+        SubZoneState state = state(TOMATO.getId(), 0);
+
+        assertEquals(Decision.IRRIGATE, rules.evaluate(state, 30, false, NOW, controller));
+        controller.setLatitude(49.84);
+        controller.setLongitude(24.03);
+        assertEquals(Decision.RAIN_EXPECTED, rules.evaluate(state, 30, false, NOW, controller));
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.dto.PlannedIrrigationResponse.SubZonePlan;
+import com.example.smartirrigationsystem.entity.PlantType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IrrigationSchedulerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 5, 7, 6, 0);
+
+    private final IrrigationScheduler scheduler = new IrrigationScheduler(10);
+    private final IrrigationRules rules = IrrigationRules.compile(
+            List.of(new PlantType(1, "tomato", null, 40, 70)), Collections.emptyList(), 60, 0, null);
+
+    @Test
+    void neverExceedsTheCapacityAndStartsTheDriestFirst() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            int valves = 1 + random.nextInt(400);
+            double capacity = 5 + random.nextInt(100);
+            List<IrrigationScheduler.Job> jobs = new ArrayList<>();
+            for (int i = 0; i < valves; i++) {
+                int duration = random.nextInt(5) == 0 ? 0 : 1 + random.nextInt(300);
+                jobs.add(new IrrigationScheduler.Job(new SubZonePlan(i, duration),
+                        1 + random.nextInt(30), random.nextInt(40)));
+            }
+            IrrigationScheduler.schedule(jobs, capacity);
+
+            for (IrrigationScheduler.Job job : jobs) {
+                // total flow of the valves open at each start instant, including the one starting
+                int at = job.plan.getStartOffsetInSeconds();
+                double open = 0;
+                boolean alone = true;
+                for (IrrigationScheduler.Job other : jobs) {
+                    int start = other.plan.getStartOffsetInSeconds();
+                    if (start <= at && at < start + other.plan.getPlannedIrrigationDurationInSeconds()) {
+                        open += Math.min(other.flow, capacity);
+                        alone &= other == job;
+                    }
+                }
+                assertTrue(open <= capacity + 1e-6 || alone, "flow " + open + " over capacity " + capacity);
+                for (IrrigationScheduler.Job other : jobs) {
+                    if (other.deficit > job.deficit) {
+                        assertTrue(other.plan.getStartOffsetInSeconds() <= at);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void waitsForEnoughValvesToClose() {
+        List<IrrigationScheduler.Job> jobs = List.of(
+                new IrrigationScheduler.Job(new SubZonePlan(0, 60), 6, 20),
+                new IrrigationScheduler.Job(new SubZonePlan(1, 30), 4, 15),
+                new IrrigationScheduler.Job(new SubZonePlan(2, 40), 4, 10),
+                // draws more than the whole capacity: runs alone
+                new IrrigationScheduler.Job(new SubZonePlan(3, 10), 25, 5));
+        IrrigationScheduler.schedule(jobs, 10);
+
+        assertEquals(0, jobs.get(0).plan.getStartOffsetInSeconds());
+        assertEquals(0, jobs.get(1).plan.getStartOffsetInSeconds());
+        // 6 + 4 open; 4 more fits once the second valve closes
+        assertEquals(30, jobs.get(2).plan.getStartOffsetInSeconds());
+        assertEquals(70, jobs.get(3).plan.getStartOffsetInSeconds());
+    }
+
+    @Test
+    void zonesWithoutCapacityOpenAllValvesAtOnce() {
+        SubZoneStateCache.ControllerState controller = new SubZoneStateCache.ControllerState(1);
+        List<SubZoneState> states = new ArrayList<>();
+        List<SubZonePlan> plans = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            SubZoneState state = new SubZoneState(i + 1, i);
+            state.setPlantTypeId(1);
+            state.setLastMoisturePercent(30 + i);
+            states.add(state);
+            plans.add(new SubZonePlan(i, 60));
+        }
+
+        scheduler.stagger(controller, states, plans, rules, NOW);
+        plans.forEach(plan -> assertEquals(0, plan.getStartOffsetInSeconds()));
+
+        // two default 10 l/min valves at a time; subzone 2 is the least dry
+        controller.setFlowCapacityLitersPerMinute(20.0);
+        scheduler.stagger(controller, states, plans, rules, NOW);
+        assertEquals(0, plans.get(0).getStartOffsetInSeconds());
+        assertEquals(0, plans.get(1).getStartOffsetInSeconds());
+        assertEquals(60, plans.get(2).getStartOffsetInSeconds());
+    }
+
+    @Test
+    void laterPollsWaitForTheValvesOfEarlierOnes() {
+        SubZoneStateCache.ControllerState controller = new SubZoneStateCache.ControllerState(1);
+        controller.setFlowCapacityLitersPerMinute(20.0);
+        List<SubZoneState> states = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            SubZoneState state = new SubZoneState(i + 1, i);
+            controller.getSubZonesByIndex().put(i, state);
+            states.add(state);
+        }
+
+        // first poll: subzones 0 and 1 fill the capacity for 60 and 120 s
+        List<SubZonePlan> first = List.of(new SubZonePlan(0, 60), new SubZonePlan(1, 120), new SubZonePlan(2, 0));
+        scheduler.stagger(controller, states, first, rules, NOW);
+        assertEquals(0, first.get(1).getStartOffsetInSeconds());
+
+        // 30 s later a single valve waits for subzone 0 to close
+        List<SubZonePlan> second = List.of(new SubZonePlan(0, 0), new SubZonePlan(1, 0), new SubZonePlan(2, 60));
+        scheduler.stagger(controller, states, second, rules, NOW.plusSeconds(30));
+        assertEquals(30, second.get(2).getStartOffsetInSeconds());
+        assertEquals(NOW.plusSeconds(120), controller.getValveEndsByIndex().get(2));
+
+        // once everything has closed the next valve opens right away
+        List<SubZonePlan> third = List.of(new SubZonePlan(0, 60), new SubZonePlan(1, 0), new SubZonePlan(2, 0));
+        scheduler.stagger(controller, states, third, rules, NOW.plusSeconds(120));
+        assertEquals(0, third.get(0).getStartOffsetInSeconds());
+        assertEquals(List.of(0), List.copyOf(controller.getValveEndsByIndex().keySet()));
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.dto.IrrigationStatsDto;
+import com.example.smartirrigationsystem.entity.IrrigationHistory;
+import com.example.smartirrigationsystem.entity.SubZone;
+import com.example.smartirrigationsystem.entity.TriggeredBy;
+import com.example.smartirrigationsystem.entity.Zone;
+import com.example.smartirrigationsystem.repository.IrrigationHistoryRepository;
+import com.example.smartirrigationsystem.repository.ZoneRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Import(IrrigationStatsService.class)
+@TestPropertySource(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class IrrigationStatsServiceTest {
+
+    // Wednesday
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 5, 7, 6, 0);
+
+    @Autowired
+    private IrrigationStatsService statsService;
+    @Autowired
+    private ZoneRepository zoneRepo;
+    @Autowired
+    private IrrigationHistoryRepository historyRepo;
+
+    private Zone zone;
+    private Zone other;
+
+    @BeforeEach
+    void seed() {
+        zone = zoneWithSubZones("stats-1", 2);
+        other = zoneWithSubZones("stats-2", 1);
+        SubZone first = zone.getSubZones().get(0);
+        SubZone second = zone.getSubZones().get(1);
+        // subzone 0: runs 2 h apart on Wednesday, then Monday of the next week
+        run(first, T0, TriggeredBy.auto, 60);
+        run(first, T0.plusHours(2), TriggeredBy.manual, 30);
+        run(first, T0.plusDays(5), TriggeredBy.auto, 90);
+        // subzone 1: a single run, so no interval
+        run(second, T0.plusHours(1), TriggeredBy.auto, 45);
+        // outside of every range used below
+        run(second, T0.minusDays(40), TriggeredBy.auto, 999);
+        run(other.getSubZones().get(0), T0, TriggeredBy.manual, 10);
+    }
+
+    private Zone zoneWithSubZones(String controllerUid, int count) {
+        Zone created = new Zone(controllerUid);
+        for (int i = 0; i < count; i++) {
+            created.getSubZones().add(new SubZone(i, created));
+        }
+        return zoneRepo.save(created);
+    }
+
+    private void run(SubZone subZone, LocalDateTime start, TriggeredBy triggeredBy, int durationSeconds) {
+        historyRepo.save(new IrrigationHistory(null, subZone, start, null, triggeredBy, durationSeconds));
+    }
+
+    @Test
+    void zoneTotalsPerSubZoneAndDay() {
+        IrrigationStatsDto stats = statsService.getZoneStats(zone.getId(), T0.minusDays(1), T0.plusDays(10), "day");
+
+        IrrigationStatsDto.Totals totals = stats.getTotals();
+        assertEquals(4, totals.getRuns());
+        assertEquals(225, totals.getWaterSeconds());
+        assertEquals(3L, totals.getRunsByTrigger().get(TriggeredBy.auto));
+        assertEquals(1L, totals.getRunsByTrigger().get(TriggeredBy.manual));
+        // only subzone 0 has gaps: (5 days) / 2
+        assertEquals(5 * 86_400L / 2, totals.getAverageIntervalSeconds());
+
+        assertEquals(List.of(T0.toLocalDate(), T0.toLocalDate().plusDays(5)),
+                stats.getBuckets().stream().map(IrrigationStatsDto.Bucket::getStart).toList());
+        assertEquals(3, stats.getBuckets().get(0).getTotals().getRuns());
+        assertEquals(7_200L, stats.getBuckets().get(0).getTotals().getAverageIntervalSeconds());
+
+        IrrigationStatsDto.SubZoneStats second = stats.getSubZones().get(1);
+        assertEquals(1, second.getSubzoneIndex());
+        assertEquals(1, second.getTotals().getRuns());
+        assertEquals(0L, second.getTotals().getRunsByTrigger().get(TriggeredBy.manual));
+        assertNull(second.getTotals().getAverageIntervalSeconds());
+    }
+
+    @Test
+    void weeksStartOnMonday() {
+        IrrigationStatsDto stats = statsService.getZoneStats(zone.getId(), T0.minusDays(1), T0.plusDays(10), "week");
+
+        assertEquals(List.of(LocalDate.of(2025, 5, 5), LocalDate.of(2025, 5, 12)),
+                stats.getBuckets().stream().map(IrrigationStatsDto.Bucket::getStart).toList());
+        assertEquals(List.of(2L, 1L), stats.getSubZones().get(0).getBuckets().stream()
+                .map(b -> b.getTotals().getRuns()).toList());
+    }
+
+    @Test
+    void allZonesReport() {
+        List<IrrigationStatsDto> stats = statsService.getAllZoneStats(T0.minusDays(1), T0.plusDays(10));
+
+        assertEquals(List.of(zone.getId(), other.getId()), stats.stream().map(IrrigationStatsDto::getZoneId).toList());
+        assertEquals(4, stats.get(0).getTotals().getRuns());
+        assertEquals(2, stats.get(0).getSubZones().size());
+        assertNull(stats.get(0).getBuckets());
+        assertEquals(1L, stats.get(1).getTotals().getRunsByTrigger().get(TriggeredBy.manual));
+    }
+
+    @Test
+    void rejectsBadRanges() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> statsService.getAllZoneStats(T0, T0));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        e = assertThrows(ResponseStatusException.class,
+                () -> statsService.getZoneStats(zone.getId(), T0.minusYears(2), T0, "day"));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        e = assertThrows(ResponseStatusException.class,
+                () -> statsService.getZoneStats(zone.getId(), null, null, "month"));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        e = assertThrows(ResponseStatusException.class,
+                () -> statsService.getZoneStats(-1, null, null, "day"));
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+    }
+}
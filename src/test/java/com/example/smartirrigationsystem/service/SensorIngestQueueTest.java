@@ -0,0 +1,174 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.dto.SensorDataRequest;
+import com.example.smartirrigationsystem.dto.SensorReading;
+import com.example.smartirrigationsystem.repository.IrrigationHistoryBatchRepository;
+import com.example.smartirrigationsystem.repository.IrrigationHistoryRepository;
+import com.example.smartirrigationsystem.repository.ManualIrrigationRequestRepository;
+import com.example.smartirrigationsystem.repository.SensorReadingStore;
+import com.example.smartirrigationsystem.repository.SoilMoistureRollupRepository;
+import com.example.smartirrigationsystem.repository.SubZoneLastReadingRepository;
+import com.example.smartirrigationsystem.repository.SubZoneRepository;
+import com.example.smartirrigationsystem.repository.ZoneRepository;
+import com.example.smartirrigationsystem.security.DeviceKeyRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * The writer thread isn't started here, so whatever is enqueued stays in the queue.
+ */
+class SensorIngestQueueTest {
+
+    private static final int CAPACITY = 4;
+
+    private final SensorReadingStore readingStore = mock(SensorReadingStore.class);
+    private final SoilMoistureRollupRepository rollupRepository = mock(SoilMoistureRollupRepository.class);
+    private final SubZoneLastReadingRepository lastReadingRepository = mock(SubZoneLastReadingRepository.class);
+    private final SensorIngestQueue queue = new SensorIngestQueue(readingStore, rollupRepository,
+            lastReadingRepository, mock(PlatformTransactionManager.class), CAPACITY, 500, 1_000, 3);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static List<SensorReading> readings(int count) {
+        List<SensorReading> readings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            readings.add(new SensorReading(i + 1, 40, false, LocalDateTime.of(2025, 5, 7, 6, 0)));
+        }
+        return readings;
+    }
+
+    @Test
+    void fullQueueRejectsPostsWith503() {
+        queue.enqueueAfterCommit(readings(3));
+        assertTrue(queue.hasRoomFor(1));
+        assertFalse(queue.hasRoomFor(2));
+
+        ZoneService zoneService = new ZoneService(mock(ZoneRepository.class),
+                mock(ManualIrrigationRequestRepository.class), mock(IrrigationHistoryRepository.class),
+                mock(IrrigationHistoryBatchRepository.class), mock(SubZoneRepository.class), queue,
+                mock(SubZoneStateCache.class), mock(ZoneHealthService.class), mock(ControllerLivenessTracker.class),
+                mock(IrrigationRuleEngine.class), mock(IrrigationDurationPlanner.class),
+                mock(IrrigationScheduler.class), mock(SensorPostDeduplicator.class), mock(DeviceKeyRegistry.class));
+        SensorDataRequest req = new SensorDataRequest();
+        req.setControllerUid("esp-1");
+        req.setSubZones(List.of(new SensorDataRequest.SubzoneData(), new SensorDataRequest.SubzoneData()));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> zoneService.ingestAndPlan(req));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+        assertEquals(3, queue.size());
+    }
+
+    @Test
+    void postThatLosesTheRaceIsWrittenSynchronously() {
+        // both posts passed hasRoomFor before either of them committed
+        List<SensorReading> first = readings(3);
+        List<SensorReading> second = readings(2);
+        assertTrue(queue.hasRoomFor(first.size()) && queue.hasRoomFor(second.size()));
+
+        queue.enqueueAfterCommit(first);
+        queue.enqueueAfterCommit(second);
+
+        // all of the first post is queued, none of the second
+        assertEquals(3, queue.size());
+        verify(readingStore).appendAll(second);
+        verify(rollupRepository).addAll(second);
+        verify(lastReadingRepository).updateAll(second);
+        verify(readingStore, never()).appendAll(first);
+    }
+
+    @Test
+    void readingsAreEnqueuedOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        queue.enqueueAfterCommit(readings(2));
+        assertEquals(0, queue.size());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+        assertEquals(2, queue.size());
+        verifyNoInteractions(readingStore);
+    }
+
+    @Test
+    void rolledBackReadingsAreDropped() {
+        TransactionSynchronizationManager.initSynchronization();
+        queue.enqueueAfterCommit(readings(2));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(0, queue.size());
+        verify(readingStore, never()).appendAll(any());
+    }
+
+    @Test
+    void failedBatchIsKeptForTheNextAttempt() {
+        doThrow(new TransientDataAccessResourceException("deadlock")).doNothing()
+                .when(rollupRepository).addAll(any());
+        List<SensorReading> batch = readings(3);
+
+        queue.flush(batch);
+        assertEquals(3, batch.size());
+        assertEquals(3, queue.pendingRetry());
+        verify(readingStore, never()).appendAll(any());
+
+        queue.flush(batch);
+        assertTrue(batch.isEmpty());
+        assertEquals(0, queue.pendingRetry());
+        verify(readingStore).appendAll(any());
+        assertEquals(0, queue.droppedReadings());
+    }
+
+    @Test
+    void afterTheLastAttemptOnlyTheFailingReadingIsDropped() {
+        List<SensorReading> batch = readings(4);
+        SensorReading poison = batch.get(2);
+        doAnswer(invocation -> {
+            if (invocation.<List<SensorReading>>getArgument(0).contains(poison)) {
+                throw new DataIntegrityViolationException("no such subzone");
+            }
+            return null;
+        }).when(rollupRepository).addAll(any());
+
+        List<SensorReading> written = new ArrayList<>();
+        doAnswer(invocation -> written.addAll(invocation.getArgument(0))).when(readingStore).appendAll(any());
+        List<SensorReading> expected = new ArrayList<>(batch);
+        expected.remove(poison);
+
+        queue.flush(batch);
+        queue.flush(batch);
+        assertEquals(4, batch.size());
+        queue.flush(batch);
+
+        assertTrue(batch.isEmpty());
+        assertEquals(expected, written);
+        assertEquals(1, queue.droppedReadings());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.dto.PlannedIrrigationResponse;
+import com.example.smartirrigationsystem.dto.SensorDataRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SensorPostDeduplicatorTest {
+
+    private final SensorPostDeduplicator deduplicator = new SensorPostDeduplicator(4);
+    private final AtomicInteger ingests = new AtomicInteger();
+
+    private final Supplier<PlannedIrrigationResponse> ingest = () -> {
+        ingests.incrementAndGet();
+        return new PlannedIrrigationResponse(Collections.emptyList());
+    };
+
+    private static SensorDataRequest post(String controllerUid, Long sequenceNumber) {
+        SensorDataRequest req = new SensorDataRequest();
+        req.setControllerUid(controllerUid);
+        req.setSequenceNumber(sequenceNumber);
+        req.setSubZones(Collections.emptyList());
+        return req;
+    }
+
+    @Test
+    void retriesGetTheFirstPlanWithoutIngesting() {
+        PlannedIrrigationResponse first = deduplicator.handle(post("esp-1", 7L), ingest);
+        assertSame(first, deduplicator.handle(post("esp-1", 7L), ingest));
+        assertEquals(1, ingests.get());
+
+        // same number from another controller, a new number, or no number at all
+        deduplicator.handle(post("esp-2", 7L), ingest);
+        deduplicator.handle(post("esp-1", 8L), ingest);
+        deduplicator.handle(post("esp-1", null), ingest);
+        deduplicator.handle(post("esp-1", null), ingest);
+        assertEquals(5, ingests.get());
+    }
+
+    @Test
+    void remembersOnlyTheWindow() {
+        PlannedIrrigationResponse first = deduplicator.handle(post("esp-1", 1L), ingest);
+        for (long n = 2; n <= 4; n++) {
+            deduplicator.handle(post("esp-1", n), ingest);
+        }
+        assertSame(first, deduplicator.handle(post("esp-1", 1L), ingest));
+
+        deduplicator.handle(post("esp-1", 5L), ingest);
+        assertNotSame(first, deduplicator.handle(post("esp-1", 1L), ingest));
+        assertEquals(6, ingests.get());
+    }
+
+    @Test
+    void failedPostsCanBeRetried() {
+        assertThrows(IllegalStateException.class, () -> deduplicator.handle(post("esp-1", 3L), () -> {
+            throw new IllegalStateException("rolled back");
+        }));
+        deduplicator.handle(post("esp-1", 3L), ingest);
+        assertEquals(1, ingests.get());
+    }
+
+    @Test
+    void retryOfAPostInProgressIsRejected() {
+        ResponseStatusException conflict = assertThrows(ResponseStatusException.class, () ->
+                deduplicator.handle(post("esp-1", 9L), () -> deduplicator.handle(post("esp-1", 9L), ingest)));
+        assertEquals(HttpStatus.CONFLICT, conflict.getStatusCode());
+        // the outer attempt failed because of the inner one, so 9 is free again
+        deduplicator.handle(post("esp-1", 9L), ingest);
+        assertEquals(1, ingests.get());
+    }
+}
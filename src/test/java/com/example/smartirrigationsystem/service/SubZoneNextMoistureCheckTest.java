@@ -0,0 +1,143 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.dto.NextMoistureCheckDto;
+import com.example.smartirrigationsystem.entity.IrrigationHistory;
+import com.example.smartirrigationsystem.entity.SoilType;
+import com.example.smartirrigationsystem.entity.SubZone;
+import com.example.smartirrigationsystem.entity.TriggeredBy;
+import com.example.smartirrigationsystem.entity.Zone;
+import com.example.smartirrigationsystem.repository.IrrigationHistoryRepository;
+import com.example.smartirrigationsystem.repository.JdbcSensorReadingStore;
+import com.example.smartirrigationsystem.repository.SoilMoistureRollupRepository;
+import com.example.smartirrigationsystem.repository.SoilTypeRepository;
+import com.example.smartirrigationsystem.repository.ZoneCacheEvictor;
+import com.example.smartirrigationsystem.repository.ZoneHealthRepository;
+import com.example.smartirrigationsystem.repository.ZoneRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({SubZoneService.class, SubZoneStateCache.class, JdbcSensorReadingStore.class, SoilMoistureRollupRepository.class,
+        ZoneHealthService.class, ZoneHealthRepository.class, ZoneCacheEvictor.class, IrrigationRuleEngine.class,
+        CatalogCache.class, WeatherForecastCache.class, StubWeatherForecastProvider.class})
+@TestPropertySource(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "irrigation.rules.default-soak-minutes=60"
+})
+class SubZoneNextMoistureCheckTest {
+
+    @Autowired
+    private SubZoneService subZoneService;
+    @Autowired
+    private CatalogCache catalogCache;
+    @Autowired
+    private ZoneRepository zoneRepo;
+    @Autowired
+    private SoilTypeRepository soilTypeRepo;
+    @Autowired
+    private IrrigationHistoryRepository historyRepo;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneId.of("Europe/Kyiv")).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private SubZone subZone(SoilType soil, LocalDateTime lastIrrigationStart) {
+        Zone zone = new Zone("next-check-" + System.nanoTime());
+        SubZone subZone = new SubZone(0, zone);
+        subZone.setSoilType(soil);
+        subZone.setLastIrrigationStart(lastIrrigationStart);
+        zone.getSubZones().add(subZone);
+        return zoneRepo.save(zone).getSubZones().get(0);
+    }
+
+    private SoilType soil(String name, Integer waitingMinutes) {
+        SoilType soil = soilTypeRepo.save(new SoilType(null, name, null, waitingMinutes));
+        catalogCache.reload();
+        return soil;
+    }
+
+    private static void assertAboutNow(LocalDateTime actual) {
+        assertTrue(Duration.between(now(), actual).abs().toSeconds() < 5, "expected about now, was " + actual);
+    }
+
+    @Test
+    void neverIrrigatedSubZoneCanBeCheckedNow() {
+        SubZone subZone = subZone(null, null);
+
+        NextMoistureCheckDto check = subZoneService.getNextMoistureCheck(subZone.getId());
+
+        assertNull(check.getLastIrrigationStart());
+        assertNull(check.getSoakUntil());
+        assertEquals(60, check.getSoakMinutes());
+        assertAboutNow(check.getNextCheckAt());
+    }
+
+    @Test
+    void soilWithoutWaitingTimeUsesTheDefaultSoak() {
+        LocalDateTime start = now().minusMinutes(10);
+        SubZone subZone = subZone(soil("clay", null), start);
+
+        NextMoistureCheckDto check = subZoneService.getNextMoistureCheck(subZone.getId());
+
+        assertEquals(60, check.getSoakMinutes());
+        assertEquals(start.plusMinutes(60), check.getSoakUntil());
+        assertEquals(start.plusMinutes(60), check.getNextCheckAt());
+    }
+
+    @Test
+    void passedWindowMeansCheckNow() {
+        LocalDateTime start = now().minusHours(2);
+        SubZone subZone = subZone(soil("sand", 90), start);
+
+        NextMoistureCheckDto check = subZoneService.getNextMoistureCheck(subZone.getId());
+
+        assertEquals(90, check.getSoakMinutes());
+        assertEquals(start.plusMinutes(90), check.getSoakUntil());
+        assertAboutNow(check.getNextCheckAt());
+    }
+
+    @Test
+    void lastIrrigationStartIsBackfilledFromTheHistoryOnce() {
+        SubZone subZone = subZone(null, null);
+        LocalDateTime start = now().minusMinutes(20);
+        historyRepo.save(new IrrigationHistory(null, subZone, start, null, TriggeredBy.manual, 30));
+        // a row written before lastIrrigationStart existed
+        entityManager.getEntityManager()
+                .createQuery("update SubZone s set s.lastIrrigationStartBackfilled = null where s.id = :id")
+                .setParameter("id", subZone.getId())
+                .executeUpdate();
+        entityManager.clear();
+
+        assertEquals(start.plusMinutes(60), subZoneService.getNextMoistureCheck(subZone.getId()).getNextCheckAt());
+        entityManager.clear();
+        SubZone stored = entityManager.find(SubZone.class, subZone.getId());
+        assertEquals(start, stored.getLastIrrigationStart());
+        assertTrue(stored.getLastIrrigationStartBackfilled());
+    }
+
+    @Test
+    void unknownSubZoneIs404() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> subZoneService.getNextMoistureCheck(-1));
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+    }
+}
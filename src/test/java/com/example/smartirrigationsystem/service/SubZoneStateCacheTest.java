@@ -0,0 +1,90 @@
+package com.example.smartirrigationsystem.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubZoneStateCacheTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 5, 7, 6, 0);
+
+    private final SubZoneStateCache cache = new SubZoneStateCache(30);
+    private SubZoneStateCache.ControllerState controller;
+
+    @BeforeEach
+    void load() {
+        controller = new SubZoneStateCache.ControllerState(1);
+        controller.getSubZonesByIndex().put(0, new SubZoneState(10, 0));
+        cache.putController("esp-1", controller);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static void complete(int status) {
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(), status);
+    }
+
+    @Test
+    void rollbackDropsTheControllerAndSubZonesCreatedMeanwhile() {
+        cache.evictOnRollback("esp-1");
+        cache.putSubZone(controller, new SubZoneState(11, 1));
+        controller.getSubZonesByIndex().get(0).setPendingRequestedAt(null);
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertNull(cache.getController("esp-1"));
+        assertNull(cache.getSubZone(10));
+        assertNull(cache.getSubZone(11));
+    }
+
+    @Test
+    void commitKeepsTheController() {
+        cache.evictOnRollback("esp-1");
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertNotNull(cache.getController("esp-1"));
+    }
+
+    @Test
+    void changesWaitForTheCommit() {
+        cache.afterCommit(() -> cache.getSubZone(10).setPendingRequestedAt(NOW));
+        assertNull(cache.getSubZone(10).getPendingRequestedAt());
+
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        assertNotNull(cache.getSubZone(10).getPendingRequestedAt());
+    }
+
+    @Test
+    void controllersGoStaleAfterTheReloadInterval() {
+        assertFalse(cache.isStale(controller));
+        assertTrue(new SubZoneStateCache(0).isStale(controller));
+    }
+
+    @Test
+    void reloadedStateKeepsTheSampleBeingMeasured() {
+        SubZoneState previous = controller.getSubZonesByIndex().get(0);
+        SubZoneState.ResponseSample sample = new SubZoneState.ResponseSample(NOW, 60, 20);
+        previous.setResponseSample(sample);
+        previous.setLastIrrigationStart(NOW);
+        SubZoneState reloaded = new SubZoneState(10, 0);
+        reloaded.setLastIrrigationStart(NOW.minusDays(1));
+
+        reloaded.keepLiveValues(previous);
+        assertSame(sample, reloaded.getResponseSample());
+        assertEquals(NOW, reloaded.getLastIrrigationStart());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.dto.ForecastPoint;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeatherForecastCacheTest {
+
+    private static final LocalDateTime HOUR = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    // rain only in the hour starting at HOUR + 2h
+    private final WeatherForecastProvider provider = (lat, lon) -> {
+        fetches.incrementAndGet();
+        return List.of(
+                new ForecastPoint(HOUR, null, null, 0.0),
+                new ForecastPoint(HOUR.plusHours(1), null, null, 0.1),
+                new ForecastPoint(HOUR.plusHours(2), null, null, 1.5));
+    };
+
+    // runs fetches on the calling thread, so the first lookup already sees the data
+    private WeatherForecastCache cache(WeatherForecastProvider provider) {
+        return new WeatherForecastCache(provider, 0.1, 30, 0.2, Runnable::run);
+    }
+
+    @Test
+    void nearbyZonesShareOneFetch() {
+        WeatherForecastCache cache = cache(provider);
+
+        cache.precipitationExpected(49.841, 24.031, HOUR, HOUR.plusHours(1));
+        cache.precipitationExpected(49.839, 24.029, HOUR, HOUR.plusHours(1));
+        assertEquals(1, fetches.get());
+        assertEquals(1, cache.cellCount());
+
+        cache.precipitationExpected(50.45, 30.52, HOUR, HOUR.plusHours(1));
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    void looksOnlyAtHoursOverlappingTheWindow() {
+        WeatherForecastCache cache = cache(provider);
+
+        // 0.1 mm at HOUR + 1h is below the threshold
+        assertFalse(cache.precipitationExpected(49.84, 24.03, HOUR.plusMinutes(30), HOUR.plusMinutes(90)));
+        assertTrue(cache.precipitationExpected(49.84, 24.03, HOUR.plusMinutes(90), HOUR.plusMinutes(150)));
+        // the hour containing `from` counts
+        assertTrue(cache.precipitationExpected(49.84, 24.03, HOUR.plusMinutes(150), HOUR.plusMinutes(160)));
+    }
+
+    @Test
+    void cellCentresAreRoundedToTheGrid() {
+        List<double[]> fetched = new ArrayList<>();
+        WeatherForecastCache cache = cache((lat, lon) -> {
+            fetched.add(new double[]{lat, lon});
+            return List.of();
+        });
+
+        cache.precipitationExpected(49.79, 24.31, HOUR, HOUR.plusHours(1));
+        assertArrayEquals(new double[]{49.8, 24.3}, fetched.get(0));
+    }
+
+    @Test
+    void idleCellsAreEvicted() {
+        WeatherForecastCache cache = cache(provider);
+        cache.precipitationExpected(49.84, 24.03, HOUR, HOUR.plusHours(1));
+
+        cache.evictIdleCells(System.nanoTime());
+        assertEquals(1, cache.cellCount());
+        // two TTLs (30 min) without a lookup
+        cache.evictIdleCells(System.nanoTime() + TimeUnit.MINUTES.toNanos(61));
+        assertEquals(0, cache.cellCount());
+
+        cache.precipitationExpected(49.84, 24.03, HOUR, HOUR.plusHours(1));
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    void zonesWithoutCoordinatesNeverFetch() {
+        WeatherForecastCache cache = cache(provider);
+
+        assertFalse(cache.precipitationExpected(null, 24.03, HOUR, HOUR.plusHours(3)));
+        assertEquals(0, fetches.get());
+    }
+
+    @Test
+    void failedFetchIsNotRetriedBeforeTheTtl() {
+        WeatherForecastCache cache = cache((lat, lon) -> {
+            fetches.incrementAndGet();
+            throw new IllegalStateException("provider down");
+        });
+
+        assertFalse(cache.precipitationExpected(49.84, 24.03, HOUR, HOUR.plusHours(3)));
+        assertFalse(cache.precipitationExpected(49.84, 24.03, HOUR, HOUR.plusHours(3)));
+        assertEquals(1, fetches.get());
+    }
+}
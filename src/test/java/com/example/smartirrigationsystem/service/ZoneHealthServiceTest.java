@@ -0,0 +1,185 @@
+package com.example.smartirrigationsystem.service;
+
+import com.example.smartirrigationsystem.entity.PlantType;
+import com.example.smartirrigationsystem.entity.SubZone;
+import com.example.smartirrigationsystem.entity.Zone;
+import com.example.smartirrigationsystem.repository.PlantTypeRepository;
+import com.example.smartirrigationsystem.repository.SubZoneRepository;
+import com.example.smartirrigationsystem.repository.ZoneCacheEvictor;
+import com.example.smartirrigationsystem.repository.ZoneHealthRepository;
+import com.example.smartirrigationsystem.repository.ZoneRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Replays randomized event histories through {@link ZoneHealthService} and checks that the
+ * stored flags always equal a full recomputation from the history.
+ */
+@DataJpaTest
+@Import({ZoneHealthService.class, ZoneHealthRepository.class, ZoneCacheEvictor.class, IrrigationRuleEngine.class, CatalogCache.class, WeatherForecastCache.class,
+        StubWeatherForecastProvider.class})
+@TestPropertySource(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class ZoneHealthServiceTest {
+
+    private static final int HISTORIES = 40;
+    private static final int EVENTS_PER_HISTORY = 300;
+    private static final int SUBZONES = 4;
+
+    private enum Type { READING, IRRIGATION, FIX, SILENCE }
+
+    private static final class Event {
+        final Type type;
+        final int subZone;
+        final LocalDateTime at;
+        final int moisture;
+        final boolean flag; // raining for readings, offline for silence
+
+        Event(Type type, int subZone, LocalDateTime at, int moisture, boolean flag) {
+            this.type = type;
+            this.subZone = subZone;
+            this.at = at;
+            this.moisture = moisture;
+            this.flag = flag;
+        }
+    }
+
+    @Autowired
+    private ZoneHealthService healthService;
+    @Autowired
+    private CatalogCache catalogCache;
+    @Autowired
+    private ZoneRepository zoneRepo;
+    @Autowired
+    private SubZoneRepository subZoneRepo;
+    @Autowired
+    private PlantTypeRepository plantTypeRepo;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void storedFlagsMatchFullRecomputation() {
+        PlantType plant = plantTypeRepo.save(new PlantType(null, "test", null, 40, 70));
+        catalogCache.reload();
+        for (int seed = 0; seed < HISTORIES; seed++) {
+            replay(new Random(seed), plant, "health-" + seed);
+        }
+    }
+
+    private void replay(Random random, PlantType plant, String controllerUid) {
+        Zone zone = new Zone(controllerUid);
+        for (int i = 0; i < SUBZONES; i++) {
+            SubZone subZone = new SubZone(i, zone);
+            // the last subzone has no plant type and can never be flagged
+            subZone.setPlantType(i < SUBZONES - 1 ? plant : null);
+            zone.getSubZones().add(subZone);
+        }
+        zone = zoneRepo.save(zone);
+        Integer zoneId = zone.getId();
+        List<SubZoneState> states = new ArrayList<>();
+        for (SubZone subZone : zone.getSubZones()) {
+            states.add(SubZoneState.of(subZone, null));
+        }
+
+        List<Event> history = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.of(2025, 5, 1, 6, 0);
+        for (int i = 0; i < EVENTS_PER_HISTORY; i++) {
+            now = now.plusMinutes(5 + random.nextInt(40));
+            int sz = random.nextInt(SUBZONES);
+            SubZoneState state = states.get(sz);
+            int roll = random.nextInt(100);
+            if (roll < 60) {
+                Event e = new Event(Type.READING, sz, now, 20 + random.nextInt(50), random.nextInt(5) == 0);
+                history.add(e);
+                healthService.onReading(zoneId, state, e.moisture, e.flag, e.at);
+            } else if (roll < 85) {
+                history.add(new Event(Type.IRRIGATION, sz, now, 0, false));
+                state.setLastIrrigationStart(now);
+            } else if (roll < 95) {
+                history.add(new Event(Type.FIX, sz, now, 0, false));
+                fixIssue(zoneId, state);
+            } else {
+                Event e = new Event(Type.SILENCE, 0, now, 0, random.nextBoolean());
+                history.add(e);
+                healthService.onControllerSilence(zoneId, e.flag);
+            }
+            if (i % 20 == 19 || i == EVENTS_PER_HISTORY - 1) {
+                assertMatchesRecomputation(zoneId, states, history, plant);
+            }
+        }
+    }
+
+    // what PUT /fix-issue does: save the cleared flag, then SubZoneService.save refreshes cache and zone
+    private void fixIssue(Integer zoneId, SubZoneState state) {
+        entityManager.flush();
+        entityManager.clear();
+        SubZone subZone = subZoneRepo.findById(state.getSubZoneId()).orElseThrow();
+        subZone.setHasIrrigationIssue(false);
+        subZone.setLastIrrigationIssue(null);
+        subZoneRepo.save(subZone);
+        state.setIrrigationIssue(false);
+        healthService.refreshZone(zoneId);
+    }
+
+    private void assertMatchesRecomputation(Integer zoneId, List<SubZoneState> states, List<Event> history,
+                                            PlantType plant) {
+        entityManager.flush();
+        entityManager.clear();
+        boolean anyIssue = false;
+        for (int sz = 0; sz < SUBZONES; sz++) {
+            boolean expected = recomputeIssue(sz, history, sz < SUBZONES - 1 ? plant.getOptimalMoistureMin() : null);
+            SubZone stored = subZoneRepo.findById(states.get(sz).getSubZoneId()).orElseThrow();
+            assertEquals(expected, Boolean.TRUE.equals(stored.getHasIrrigationIssue()), "subzone " + sz);
+            assertEquals(expected, states.get(sz).isIrrigationIssue(), "cached state of subzone " + sz);
+            anyIssue |= expected;
+        }
+        boolean offline = false;
+        for (Event e : history) {
+            if (e.type == Type.SILENCE) {
+                offline = e.flag;
+            }
+        }
+        Zone zone = zoneRepo.findById(zoneId).orElseThrow();
+        assertEquals(offline, Boolean.TRUE.equals(zone.getControllerOffline()), "controllerOffline");
+        assertEquals(anyIssue || offline, Boolean.TRUE.equals(zone.getHasIssues()), "zone hasIssues");
+    }
+
+    // from scratch: some reading after the last fix saw an irrigation without effect
+    private static boolean recomputeIssue(int sz, List<Event> history, Integer optimalMin) {
+        int lastFix = -1;
+        for (int i = 0; i < history.size(); i++) {
+            if (history.get(i).type == Type.FIX && history.get(i).subZone == sz) {
+                lastFix = i;
+            }
+        }
+        for (int i = lastFix + 1; i < history.size(); i++) {
+            Event e = history.get(i);
+            if (e.type != Type.READING || e.subZone != sz) {
+                continue;
+            }
+            LocalDateTime lastIrrigation = null;
+            for (int j = 0; j < i; j++) {
+                if (history.get(j).type == Type.IRRIGATION && history.get(j).subZone == sz) {
+                    lastIrrigation = history.get(j).at;
+                }
+            }
+            if (HealthRules.irrigationHadNoEffect(optimalMin, e.moisture, e.flag, lastIrrigation, e.at)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}